@@ -0,0 +1,181 @@
+package mao.benchmark;
+
+import mao.utils.AdaptiveBufferGrowth;
+import mao.utils.BufferAllocator;
+import mao.utils.ByteBufferPool;
+import mao.utils.ChannelContext;
+import mao.utils.FrameDecoder;
+import mao.utils.LineFrameDecoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming_benchmark
+ * Package(包名): mao.benchmark
+ * Class(类名): BufferGrowthBenchmark
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 15:40
+ * Version(版本): 1.0
+ * Description(描述)： 读缓冲容量策略的对比，自适应（从64字节开始按需扩容，处理完缩回）和固定（一开始就分配最大消息长度）。
+ * 每次调用模拟一条消息的读事件：内存中的通道每次read最多给出readChunk字节，
+ * ChannelContext读、解码，直到整条消息处理完，然后把空的读缓冲还给分配器。
+ * java -jar target/benchmarks.jar BufferGrowthBenchmark -prof gc
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BufferGrowthBenchmark
+{
+    /**
+     * 一次read最多读到的字节数，相当于socket接收缓冲中已经到达的数据
+     */
+    private static final int READ_CHUNK = 16 * 1024;
+
+    /**
+     * 每条消息的长度，包含'\n'
+     */
+    @Param({"64", "4096", "65536"})
+    public int messageSize;
+
+    /**
+     * 容量策略，adaptive或者fixed
+     */
+    @Param({"adaptive", "fixed"})
+    public String growth;
+
+    /**
+     * 是否从池中分配读缓冲
+     */
+    @Param({"false", "true"})
+    public boolean pooled;
+
+    /**
+     * 一条消息
+     */
+    private byte[] message;
+
+    /**
+     * 内存中的通道，每次调用前重置
+     */
+    private ChunkedChannel channel;
+
+    /**
+     * 被测试的连接上下文
+     */
+    private ChannelContext channelContext;
+
+    @Setup
+    public void setup()
+    {
+        message = new byte[messageSize];
+        Arrays.fill(message, (byte) 'a');
+        message[messageSize - 1] = '\n';
+        channel = new ChunkedChannel(message, READ_CHUNK);
+        int maxFrameLength = FrameDecoder.DEFAULT_MAX_FRAME_LENGTH;
+        BufferAllocator allocator = pooled ? new ByteBufferPool(false) : BufferAllocator.HEAP;
+        AdaptiveBufferGrowth bufferGrowth = "fixed".equals(growth)
+                ? new AdaptiveBufferGrowth(maxFrameLength, maxFrameLength, maxFrameLength)
+                : new AdaptiveBufferGrowth(ChannelContext.DEFAULT_MINIMUM_CAPACITY,
+                ChannelContext.DEFAULT_INITIAL_CAPACITY, maxFrameLength);
+        channelContext = new ChannelContext(allocator, bufferGrowth, new LineFrameDecoder(maxFrameLength));
+    }
+
+    @Benchmark
+    public void readMessage(Blackhole blackhole) throws Exception
+    {
+        channel.reset();
+        while (channel.hasRemaining())
+        {
+            channelContext.read(channel);
+            channelContext.decode(blackhole::consume);
+        }
+        channelContext.releaseIfEmpty();
+    }
+
+    /**
+     * 内存中的通道，每次read最多给出chunk字节
+     */
+    private static final class ChunkedChannel implements ReadableByteChannel
+    {
+        /**
+         * 数据
+         */
+        private final byte[] data;
+
+        /**
+         * 一次read最多给出的字节数
+         */
+        private final int chunk;
+
+        /**
+         * 下一次read的起始位置
+         */
+        private int position;
+
+        /**
+         * 构造方法
+         *
+         * @param data  数据
+         * @param chunk 一次read最多给出的字节数
+         */
+        private ChunkedChannel(byte[] data, int chunk)
+        {
+            this.data = data;
+            this.chunk = chunk;
+        }
+
+        /**
+         * 从头开始再给出一遍数据
+         */
+        private void reset()
+        {
+            position = 0;
+        }
+
+        /**
+         * 是否还有数据
+         *
+         * @return boolean
+         */
+        private boolean hasRemaining()
+        {
+            return position < data.length;
+        }
+
+        @Override
+        public int read(ByteBuffer dst)
+        {
+            if (position == data.length)
+            {
+                return -1;
+            }
+            int length = Math.min(Math.min(chunk, dst.remaining()), data.length - position);
+            dst.put(data, position, length);
+            position += length;
+            return length;
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return true;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
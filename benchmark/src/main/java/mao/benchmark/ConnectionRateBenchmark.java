@@ -0,0 +1,129 @@
+package mao.benchmark;
+
+import mao.t6.AcceptHandler;
+import mao.t6.ReactorConfig;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming_benchmark
+ * Package(包名): mao.benchmark
+ * Class(类名): ConnectionRateBenchmark
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 17:20
+ * Version(版本): 1.0
+ * Description(描述)： 短连接建连速率，对比单个Accept线程和SO_REUSEPORT多个ServerSocketChannel。
+ * 每个客户端线程循环：建立连接，发一行，等回显，RST关闭（避免TIME_WAIT耗尽端口）。
+ * 用法：java -cp target/benchmarks.jar mao.benchmark.ConnectionRateBenchmark [客户端线程数] [每种模式的秒数] [端口]
+ */
+
+public class ConnectionRateBenchmark
+{
+    /**
+     * 发送的一行
+     */
+    private static final byte[] PING = "ping\n".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception
+    {
+        //关掉debug日志和每条消息的十六进制打印，必须在第一次使用日志之前设置
+        System.setProperty("mao.log.level", System.getProperty("mao.log.level", "info"));
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 18080;
+
+        run("single-acceptor", false, threads, seconds, port);
+        run("so_reuseport", true, threads, seconds, port + 1);
+        System.exit(0);
+    }
+
+    /**
+     * 启动一个服务，压测一种模式
+     *
+     * @param name      模式名称
+     * @param reusePort 是否使用SO_REUSEPORT
+     * @param threads   客户端线程数
+     * @param seconds   秒数
+     * @param port      端口
+     */
+    private static void run(String name, boolean reusePort, int threads, int seconds, int port) throws Exception
+    {
+        ReactorConfig config = new ReactorConfig();
+        config.setReusePort(reusePort);
+        //两轮压测的服务线程不会退出，设置为守护线程
+        config.setDaemon(true);
+        AcceptHandler acceptHandler = new AcceptHandler(config);
+        acceptHandler.register(port);
+        Thread.sleep(200);
+
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", port);
+        LongAdder connections = new LongAdder();
+        LongAdder errors = new LongAdder();
+        LongAdder latencyNanos = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++)
+        {
+            new Thread(() ->
+            {
+                ByteBuffer reply = ByteBuffer.allocate(PING.length);
+                while (System.nanoTime() < deadline)
+                {
+                    long start = System.nanoTime();
+                    try
+                    {
+                        connectOnce(address, reply);
+                        latencyNanos.add(System.nanoTime() - start);
+                        connections.increment();
+                    }
+                    catch (IOException e)
+                    {
+                        errors.increment();
+                    }
+                }
+                latch.countDown();
+            }, "client-" + i).start();
+        }
+        latch.await();
+        long count = connections.sum();
+        System.out.printf("%-16s threads=%d  connections/s=%.0f  avg connect+echo=%.1fus  errors=%d%n",
+                name, threads, count / (double) seconds,
+                count == 0 ? 0 : latencyNanos.sum() / 1000.0 / count, errors.sum());
+    }
+
+    /**
+     * 建立一次连接，发一行，等回显，然后关闭
+     *
+     * @param address 地址
+     * @param reply   接收回显的缓冲
+     * @throws IOException ioexception
+     */
+    private static void connectOnce(InetSocketAddress address, ByteBuffer reply) throws IOException
+    {
+        try (SocketChannel socketChannel = SocketChannel.open())
+        {
+            socketChannel.setOption(StandardSocketOptions.SO_LINGER, 0);
+            socketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            socketChannel.connect(address);
+            socketChannel.write(ByteBuffer.wrap(PING));
+            reply.clear();
+            while (reply.hasRemaining())
+            {
+                if (socketChannel.read(reply) == -1)
+                {
+                    throw new IOException("连接被服务端关闭");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,713 @@
+package mao.benchmark;
+
+import mao.loadgen.LatencyHistogram;
+import mao.loadgen.LoadGenerator;
+import mao.loadgen.LoadGeneratorConfig;
+import mao.t7.UdpIngestServer;
+import mao.t7.UdpSender;
+import mao.t7.UdpServerConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming_benchmark
+ * Package(包名): mao.benchmark
+ * Class(类名): EndToEndBenchmark
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 16:20
+ * Version(版本): 1.0
+ * Description(描述)： t1~t7的端到端回环压测。每种模型单独启动一个JVM（服务端都绑定8080，而且t1~t5没有办法停止），
+ * 在这个JVM中用线程调用服务端的main方法（t7直接创建和mao.t7.Server一样的UdpIngestServer，才能知道收到了多少），
+ * 然后在同一个进程中用客户端压一段时间，输出吞吐量、延迟百分位数和服务端线程的内存分配速率。
+ * t1~t7的协议不同，延迟的含义见{@link ServerModel.Workload}。
+ * 服务端线程的分配速率用ThreadMXBean按线程统计，不包含客户端线程；服务端的标准输出（debugAll等）被丢弃，
+ * 但格式化的开销还在。
+ * java -cp target/benchmarks.jar -Dmao.bench.models=t1,t2,t3,t4,t5,t6,t7 -Dmao.bench.connections=8 mao.benchmark.EndToEndBenchmark
+ */
+
+public class EndToEndBenchmark
+{
+    /**
+     * 服务端端口，t1~t7都是8080
+     */
+    private static final int PORT = 8080;
+
+    /**
+     * 客户端线程名前缀，统计服务端分配速率时排除
+     */
+    private static final String CLIENT_THREAD_PREFIX = "Client-";
+
+    /**
+     * LoadGenerator的线程名前缀
+     */
+    private static final String LOAD_GEN_THREAD_PREFIX = "LoadGen-";
+
+    /**
+     * t5推送的数据长度，和mao.t5.Server的PAYLOAD_LENGTH一致
+     */
+    private static final int T5_PAYLOAD_LENGTH = Integer.getInteger("mao.bench.t5.payloadLength", 10000000);
+
+    /**
+     * 连接数（UDP是发送线程数）
+     */
+    private static final int CONNECTIONS = Integer.getInteger("mao.bench.connections", 8);
+
+    /**
+     * 一条消息的长度，包含结尾的'\n'
+     */
+    private static final int MESSAGE_SIZE = Integer.getInteger("mao.bench.messageSize", 64);
+
+    /**
+     * 预热时间
+     */
+    private static final long WARMUP_NANOS = TimeUnit.SECONDS.toNanos(Integer.getInteger("mao.bench.warmupSeconds", 3));
+
+    /**
+     * 压测时间
+     */
+    private static final long DURATION_NANOS = TimeUnit.SECONDS.toNanos(Integer.getInteger("mao.bench.seconds", 10));
+
+    /**
+     * 表头
+     */
+    private static final String HEADER = String.format("%-6s %-8s %6s %12s %10s %10s %10s %10s %12s  %s",
+            "model", "workload", "conns", "ops/s", "MB/s", "p50(us)", "p99(us)", "p999(us)", "alloc(MB/s)", "notes");
+
+    /**
+     * 是否记录，预热结束后为true，压测结束后为false
+     */
+    private static volatile boolean recording;
+
+    /**
+     * 客户端是否继续运行
+     */
+    private static volatile boolean running = true;
+
+    /**
+     * main方法，没有参数时依次为每种模型启动子进程，参数用系统属性，mao.开头的系统属性会传给子进程：
+     * -Dmao.bench.models=t1,t2,t3,t4,t5,t6,t7 -Dmao.bench.connections=8 -Dmao.bench.messageSize=64
+     * -Dmao.bench.seconds=10 -Dmao.bench.warmupSeconds=3 -Dmao.bench.serverJvmArgs="-Xmx1g"
+     * 子进程的参数是模型名称和结果文件
+     *
+     * @param args 参数
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length == 2)
+        {
+            String row = runModel(ServerModel.of(args[0]));
+            Files.writeString(Path.of(args[1]), row);
+            //t1~t6的服务端线程不会退出
+            System.exit(0);
+        }
+
+        List<String> rows = new ArrayList<>();
+        rows.add(HEADER);
+        System.out.println(HEADER);
+        for (String name : System.getProperty("mao.bench.models", "t1,t2,t3,t4,t5,t6,t7").split(","))
+        {
+            ServerModel model = ServerModel.of(name);
+            Path resultFile = Files.createTempFile("e2e-" + name.trim(), ".txt");
+            try
+            {
+                Process process = fork(model, resultFile);
+                long timeoutNanos = WARMUP_NANOS + DURATION_NANOS + TimeUnit.SECONDS.toNanos(60);
+                if (!process.waitFor(timeoutNanos, TimeUnit.NANOSECONDS))
+                {
+                    process.destroyForcibly().waitFor();
+                }
+                String row = Files.readString(resultFile);
+                if (row.isEmpty())
+                {
+                    row = String.format("%-6s %-8s  失败，退出码：%d", name.trim(), model.getWorkload(),
+                            process.exitValue());
+                }
+                System.out.println(row);
+                rows.add(row);
+            }
+            finally
+            {
+                Files.deleteIfExists(resultFile);
+            }
+        }
+        System.out.println();
+        rows.forEach(System.out::println);
+    }
+
+    /**
+     * 为一种模型启动子进程，和当前进程使用同一个JDK和类路径，关闭debug日志，丢弃标准输出
+     *
+     * @param model      模型
+     * @param resultFile 结果文件
+     * @return {@link Process}
+     * @throws IOException ioexception
+     */
+    private static Process fork(ServerModel model, Path resultFile) throws IOException
+    {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        String serverJvmArgs = System.getProperty("mao.bench.serverJvmArgs", "").trim();
+        if (!serverJvmArgs.isEmpty())
+        {
+            command.addAll(Arrays.asList(serverJvmArgs.split("\\s+")));
+        }
+        command.add("-Dmao.log.level=info");
+        for (String name : System.getProperties().stringPropertyNames())
+        {
+            if (name.startsWith("mao.") && !name.equals("mao.bench.serverJvmArgs"))
+            {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(EndToEndBenchmark.class.getName());
+        command.add(model.name());
+        command.add(resultFile.toString());
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    /**
+     * 在当前进程中启动服务端并压测，只在子进程中调用
+     *
+     * @param model 模型
+     * @return 结果的一行
+     * @throws Exception 服务端启动失败等
+     */
+    private static String runModel(ServerModel model) throws Exception
+    {
+        //启动服务端之前就有的线程不算服务端线程
+        Set<Long> excludedThreads = new HashSet<>();
+        for (long id : ManagementFactory.getThreadMXBean().getAllThreadIds())
+        {
+            excludedThreads.add(id);
+        }
+        if (model.getWorkload() == ServerModel.Workload.DATAGRAM)
+        {
+            return runDatagram(model, excludedThreads);
+        }
+
+        Thread serverThread = new Thread(() ->
+        {
+            try
+            {
+                Class.forName(model.getMainClass()).getMethod("main", String[].class)
+                        .invoke(null, (Object) new String[0]);
+            }
+            catch (Exception e)
+            {
+                e.printStackTrace();
+            }
+        }, "ServerMain");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        awaitPort();
+
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", PORT);
+        if (model.getWorkload() == ServerModel.Workload.ECHO)
+        {
+            return runEcho(model, address, excludedThreads);
+        }
+
+        StreamClient[] clients = new StreamClient[CONNECTIONS];
+        Thread[] clientThreads = new Thread[CONNECTIONS];
+        for (int i = 0; i < CONNECTIONS; i++)
+        {
+            clients[i] = model.getWorkload() == ServerModel.Workload.SINK
+                    ? new SinkClient(address, MESSAGE_SIZE) : new PushClient(address, T5_PAYLOAD_LENGTH);
+            clientThreads[i] = new Thread(clients[i], CLIENT_THREAD_PREFIX + i);
+            clientThreads[i].start();
+        }
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(WARMUP_NANOS));
+        Map<Long, Long> allocatedBefore = serverAllocatedBytes(excludedThreads);
+        recording = true;
+        long begin = System.nanoTime();
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(DURATION_NANOS));
+        recording = false;
+        long elapsed = System.nanoTime() - begin;
+        long allocated = allocatedSince(allocatedBefore, serverAllocatedBytes(excludedThreads));
+        running = false;
+        for (int i = 0; i < CONNECTIONS; i++)
+        {
+            //阻塞在write或者read中的线程（例如t1不再读）要关闭连接才能退出
+            clients[i].closeChannel();
+            clientThreads[i].join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        long operations = 0;
+        long bytes = 0;
+        long errors = 0;
+        for (StreamClient client : clients)
+        {
+            histogram.add(client.histogram);
+            operations += client.operations;
+            bytes += client.bytes;
+            errors += client.errors;
+        }
+        return row(model, operations, bytes, histogram, elapsed, allocated, "errors=" + errors);
+    }
+
+    /**
+     * t6：闭环请求响应，用LoadGenerator
+     *
+     * @param model           模型
+     * @param address         服务端地址
+     * @param excludedThreads 不算服务端的线程
+     * @return 结果的一行
+     * @throws Exception 压测失败
+     */
+    private static String runEcho(ServerModel model, InetSocketAddress address, Set<Long> excludedThreads)
+            throws Exception
+    {
+        LoadGeneratorConfig config = new LoadGeneratorConfig();
+        config.setHost(address.getHostString());
+        config.setPort(address.getPort());
+        config.setConnections(CONNECTIONS);
+        config.setMessageSize(MESSAGE_SIZE);
+        LoadGenerator loadGenerator = new LoadGenerator(config);
+        LoadGenerator.Result[] result = new LoadGenerator.Result[1];
+        Thread runner = new Thread(() ->
+        {
+            try
+            {
+                result[0] = loadGenerator.run(WARMUP_NANOS, DURATION_NANOS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }, CLIENT_THREAD_PREFIX + "runner");
+        runner.start();
+        //和压测窗口大致对齐，建立连接的时间很短
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(WARMUP_NANOS));
+        Map<Long, Long> allocatedBefore = serverAllocatedBytes(excludedThreads);
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(DURATION_NANOS));
+        long allocated = allocatedSince(allocatedBefore, serverAllocatedBytes(excludedThreads));
+        runner.join();
+        LoadGenerator.Result echo = result[0];
+        long operations = echo.getHistogram().getTotalCount();
+        return row(model, operations, operations * MESSAGE_SIZE, echo.getHistogram(), echo.getElapsedNanos(),
+                allocated, "errors=" + (echo.getConnectErrors() + echo.getIoErrors()));
+    }
+
+    /**
+     * t7：多个线程不限速发送UDP，统计接收速率和丢包
+     *
+     * @param model           模型
+     * @param excludedThreads 不算服务端的线程
+     * @return 结果的一行
+     * @throws Exception 压测失败
+     */
+    private static String runDatagram(ServerModel model, Set<Long> excludedThreads) throws Exception
+    {
+        UdpServerConfig config = UdpServerConfig.fromSystemProperties();
+        try (UdpIngestServer udpIngestServer = new UdpIngestServer(config, (datagram, sender) ->
+        {
+        }))
+        {
+            udpIngestServer.start();
+            InetSocketAddress target = new InetSocketAddress("127.0.0.1", config.getPort());
+            UdpSender[] senders = new UdpSender[CONNECTIONS];
+            Thread[] senderThreads = new Thread[CONNECTIONS];
+            for (int i = 0; i < CONNECTIONS; i++)
+            {
+                UdpSender udpSender = new UdpSender(target, Math.max(MESSAGE_SIZE, UdpSender.ETHERNET_MTU_PAYLOAD));
+                senders[i] = udpSender;
+                senderThreads[i] = new Thread(() ->
+                {
+                    try (udpSender)
+                    {
+                        udpSender.sendAtRate(ByteBuffer.allocateDirect(MESSAGE_SIZE), false, 0,
+                                WARMUP_NANOS + DURATION_NANOS);
+                    }
+                    catch (IOException e)
+                    {
+                        e.printStackTrace();
+                    }
+                }, CLIENT_THREAD_PREFIX + i);
+                senderThreads[i].start();
+            }
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(WARMUP_NANOS));
+            Map<Long, Long> allocatedBefore = serverAllocatedBytes(excludedThreads);
+            long receivedBefore = udpIngestServer.getReceivedDatagrams();
+            long bytesBefore = udpIngestServer.getReceivedBytes();
+            long begin = System.nanoTime();
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(DURATION_NANOS));
+            long elapsed = System.nanoTime() - begin;
+            long received = udpIngestServer.getReceivedDatagrams() - receivedBefore;
+            long bytes = udpIngestServer.getReceivedBytes() - bytesBefore;
+            long allocated = allocatedSince(allocatedBefore, serverAllocatedBytes(excludedThreads));
+            for (Thread senderThread : senderThreads)
+            {
+                senderThread.join();
+            }
+            //等接收线程取完接收队列里剩下的数据报，丢包按整个过程统计
+            Thread.sleep(500);
+            long sent = 0;
+            for (UdpSender sender : senders)
+            {
+                sent += sender.getDatagramsSent();
+            }
+            long lost = sent - udpIngestServer.getReceivedDatagrams();
+            return row(model, received, bytes, new LatencyHistogram(), elapsed, allocated,
+                    String.format("loss=%.2f%%, kernelDrops=%d", sent == 0 ? 0 : 100.0 * lost / sent,
+                            udpIngestServer.getKernelDrops()));
+        }
+    }
+
+    /**
+     * 格式化一行结果
+     *
+     * @param model      模型
+     * @param operations 压测窗口内的操作数
+     * @param bytes      压测窗口内的字节数
+     * @param histogram  延迟，没有记录时输出-
+     * @param elapsed    压测窗口的时间
+     * @param allocated  服务端线程在压测窗口内分配的字节数，-1表示不支持
+     * @param notes      备注
+     * @return {@link String}
+     */
+    private static String row(ServerModel model, long operations, long bytes, LatencyHistogram histogram,
+                              long elapsed, long allocated, String notes)
+    {
+        double seconds = elapsed / 1e9;
+        boolean hasLatency = histogram.getTotalCount() > 0;
+        return String.format("%-6s %-8s %6d %12.0f %10.1f %10s %10s %10s %12s  %s",
+                model.name().toLowerCase(), model.getWorkload(), CONNECTIONS, operations / seconds,
+                bytes / seconds / (1024 * 1024),
+                hasLatency ? String.format("%.1f", histogram.getValueAtPercentile(50) / 1000.0) : "-",
+                hasLatency ? String.format("%.1f", histogram.getValueAtPercentile(99) / 1000.0) : "-",
+                hasLatency ? String.format("%.1f", histogram.getValueAtPercentile(99.9) / 1000.0) : "-",
+                allocated < 0 ? "-" : String.format("%.1f", allocated / seconds / (1024 * 1024)), notes);
+    }
+
+    /**
+     * 服务端线程到目前为止各自分配的字节数，服务端线程是启动服务端之后创建的、不是客户端的线程
+     *
+     * @param excludedThreads 启动服务端之前就有的线程
+     * @return 线程id -> 分配的字节数，不支持时返回null
+     */
+    private static Map<Long, Long> serverAllocatedBytes(Set<Long> excludedThreads)
+    {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+        {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Long, Long> allocated = new HashMap<>();
+        for (ThreadInfo threadInfo : threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds()))
+        {
+            if (threadInfo == null || excludedThreads.contains(threadInfo.getThreadId())
+                    || threadInfo.getThreadName().startsWith(CLIENT_THREAD_PREFIX)
+                    || threadInfo.getThreadName().startsWith(LOAD_GEN_THREAD_PREFIX))
+            {
+                continue;
+            }
+            long bytes = threadMXBean.getThreadAllocatedBytes(threadInfo.getThreadId());
+            if (bytes >= 0)
+            {
+                allocated.put(threadInfo.getThreadId(), bytes);
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * 两次统计之间服务端线程分配的字节数，期间新建的线程全部算上，期间退出的线程丢失
+     *
+     * @param before 开始时
+     * @param after  结束时
+     * @return 字节数，不支持时返回-1
+     */
+    private static long allocatedSince(Map<Long, Long> before, Map<Long, Long> after)
+    {
+        if (before == null || after == null)
+        {
+            return -1;
+        }
+        long allocated = 0;
+        for (Map.Entry<Long, Long> entry : after.entrySet())
+        {
+            allocated += entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+        }
+        return allocated;
+    }
+
+    /**
+     * 等待服务端开始监听。不能用连接试探：t5一连上就推送数据，试探的连接关闭后写失败会让t5的主循环退出，
+     * 所以在Linux上查/proc/net/tcp中有没有监听这个端口的socket，读不到时才用连接试探
+     *
+     * @throws Exception 超时
+     */
+    private static void awaitPort() throws Exception
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (System.nanoTime() < deadline)
+        {
+            Boolean listening = isListening(PORT);
+            if (listening == null)
+            {
+                try (SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("127.0.0.1", PORT)))
+                {
+                    return;
+                }
+                catch (IOException ignored)
+                {
+                }
+            }
+            else if (listening)
+            {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("等待服务端启动超时");
+    }
+
+    /**
+     * 从/proc/net/tcp和/proc/net/tcp6判断是否有socket在监听这个端口
+     *
+     * @param port 端口
+     * @return 是否在监听，读不到/proc时返回null
+     */
+    private static Boolean isListening(int port)
+    {
+        //local_address是 地址:端口，都是十六进制；st为0A表示LISTEN
+        String localPort = String.format(":%04X", port);
+        boolean readable = false;
+        for (String file : new String[]{"/proc/net/tcp", "/proc/net/tcp6"})
+        {
+            try
+            {
+                List<String> lines = Files.readAllLines(Path.of(file));
+                readable = true;
+                for (int i = 1; i < lines.size(); i++)
+                {
+                    String[] fields = lines.get(i).trim().split("\\s+");
+                    if (fields.length > 3 && fields[1].endsWith(localPort) && "0A".equals(fields[3]))
+                    {
+                        return true;
+                    }
+                }
+            }
+            catch (IOException ignored)
+            {
+            }
+        }
+        return readable ? false : null;
+    }
+
+    /**
+     * TCP客户端，一个线程一个，结果在线程结束后由主线程读取
+     */
+    private abstract static class StreamClient implements Runnable
+    {
+        /**
+         * 服务端地址
+         */
+        protected final InetSocketAddress address;
+
+        /**
+         * 延迟
+         */
+        protected final LatencyHistogram histogram = new LatencyHistogram();
+
+        /**
+         * 压测窗口内完成的操作数
+         */
+        protected long operations;
+
+        /**
+         * 压测窗口内的字节数
+         */
+        protected long bytes;
+
+        /**
+         * 失败次数
+         */
+        protected long errors;
+
+        /**
+         * 当前连接
+         */
+        protected volatile SocketChannel channel;
+
+        /**
+         * 构造方法
+         *
+         * @param address 服务端地址
+         */
+        protected StreamClient(InetSocketAddress address)
+        {
+            this.address = address;
+        }
+
+        /**
+         * 关闭当前连接，让阻塞的线程退出
+         */
+        void closeChannel()
+        {
+            SocketChannel socketChannel = channel;
+            if (socketChannel != null)
+            {
+                try
+                {
+                    socketChannel.close();
+                }
+                catch (IOException ignored)
+                {
+                }
+            }
+        }
+    }
+
+    /**
+     * 不停地发送消息，记录每次阻塞write的时间
+     */
+    private static final class SinkClient extends StreamClient
+    {
+        /**
+         * 一条消息
+         */
+        private final ByteBuffer message;
+
+        /**
+         * 构造方法
+         *
+         * @param address     服务端地址
+         * @param messageSize 消息长度，包含结尾的'\n'
+         */
+        private SinkClient(InetSocketAddress address, int messageSize)
+        {
+            super(address);
+            byte[] bytes = new byte[messageSize];
+            Arrays.fill(bytes, (byte) 'a');
+            bytes[messageSize - 1] = '\n';
+            this.message = ByteBuffer.allocateDirect(messageSize).put(bytes).flip();
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                channel = SocketChannel.open(address);
+                while (running)
+                {
+                    message.rewind();
+                    long start = System.nanoTime();
+                    while (message.hasRemaining())
+                    {
+                        channel.write(message);
+                    }
+                    if (recording)
+                    {
+                        histogram.record(System.nanoTime() - start);
+                        operations++;
+                        bytes += message.limit();
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                if (running)
+                {
+                    errors++;
+                }
+            }
+        }
+    }
+
+    /**
+     * 不停地连接、读完服务端推送的数据、关闭，记录每次的时间
+     */
+    private static final class PushClient extends StreamClient
+    {
+        /**
+         * 每个连接要读的字节数
+         */
+        private final int payloadLength;
+
+        /**
+         * 读缓冲
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+        /**
+         * 构造方法
+         *
+         * @param address       服务端地址
+         * @param payloadLength 每个连接要读的字节数
+         */
+        private PushClient(InetSocketAddress address, int payloadLength)
+        {
+            super(address);
+            this.payloadLength = payloadLength;
+        }
+
+        @Override
+        public void run()
+        {
+            while (running)
+            {
+                long start = System.nanoTime();
+                try (SocketChannel socketChannel = SocketChannel.open(address))
+                {
+                    channel = socketChannel;
+                    long total = 0;
+                    while (total < payloadLength)
+                    {
+                        buffer.clear();
+                        int read = socketChannel.read(buffer);
+                        if (read == -1)
+                        {
+                            break;
+                        }
+                        total += read;
+                    }
+                    if (total < payloadLength)
+                    {
+                        errors++;
+                    }
+                    else if (recording)
+                    {
+                        histogram.record(System.nanoTime() - start);
+                        operations++;
+                        bytes += total;
+                    }
+                }
+                catch (IOException e)
+                {
+                    if (running)
+                    {
+                        errors++;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package mao.benchmark;
+
+import mao.utils.LineFrameDecoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming_benchmark
+ * Package(包名): mao.benchmark
+ * Class(类名): FrameDecoderBenchmark
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 12:15
+ * Version(版本): 1.0
+ * Description(描述)： 原来的 split 和 LineFrameDecoder 的对比。
+ * 每次调用把同一批数据放进读缓冲再解码，两种实现的准备工作相同。
+ * java -jar target/benchmarks.jar FrameDecoderBenchmark -prof gc
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrameDecoderBenchmark
+{
+    /**
+     * 每条消息的长度，包含'\n'
+     */
+    @Param({"16", "128", "1024"})
+    public int lineLength;
+
+    /**
+     * 读缓冲的大小
+     */
+    @Param({"4096", "65536"})
+    public int bufferSize;
+
+    /**
+     * 是否使用直接内存
+     */
+    @Param({"false", "true"})
+    public boolean direct;
+
+    /**
+     * 一次读事件读到的数据，最后一条消息是半包
+     */
+    private byte[] payload;
+
+    /**
+     * 读缓冲
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * 被测试的解码器
+     */
+    private LineFrameDecoder decoder;
+
+    @Setup
+    public void setup()
+    {
+        payload = new byte[bufferSize];
+        Arrays.fill(payload, (byte) 'a');
+        for (int i = lineLength - 1; i < payload.length; i += lineLength)
+        {
+            payload[i] = '\n';
+        }
+        buffer = direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+        decoder = new LineFrameDecoder();
+    }
+
+    @Benchmark
+    public void legacySplit(Blackhole blackhole)
+    {
+        buffer.clear();
+        buffer.put(payload);
+        LegacyLineSplitter.split(buffer, blackhole::consume);
+    }
+
+    @Benchmark
+    public void lineFrameDecoder(Blackhole blackhole)
+    {
+        buffer.clear();
+        decoder.reset();
+        buffer.put(payload);
+        decoder.decode(buffer, blackhole::consume);
+    }
+}
@@ -0,0 +1,170 @@
+package mao.benchmark;
+
+import mao.utils.FrameDecoder;
+import mao.utils.LengthFieldFrameDecoder;
+import mao.utils.LengthFieldFrameEncoder;
+import mao.utils.LengthFieldType;
+import mao.utils.LineFrameDecoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming_benchmark
+ * Package(包名): mao.benchmark
+ * Class(类名): FramingBenchmark
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 15:05
+ * Version(版本): 1.0
+ * Description(描述)： '\n'分隔和长度字段两种消息格式的解码对比。
+ * 每次调用把同样大小的一批完整消息放进读缓冲再解码，消息体长度相同，只有消息头（'\n'或者长度字段）不同，
+ * 结果用每秒解码的字节数（ops/s * 每次的字节数）比较。int16放不下64KB的消息体，
+ * 单独在FramingBenchmark.Int16中测，最大一档是int16能表示的65535字节。
+ * java -jar target/benchmarks.jar FramingBenchmark -prof gc
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FramingBenchmark
+{
+    /**
+     * 读缓冲的大小，放得下至少一条64KB的消息
+     */
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * 消息体的长度
+     */
+    @Param({"64", "1024", "65536"})
+    public int messageSize;
+
+    /**
+     * 消息格式：line或者{@link LengthFieldType}的名称，INT16见{@link Int16}
+     */
+    @Param({"line", "INT32", "VARINT"})
+    public String framing;
+
+    /**
+     * 解码的数据
+     */
+    private Fixture fixture;
+
+    @Setup
+    public void setup()
+    {
+        fixture = new Fixture("line".equals(framing) ? null : LengthFieldType.valueOf(framing), messageSize);
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole)
+    {
+        fixture.decode(blackhole);
+    }
+
+    /**
+     * int16长度字段，消息体最大65535字节，单独一个状态类和自己的参数，没有放不下的组合
+     */
+    @State(Scope.Thread)
+    public static class Int16
+    {
+        /**
+         * 消息体的长度
+         */
+        @Param({"64", "1024", "65535"})
+        public int messageSize;
+
+        /**
+         * 解码的数据
+         */
+        private Fixture fixture;
+
+        @Setup
+        public void setup()
+        {
+            fixture = new Fixture(LengthFieldType.INT16, messageSize);
+        }
+
+        @Benchmark
+        public void decode(Blackhole blackhole)
+        {
+            fixture.decode(blackhole);
+        }
+    }
+
+    /**
+     * 一种消息格式的读缓冲、数据和解码器
+     */
+    private static final class Fixture
+    {
+        /**
+         * 一次读事件读到的数据，全部是完整的消息
+         */
+        private final byte[] payload;
+
+        /**
+         * 读缓冲
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * 被测试的解码器
+         */
+        private final FrameDecoder decoder;
+
+        /**
+         * 构造方法
+         *
+         * @param lengthFieldType 长度字段类型，null表示'\n'分隔
+         * @param messageSize     消息体的长度
+         */
+        private Fixture(LengthFieldType lengthFieldType, int messageSize)
+        {
+            boolean line = lengthFieldType == null;
+            int headerLength = line ? 1 : lengthFieldType.headerLength(messageSize);
+            int frameLength = messageSize + headerLength;
+            ByteBuffer frames = ByteBuffer.allocate(BUFFER_SIZE / frameLength * frameLength);
+            byte[] body = new byte[messageSize];
+            Arrays.fill(body, (byte) 'a');
+            LengthFieldFrameEncoder encoder = line ? null : new LengthFieldFrameEncoder(lengthFieldType);
+            while (frames.hasRemaining())
+            {
+                if (line)
+                {
+                    frames.put(body).put((byte) '\n');
+                }
+                else
+                {
+                    encoder.writeHeader(frames, messageSize);
+                    frames.put(body);
+                }
+            }
+            payload = frames.array();
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            decoder = line ? new LineFrameDecoder(BUFFER_SIZE) : new LengthFieldFrameDecoder(lengthFieldType,
+                    BUFFER_SIZE, false);
+        }
+
+        /**
+         * 把一批消息放进读缓冲再解码
+         *
+         * @param blackhole Blackhole
+         */
+        private void decode(Blackhole blackhole)
+        {
+            buffer.clear();
+            decoder.reset();
+            buffer.put(payload);
+            decoder.decode(buffer, blackhole::consume);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package mao.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import mao.utils.ByteBufferUtil;
+import mao.utils.HexDumpBuffer;
+import mao.utils.WireTap;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming_benchmark
+ * Package(包名): mao.benchmark
+ * Class(类名): HexDumpBenchmark
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 15:55
+ * Version(版本): 1.0
+ * Description(描述)： t1~t5每次读事件都会调用的十六进制打印的开销。
+ * 测量期间System.out换成丢弃输出的PrintStream，只测格式化和编码，不测终端。
+ * debugAll打印整个缓冲（容量），debugRead只打印position到limit之间，这里缓冲一半有数据。
+ * append开头的方法追加到重复使用的HexDumpBuffer，不经过System.out，-prof gc下gc.alloc.rate.norm应该是0；
+ * traceReadDisabled是TRACE没有开启时的开销；wireTapCapture是t1~t9现在I/O线程上的开销，
+ * 只拷贝到WireTap的队列，格式化在后台线程，队列满了的那部分是丢弃的开销。
+ * java -jar target/benchmarks.jar HexDumpBenchmark -prof gc
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HexDumpBenchmark
+{
+    /**
+     * 缓冲容量，t1~t3用的是16字节
+     */
+    @Param({"16", "256", "4096"})
+    public int bufferSize;
+
+    /**
+     * 被打印的缓冲
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * 同样内容的ByteBuf
+     */
+    private ByteBuf byteBuf;
+
+    /**
+     * 重复使用的打印缓冲
+     */
+    private HexDumpBuffer dump;
+
+    /**
+     * TRACE没有开启的日志
+     */
+    private Logger log;
+
+    /**
+     * 原来的System.out
+     */
+    private PrintStream originalOut;
+
+    /**
+     * 输出直接丢弃的报文抓取
+     */
+    private WireTap wireTap;
+
+    /**
+     * 每次都抓取的Tap
+     */
+    private WireTap.Tap tap;
+
+    @Setup
+    public void setup()
+    {
+        buffer = ByteBuffer.allocate(bufferSize);
+        for (int i = 0; i < bufferSize / 2; i++)
+        {
+            buffer.put((byte) i);
+        }
+        buffer.flip();
+        byteBuf = Unpooled.wrappedBuffer(buffer.duplicate());
+        dump = new HexDumpBuffer();
+        log = LoggerFactory.getLogger(HexDumpBenchmark.class);
+        if (log.isTraceEnabled())
+        {
+            throw new IllegalStateException("需要关闭" + HexDumpBenchmark.class.getName() + "的TRACE日志");
+        }
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        wireTap = new WireTap(true, 1024, 256, 1, dump -> { });
+        tap = wireTap.newTap("benchmark");
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        System.setOut(originalOut);
+        wireTap.close();
+    }
+
+    @Benchmark
+    public void debugAll()
+    {
+        ByteBufferUtil.debugAll(buffer);
+    }
+
+    @Benchmark
+    public void debugRead()
+    {
+        ByteBufferUtil.debugRead(buffer);
+    }
+
+    @Benchmark
+    public int appendAll()
+    {
+        dump.clear();
+        ByteBufferUtil.appendAll(dump, buffer);
+        return dump.length();
+    }
+
+    @Benchmark
+    public int appendRead()
+    {
+        dump.clear();
+        ByteBufferUtil.appendRead(dump, buffer);
+        return dump.length();
+    }
+
+    @Benchmark
+    public int appendReadByteBuf()
+    {
+        dump.clear();
+        ByteBufferUtil.appendRead(dump, byteBuf);
+        return dump.length();
+    }
+
+    @Benchmark
+    public void traceReadDisabled()
+    {
+        ByteBufferUtil.traceRead(log, buffer);
+    }
+
+    @Benchmark
+    public void wireTapCapture()
+    {
+        tap.onFrame(buffer);
+    }
+}
@@ -0,0 +1,54 @@
+package mao.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming_benchmark
+ * Package(包名): mao.benchmark
+ * Class(类名): LegacyLineSplitter
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 12:10
+ * Version(版本): 1.0
+ * Description(描述)： mao.t4.Server 和 mao.t5.Server 原来的 split 方法，作为基准测试的对照
+ */
+
+public final class LegacyLineSplitter
+{
+    private LegacyLineSplitter()
+    {
+    }
+
+    /**
+     * 原来的实现：每条消息逐字节拷贝到新分配的ByteBuffer，最后compact
+     *
+     * @param source   读缓冲，处于写模式
+     * @param consumer 消息
+     */
+    public static void split(ByteBuffer source, Consumer<ByteBuffer> consumer)
+    {
+        //切换到读模式
+        source.flip();
+        for (int i = 0; i < source.limit(); i++)
+        {
+            //找到一条完整消息
+            if (source.get(i) == '\n')
+            {
+                int length = i + 1 - source.position();
+                // 把这条完整消息存入新的 ByteBuffer
+                ByteBuffer target = ByteBuffer.allocate(length);
+                // 从 source 读，向 target 写
+                for (int j = 0; j < length; j++)
+                {
+                    target.put(source.get());
+                }
+                consumer.accept(target);
+            }
+        }
+        //切换到写模式，没读完的部分继续
+        source.compact();
+    }
+}
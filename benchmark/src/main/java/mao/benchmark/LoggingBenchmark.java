@@ -0,0 +1,171 @@
+package mao.benchmark;
+
+import mao.loadgen.LatencyHistogram;
+import mao.loadgen.LoadGenerator;
+import mao.loadgen.LoadGeneratorConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming_benchmark
+ * Package(包名): mao.benchmark
+ * Class(类名): LoggingBenchmark
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:30
+ * Version(版本): 1.0
+ * Description(描述)： 日志对t6吞吐量的影响。每种日志模式单独启动一个t6进程，用闭环的LoadGenerator压一段时间：
+ * off是info级别，I/O线程中的debug日志和WireTap都关闭；sync是debug级别，使用默认的log4j2.xml，
+ * Worker线程自己格式化和写控制台；async是debug级别，使用log4j2-async.xml，由disruptor后台线程输出。
+ * async需要有空闲的CPU给后台线程，只有一个CPU时后台线程和Worker线程抢CPU，吞吐量不会比sync高。
+ * 服务端的输出默认丢弃，只测格式化和写的开销，-Dmao.bench.serverLog=文件 时写到文件。
+ * 每个读事件打印一行debug日志，每条消息一次WireTap抓取，不需要打印报文时加 -Dmao.bench.serverJvmArgs=-Dmao.wiretap.enabled=false
+ * java -cp target/benchmarks.jar mao.benchmark.LoggingBenchmark
+ */
+
+public class LoggingBenchmark
+{
+    /**
+     * 服务端端口
+     */
+    private static final int PORT = 8080;
+
+    /**
+     * main方法，参数用系统属性：
+     * -Dmao.bench.modes=off,sync,async -Dmao.bench.connections=100 -Dmao.bench.seconds=10
+     * -Dmao.bench.warmupSeconds=3 -Dmao.bench.messageSize=64 -Dmao.bench.serverJvmArgs="-Xmx1g"
+     *
+     * @param args 参数
+     */
+    public static void main(String[] args) throws Exception
+    {
+        String[] modes = System.getProperty("mao.bench.modes", "off,sync,async").split(",");
+        int connections = Integer.getInteger("mao.bench.connections", 100);
+        int seconds = Integer.getInteger("mao.bench.seconds", 10);
+        int warmupSeconds = Integer.getInteger("mao.bench.warmupSeconds", 3);
+        int messageSize = Integer.getInteger("mao.bench.messageSize", 64);
+        int threads = Integer.getInteger("mao.bench.clientThreads",
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+        List<String> rows = new ArrayList<>();
+        rows.add(String.format("%-6s %8s %12s %10s %10s %10s %8s",
+                "mode", "conns", "events/s", "p50(us)", "p99(us)", "p999(us)", "errors"));
+        for (String mode : modes)
+        {
+            Process process = startServer(mode.trim());
+            try
+            {
+                awaitPort(process);
+                LoadGeneratorConfig config = new LoadGeneratorConfig();
+                config.setPort(PORT);
+                config.setConnections(connections);
+                config.setThreads(threads);
+                config.setMessageSize(messageSize);
+                LoadGenerator.Result result = new LoadGenerator(config).run(
+                        TimeUnit.SECONDS.toNanos(warmupSeconds), TimeUnit.SECONDS.toNanos(seconds));
+                LatencyHistogram histogram = result.getHistogram();
+                String row = String.format("%-6s %8d %12.0f %10.1f %10.1f %10.1f %8d",
+                        mode.trim(), result.getConnections(), result.getThroughput(),
+                        histogram.getValueAtPercentile(50) / 1000.0,
+                        histogram.getValueAtPercentile(99) / 1000.0,
+                        histogram.getValueAtPercentile(99.9) / 1000.0,
+                        result.getConnectErrors() + result.getIoErrors());
+                System.out.println(row);
+                rows.add(row);
+            }
+            finally
+            {
+                process.destroy();
+                if (!process.waitFor(10, TimeUnit.SECONDS))
+                {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+        }
+        System.out.println();
+        rows.forEach(System.out::println);
+    }
+
+    /**
+     * 启动t6服务端进程，和当前进程使用同一个JDK和类路径
+     *
+     * @param mode 日志模式，off、sync或者async
+     * @return {@link Process}
+     * @throws IOException ioexception
+     */
+    private static Process startServer(String mode) throws IOException
+    {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        String serverJvmArgs = System.getProperty("mao.bench.serverJvmArgs", "").trim();
+        if (!serverJvmArgs.isEmpty())
+        {
+            command.addAll(Arrays.asList(serverJvmArgs.split("\\s+")));
+        }
+        switch (mode)
+        {
+            case "off":
+                command.add("-Dmao.log.level=info");
+                break;
+            case "sync":
+                command.add("-Dmao.log.level=debug");
+                break;
+            case "async":
+                command.add("-Dmao.log.level=debug");
+                command.add("-Dlog4j.configurationFile=log4j2-async.xml");
+                break;
+            default:
+                throw new IllegalArgumentException("不支持的日志模式：" + mode);
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("mao.t6.Server");
+        String serverLog = System.getProperty("mao.bench.serverLog");
+        ProcessBuilder processBuilder = new ProcessBuilder(command).redirectErrorStream(true);
+        if (serverLog == null)
+        {
+            processBuilder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        }
+        else
+        {
+            processBuilder.redirectOutput(ProcessBuilder.Redirect.appendTo(new File(serverLog)));
+        }
+        return processBuilder.start();
+    }
+
+    /**
+     * 等待服务端开始监听
+     *
+     * @param process 服务端进程
+     * @throws Exception 超时或者进程已经退出
+     */
+    private static void awaitPort(Process process) throws Exception
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (System.nanoTime() < deadline)
+        {
+            if (!process.isAlive())
+            {
+                throw new IllegalStateException("服务端进程已退出：" + process.exitValue());
+            }
+            try (SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("127.0.0.1", PORT)))
+            {
+                return;
+            }
+            catch (IOException e)
+            {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("等待服务端启动超时");
+    }
+}
@@ -0,0 +1,134 @@
+package mao.benchmark;
+
+import mao.utils.OptimizedSelector;
+import mao.utils.SelectedKeyHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming_benchmark
+ * Package(包名): mao.benchmark
+ * Class(类名): SelectorDispatchBenchmark
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 19:40
+ * Version(版本): 1.0
+ * Description(描述)： 就绪事件分发的对比，HashSet迭代器 + iterator.remove() 和 数组遍历。
+ * 每个Pipe的读端写入一个字节并且从不读取，一直处于读就绪状态。
+ * 结果中的events是每秒分发的事件数，JDK的epoll一次最多返回1024个事件。
+ * java -jar target/benchmarks.jar SelectorDispatchBenchmark -prof gc
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SelectorDispatchBenchmark
+{
+    /**
+     * 就绪的通道数量，每个Pipe占两个文件描述符
+     */
+    @Param({"256", "4096"})
+    public int readyChannels;
+
+    /**
+     * 是否替换就绪事件集合
+     */
+    @Param({"false", "true"})
+    public boolean optimized;
+
+    /**
+     * 选择器
+     */
+    private OptimizedSelector selector;
+
+    /**
+     * 管道
+     */
+    private Pipe[] pipes;
+
+    /**
+     * 本次调用分发的事件数
+     */
+    private int dispatched;
+
+    /**
+     * 就绪事件回调，只创建一次，读一下readyOps，模拟真实处理的最小开销
+     */
+    private final SelectedKeyHandler handler = selectionKey ->
+    {
+        if ((selectionKey.readyOps() & SelectionKey.OP_READ) != 0)
+        {
+            dispatched++;
+        }
+    };
+
+    /**
+     * 每秒分发的事件数
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class EventCounters
+    {
+        /**
+         * 分发的事件数
+         */
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void clean()
+        {
+            events = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException
+    {
+        selector = OptimizedSelector.open(SelectorProvider.provider(), optimized);
+        if (optimized && !selector.isOptimized())
+        {
+            throw new IllegalStateException("当前JDK不能替换就绪事件集合");
+        }
+        pipes = new Pipe[readyChannels];
+        for (int i = 0; i < readyChannels; i++)
+        {
+            Pipe pipe = Pipe.open();
+            pipe.sink().write(ByteBuffer.wrap(new byte[]{1}));
+            pipe.source().configureBlocking(false);
+            pipe.source().register(selector.unwrap(), SelectionKey.OP_READ);
+            pipes[i] = pipe;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        selector.close();
+        for (Pipe pipe : pipes)
+        {
+            pipe.sink().close();
+            pipe.source().close();
+        }
+    }
+
+    @Benchmark
+    public int dispatch(EventCounters counters) throws IOException
+    {
+        dispatched = 0;
+        selector.selectNow();
+        selector.processSelectedKeys(handler);
+        counters.events += dispatched;
+        return dispatched;
+    }
+}
@@ -0,0 +1,121 @@
+package mao.benchmark;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming_benchmark
+ * Package(包名): mao.benchmark
+ * Enum(枚举名): ServerModel
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 16:05
+ * Version(版本): 1.0
+ * Description(描述)： 端到端压测的服务器模型，t1~t7协议不同，每种模型对应一种压测方式
+ */
+
+public enum ServerModel
+{
+    /**
+     * 阻塞模式，只读不回
+     */
+    T1("mao.t1.Server", Workload.SINK),
+
+    /**
+     * 非阻塞轮询，只读不回
+     */
+    T2("mao.t2.Server", Workload.SINK),
+
+    /**
+     * selector，只读不回
+     */
+    T3("mao.t3.Server", Workload.SINK),
+
+    /**
+     * selector + 按'\n'分隔消息，只读不回
+     */
+    T4("mao.t4.Server", Workload.SINK),
+
+    /**
+     * 连接建立后服务端推送一大段数据
+     */
+    T5("mao.t5.Server", Workload.PUSH),
+
+    /**
+     * 多线程reactor，回显
+     */
+    T6("mao.t6.Server", Workload.ECHO),
+
+    /**
+     * UDP，只收不回
+     */
+    T7("mao.t7.Server", Workload.DATAGRAM);
+
+    /**
+     * 服务端的main类
+     */
+    private final String mainClass;
+
+    /**
+     * 压测方式
+     */
+    private final Workload workload;
+
+    /**
+     * 构造方法
+     *
+     * @param mainClass 服务端的main类
+     * @param workload  压测方式
+     */
+    ServerModel(String mainClass, Workload workload)
+    {
+        this.mainClass = mainClass;
+        this.workload = workload;
+    }
+
+    /**
+     * 按名称查找，不区分大小写，例如t6
+     *
+     * @param name 名称
+     * @return {@link ServerModel}
+     */
+    public static ServerModel of(String name)
+    {
+        return valueOf(name.trim().toUpperCase());
+    }
+
+    public String getMainClass()
+    {
+        return mainClass;
+    }
+
+    public Workload getWorkload()
+    {
+        return workload;
+    }
+
+    /**
+     * 压测方式，决定延迟的含义
+     */
+    public enum Workload
+    {
+        /**
+         * 每个连接一个线程不停地发送消息，服务端不回复，延迟是一次阻塞write的时间，反映服务端的背压
+         */
+        SINK,
+
+        /**
+         * 每个连接一个线程不停地连接、读完服务端推送的数据、关闭，延迟是从连接到读完最后一个字节的时间
+         */
+        PUSH,
+
+        /**
+         * 闭环请求响应，延迟是往返时间
+         */
+        ECHO,
+
+        /**
+         * 每个线程一个UDP socket不停地发送，服务端不回复，没有延迟，统计丢包
+         */
+        DATAGRAM
+    }
+}
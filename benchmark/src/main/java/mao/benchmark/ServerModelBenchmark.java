@@ -0,0 +1,191 @@
+package mao.benchmark;
+
+import mao.loadgen.LatencyHistogram;
+import mao.loadgen.LoadGenerator;
+import mao.loadgen.LoadGeneratorConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming_benchmark
+ * Package(包名): mao.benchmark
+ * Class(类名): ServerModelBenchmark
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 22:10
+ * Version(版本): 1.0
+ * Description(描述)： 手写的多线程reactor(t6)、虚拟线程(t8)和Netty(t9)的对比，三者用同一个MessageHandler，
+ * 每种服务器、每个连接数单独启动一个服务端进程，用闭环的LoadGenerator压一段时间，
+ * 输出吞吐量、延迟百分位数和服务端进程的内存（/proc中的VmRSS和VmHWM，只支持Linux）。
+ * t8需要用JDK21运行，主项目用 mvn -P jdk21 install 编译；默认在JDK21以上才包含t8。
+ * 5万个连接时客户端和服务端各占5万个文件描述符，先 ulimit -n 200000。
+ * java -cp target/benchmarks.jar -Dmao.bench.connections=1000,10000,50000 mao.benchmark.ServerModelBenchmark
+ */
+
+public class ServerModelBenchmark
+{
+    /**
+     * 服务端端口，t6、t8和t9都是8080
+     */
+    private static final int PORT = 8080;
+
+    /**
+     * 一个回环源地址使用的连接数，临时端口默认只有两万多个
+     */
+    private static final int CONNECTIONS_PER_LOCAL_ADDRESS = 20000;
+
+    /**
+     * main方法，参数用系统属性：
+     * -Dmao.bench.servers=t6,t8,t9 -Dmao.bench.connections=1000,10000,50000 -Dmao.bench.seconds=20
+     * -Dmao.bench.warmupSeconds=5 -Dmao.bench.messageSize=64 -Dmao.bench.serverJvmArgs="-Xmx1g"
+     *
+     * @param args 参数
+     */
+    public static void main(String[] args) throws Exception
+    {
+        String defaultServers = Runtime.version().feature() >= 21 ? "t6,t8,t9" : "t6,t9";
+        String[] servers = System.getProperty("mao.bench.servers", defaultServers).split(",");
+        int[] connectionCounts = Arrays.stream(System.getProperty("mao.bench.connections", "1000,10000,50000")
+                .split(",")).mapToInt(Integer::parseInt).toArray();
+        int seconds = Integer.getInteger("mao.bench.seconds", 20);
+        int warmupSeconds = Integer.getInteger("mao.bench.warmupSeconds", 5);
+        int messageSize = Integer.getInteger("mao.bench.messageSize", 64);
+        int threads = Integer.getInteger("mao.bench.clientThreads", Runtime.getRuntime().availableProcessors());
+
+        List<String> rows = new ArrayList<>();
+        rows.add(String.format("%-6s %8s %12s %10s %10s %10s %10s %10s %8s",
+                "server", "conns", "req/s", "p50(us)", "p99(us)", "p999(us)", "RSS(MB)", "HWM(MB)", "errors"));
+        for (String server : servers)
+        {
+            for (int connections : connectionCounts)
+            {
+                Process process = startServer(server.trim());
+                try
+                {
+                    awaitPort(process);
+                    int localAddressCount = (connections + CONNECTIONS_PER_LOCAL_ADDRESS - 1)
+                            / CONNECTIONS_PER_LOCAL_ADDRESS;
+                    LoadGeneratorConfig config = new LoadGeneratorConfig();
+                    config.setPort(PORT);
+                    config.setConnections(connections);
+                    config.setThreads(threads);
+                    config.setMessageSize(messageSize);
+                    config.setLocalAddressCount(localAddressCount);
+                    LoadGenerator.Result result = new LoadGenerator(config).run(
+                            TimeUnit.SECONDS.toNanos(warmupSeconds), TimeUnit.SECONDS.toNanos(seconds));
+                    long[] memory = readMemoryKb(process.pid());
+                    LatencyHistogram histogram = result.getHistogram();
+                    String row = String.format("%-6s %8d %12.0f %10.1f %10.1f %10.1f %10.1f %10.1f %8d",
+                            server, result.getConnections(), result.getThroughput(),
+                            histogram.getValueAtPercentile(50) / 1000.0,
+                            histogram.getValueAtPercentile(99) / 1000.0,
+                            histogram.getValueAtPercentile(99.9) / 1000.0,
+                            memory[0] / 1024.0, memory[1] / 1024.0,
+                            result.getConnectErrors() + result.getIoErrors());
+                    System.out.println(row);
+                    rows.add(row);
+                }
+                finally
+                {
+                    process.destroy();
+                    if (!process.waitFor(10, TimeUnit.SECONDS))
+                    {
+                        process.destroyForcibly().waitFor();
+                    }
+                }
+            }
+        }
+        System.out.println();
+        rows.forEach(System.out::println);
+    }
+
+    /**
+     * 启动服务端进程，和当前进程使用同一个JDK和类路径，关闭debug日志
+     *
+     * @param server t6、t8或者t9
+     * @return {@link Process}
+     * @throws IOException ioexception
+     */
+    private static Process startServer(String server) throws IOException
+    {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        String serverJvmArgs = System.getProperty("mao.bench.serverJvmArgs", "").trim();
+        if (!serverJvmArgs.isEmpty())
+        {
+            command.addAll(Arrays.asList(serverJvmArgs.split("\\s+")));
+        }
+        command.add("-Dmao.log.level=info");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("mao." + server + ".Server");
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    /**
+     * 等待服务端开始监听
+     *
+     * @param process 服务端进程
+     * @throws Exception 超时或者进程已经退出
+     */
+    private static void awaitPort(Process process) throws Exception
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (System.nanoTime() < deadline)
+        {
+            if (!process.isAlive())
+            {
+                throw new IllegalStateException("服务端进程已退出：" + process.exitValue());
+            }
+            try (SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("127.0.0.1", PORT)))
+            {
+                return;
+            }
+            catch (IOException e)
+            {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("等待服务端启动超时");
+    }
+
+    /**
+     * 读取进程的内存
+     *
+     * @param pid 进程号
+     * @return 当前常驻内存和峰值常驻内存，KB，读不到时为-1
+     */
+    private static long[] readMemoryKb(long pid)
+    {
+        long[] memory = {-1, -1};
+        try
+        {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status")))
+            {
+                if (line.startsWith("VmRSS:"))
+                {
+                    memory[0] = Long.parseLong(line.replaceAll("\\D", ""));
+                }
+                else if (line.startsWith("VmHWM:"))
+                {
+                    memory[1] = Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        }
+        catch (IOException | RuntimeException ignored)
+        {
+        }
+        return memory;
+    }
+}
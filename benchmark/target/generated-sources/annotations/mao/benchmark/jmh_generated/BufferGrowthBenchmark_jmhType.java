@@ -0,0 +1,4 @@
+package mao.benchmark.jmh_generated;
+public class BufferGrowthBenchmark_jmhType extends BufferGrowthBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package mao.benchmark.jmh_generated;
+public class FramingBenchmark_Int16_jmhType extends FramingBenchmark_Int16_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package mao.benchmark.jmh_generated;
+public class FramingBenchmark_jmhType extends FramingBenchmark_jmhType_B3 {
+}
+
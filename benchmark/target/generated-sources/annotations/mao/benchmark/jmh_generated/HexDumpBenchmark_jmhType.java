@@ -0,0 +1,4 @@
+package mao.benchmark.jmh_generated;
+public class HexDumpBenchmark_jmhType extends HexDumpBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package mao.benchmark.jmh_generated;
+public class SelectorDispatchBenchmark_EventCounters_jmhType extends SelectorDispatchBenchmark_EventCounters_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package mao.benchmark.jmh_generated;
+public class SelectorDispatchBenchmark_jmhType extends SelectorDispatchBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,246 @@
+package mao.loadgen;
+
+import java.util.Arrays;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.loadgen
+ * Class(类名): LatencyHistogram
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 21:40
+ * Version(版本): 1.0
+ * Description(描述)： 延迟直方图，和HdrHistogram一样按2的幂分段，每段再平分成64格，
+ * 相对误差不超过1/64。记录只是数组下标加一，不分配内存，可以在压测的热路径中使用。
+ * 不是线程安全的，每个线程一个，最后用add合并
+ */
+
+public class LatencyHistogram
+{
+    /**
+     * 每段平分的格数的位数
+     */
+    private static final int SUB_BUCKET_HALF_COUNT_BITS = 6;
+
+    /**
+     * 每段平分的格数
+     */
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_BITS;
+
+    /**
+     * 小于这个值的直接用值作为下标，没有误差
+     */
+    private static final int SUB_BUCKET_COUNT = SUB_BUCKET_HALF_COUNT << 1;
+
+    /**
+     * 格数，覆盖到Long.MAX_VALUE
+     */
+    private static final int BUCKET_COUNT =
+            SUB_BUCKET_COUNT + (63 - SUB_BUCKET_HALF_COUNT_BITS) * SUB_BUCKET_HALF_COUNT;
+
+    /**
+     * 每一格的次数
+     */
+    private final long[] counts = new long[BUCKET_COUNT];
+
+    /**
+     * 总次数
+     */
+    private long totalCount;
+
+    /**
+     * 最小值
+     */
+    private long minValue = Long.MAX_VALUE;
+
+    /**
+     * 最大值
+     */
+    private long maxValue;
+
+    /**
+     * 所有值的和，用来算平均值
+     */
+    private double sum;
+
+    /**
+     * 记录一个值
+     *
+     * @param value 值，通常是纳秒，小于0时按0记录
+     */
+    public void record(long value)
+    {
+        recordCount(value, 1);
+    }
+
+    /**
+     * 记录一个值出现了多次
+     *
+     * @param value 值
+     * @param count 次数
+     */
+    public void recordCount(long value, long count)
+    {
+        if (value < 0)
+        {
+            value = 0;
+        }
+        counts[indexOf(value)] += count;
+        totalCount += count;
+        sum += (double) value * count;
+        if (value < minValue)
+        {
+            minValue = value;
+        }
+        if (value > maxValue)
+        {
+            maxValue = value;
+        }
+    }
+
+    /**
+     * 合并另一个直方图
+     *
+     * @param other 另一个直方图
+     */
+    public void add(LatencyHistogram other)
+    {
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        minValue = Math.min(minValue, other.minValue);
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    /**
+     * 清空
+     */
+    public void reset()
+    {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        minValue = Long.MAX_VALUE;
+        maxValue = 0;
+    }
+
+    /**
+     * 得到百分位数
+     *
+     * @param percentile 百分位，0到100，例如99.9
+     * @return 值，没有记录时返回0
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        if (totalCount == 0)
+        {
+            return 0;
+        }
+        double clamped = Math.min(Math.max(percentile, 0), 100);
+        long countAtPercentile = Math.max(1, (long) Math.ceil(clamped / 100 * totalCount));
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            count += counts[i];
+            if (count >= countAtPercentile)
+            {
+                return Math.min(valueOf(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * 总次数
+     *
+     * @return long
+     */
+    public long getTotalCount()
+    {
+        return totalCount;
+    }
+
+    /**
+     * 最小值
+     *
+     * @return long，没有记录时返回0
+     */
+    public long getMinValue()
+    {
+        return totalCount == 0 ? 0 : minValue;
+    }
+
+    /**
+     * 最大值
+     *
+     * @return long
+     */
+    public long getMaxValue()
+    {
+        return maxValue;
+    }
+
+    /**
+     * 平均值
+     *
+     * @return double
+     */
+    public double getMean()
+    {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    /**
+     * 计算值所在的格
+     *
+     * @param value 值，大于等于0
+     * @return int
+     */
+    private static int indexOf(long value)
+    {
+        if (value < SUB_BUCKET_COUNT)
+        {
+            return (int) value;
+        }
+        //右移之后落在[64, 128)
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_HALF_COUNT_BITS;
+        int subIndex = (int) (value >>> shift) - SUB_BUCKET_HALF_COUNT;
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + subIndex;
+    }
+
+    /**
+     * 得到格代表的值，取格内的中间值
+     *
+     * @param index 格
+     * @return long
+     */
+    private static long valueOf(int index)
+    {
+        if (index < SUB_BUCKET_COUNT)
+        {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        long top = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return (top << shift) + (1L << (shift - 1));
+    }
+
+    /**
+     * 按微秒输出常用的百分位数
+     *
+     * @return {@link String}
+     */
+    public String toSummaryString()
+    {
+        return String.format("count=%d, mean=%.1fus, p50=%.1fus, p90=%.1fus, p99=%.1fus, p999=%.1fus, max=%.1fus",
+                totalCount, getMean() / 1000,
+                getValueAtPercentile(50) / 1000.0, getValueAtPercentile(90) / 1000.0,
+                getValueAtPercentile(99) / 1000.0, getValueAtPercentile(99.9) / 1000.0,
+                maxValue / 1000.0);
+    }
+}
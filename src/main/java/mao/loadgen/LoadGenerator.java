@@ -0,0 +1,973 @@
+package mao.loadgen;
+
+import mao.utils.ByteBufferPool;
+import mao.utils.ChannelContext;
+import mao.utils.FrameDecoder;
+import mao.utils.FrameListener;
+import mao.utils.LengthFieldFrameDecoder;
+import mao.utils.LengthFieldFrameEncoder;
+import mao.utils.LengthFieldType;
+import mao.utils.LineFrameDecoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.loadgen
+ * Class(类名): LoadGenerator
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 21:50
+ * Version(版本): 1.0
+ * Description(描述)： 压测客户端，闭环或者开环，见{@link LoadMode}。
+ * 少量线程，每个线程一个Selector负责一部分非阻塞连接，几万个连接也不需要几万个线程。
+ * 请求按'\n'或者长度字段分隔（和服务端一致），响应用同样的解码器按消息解析，一条响应对应最早发出的那个请求。
+ * 每个请求记两个时间：计划发送的时间和真正开始写的时间，分别得到修正后的延迟（没有coordinated omission）
+ * 和未修正的延迟；闭环时两者相同。开环时计划时间由固定的速率决定，线程被调度晚了也不会少发，而是补发，
+ * 补发的请求的延迟包含晚了的这段时间。
+ * 对回环地址压测时一个源地址最多用几万个临时端口，连接数更多时用localAddressCount把连接分散到
+ * 127.0.0.1、127.0.0.2 ...（Linux的回环网卡接收整个127.0.0.0/8）
+ */
+
+public class LoadGenerator
+{
+    /**
+     * 日志
+     */
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+    /**
+     * 开环时距离下一次发送不到这个时间就不再select等待，select的超时只能精确到毫秒
+     */
+    private static final long PARK_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * 不用select等待时每次parkNanos的最长时间，park期间不会被读事件唤醒，这个时间就是响应时间的最大误差
+     */
+    private static final long PARK_SLICE_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+    /**
+     * 配置
+     */
+    private final LoadGeneratorConfig config;
+
+    /**
+     * 服务端地址
+     */
+    private final InetSocketAddress address;
+
+    /**
+     * 线程数
+     */
+    private final int threads;
+
+    /**
+     * 源地址，为null时由系统选择
+     */
+    private final InetAddress[] localAddresses;
+
+    /**
+     * 是否已经开始记录，预热结束后开始
+     */
+    private volatile boolean recording;
+
+    /**
+     * 是否停止
+     */
+    private volatile boolean stopped;
+
+    /**
+     * 构造方法
+     *
+     * @param config 配置
+     * @throws IOException ioexception
+     */
+    public LoadGenerator(LoadGeneratorConfig config) throws IOException
+    {
+        if (config.getConnections() <= 0 || config.getThreads() <= 0)
+        {
+            throw new IllegalArgumentException("connections、threads必须大于0");
+        }
+        if (config.getMode() == LoadMode.OPEN && config.getRate() <= 0)
+        {
+            throw new IllegalArgumentException("开环时rate必须大于0");
+        }
+        //检查消息长度是否合法
+        newMessage(config.getMessageSize(), config.getLengthFieldType());
+        this.config = config;
+        this.address = new InetSocketAddress(config.getHost(), config.getPort());
+        this.threads = Math.min(config.getThreads(), config.getConnections());
+        this.localAddresses = config.getLocalAddressCount() > 0 ? loopbackAddresses(config.getLocalAddressCount())
+                : null;
+    }
+
+    /**
+     * 得到回环地址127.0.0.1到127.0.0.count
+     *
+     * @param count 数量
+     * @return {@link InetAddress[]}
+     * @throws IOException ioexception
+     */
+    public static InetAddress[] loopbackAddresses(int count) throws IOException
+    {
+        InetAddress[] addresses = new InetAddress[count];
+        for (int i = 0; i < count; i++)
+        {
+            addresses[i] = InetAddress.getByAddress(new byte[]{127, 0, 0, (byte) (i + 1)});
+        }
+        return addresses;
+    }
+
+    /**
+     * 创建一条总长度为messageSize的请求，内容是'a'，以'\n'结尾或者以长度字段开头
+     *
+     * @param messageSize     消息总长度
+     * @param lengthFieldType 长度字段格式，为null时以'\n'结尾
+     * @return {@link ByteBuffer}，只读，处于读模式
+     * @throws IllegalArgumentException 消息长度放不下消息头或者超过了长度字段能表示的范围
+     */
+    private static ByteBuffer newMessage(int messageSize, LengthFieldType lengthFieldType)
+    {
+        int bodyLength = messageSize - (lengthFieldType == null ? 1 : lengthFieldType.headerLength(messageSize));
+        //varint的长度字段随消息体变短可能少一个字节，多给消息体一个字节
+        if (lengthFieldType != null && bodyLength >= 0
+                && lengthFieldType.headerLength(bodyLength) + bodyLength != messageSize)
+        {
+            bodyLength++;
+        }
+        if (bodyLength < 0 || (lengthFieldType != null && (bodyLength > lengthFieldType.getMaxBodyLength()
+                || lengthFieldType.headerLength(bodyLength) + bodyLength != messageSize)))
+        {
+            //例如varint时129：消息体127加1字节长度字段是128，消息体128加2字节长度字段是130
+            throw new IllegalArgumentException("messageSize不合法：" + messageSize);
+        }
+        byte[] body = new byte[bodyLength];
+        Arrays.fill(body, (byte) 'a');
+        ByteBuffer message = ByteBuffer.allocateDirect(messageSize);
+        if (lengthFieldType == null)
+        {
+            message.put(body).put((byte) '\n');
+        }
+        else
+        {
+            new LengthFieldFrameEncoder(lengthFieldType).writeHeader(message, bodyLength);
+            message.put(body);
+        }
+        return message.flip().asReadOnlyBuffer();
+    }
+
+    /**
+     * 建立所有连接，预热，然后压测一段时间
+     *
+     * @param warmupNanos   预热时间，这段时间的请求不记录
+     * @param durationNanos 压测时间
+     * @return {@link Result}
+     * @throws InterruptedException 中断
+     */
+    public Result run(long warmupNanos, long durationNanos) throws InterruptedException
+    {
+        ByteBuffer sharedMessage = newMessage(config.getMessageSize(), config.getLengthFieldType());
+
+        CountDownLatch connected = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger nextConnection = new AtomicInteger();
+        Worker[] workers = new Worker[threads];
+        Thread[] workerThreads = new Thread[threads];
+        for (int i = 0; i < threads; i++)
+        {
+            workers[i] = new Worker(sharedMessage, nextConnection, connected, start);
+            workerThreads[i] = new Thread(workers[i], "LoadGen-" + i);
+            workerThreads[i].start();
+        }
+        long connectStart = System.nanoTime();
+        connected.await();
+        int established = 0;
+        int connectErrors = 0;
+        for (Worker worker : workers)
+        {
+            established += worker.connections.size();
+            connectErrors += worker.connectErrors;
+        }
+        log.info("连接建立完成：{}，失败：{}，耗时：{}ms", established, connectErrors,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart));
+
+        start.countDown();
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(warmupNanos));
+        recording = true;
+        long begin = System.nanoTime();
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        stopped = true;
+        long elapsed = System.nanoTime() - begin;
+        for (Thread workerThread : workerThreads)
+        {
+            workerThread.join();
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        LatencyHistogram uncorrectedHistogram = new LatencyHistogram();
+        long ioErrors = 0;
+        long sent = 0;
+        long outstanding = 0;
+        for (Worker worker : workers)
+        {
+            histogram.add(worker.histogram);
+            uncorrectedHistogram.add(worker.uncorrectedHistogram);
+            ioErrors += worker.ioErrors;
+            sent += worker.sent;
+            outstanding += worker.outstanding;
+        }
+        return new Result(config.getMode(), established, connectErrors, ioErrors, elapsed, sent, outstanding,
+                histogram, uncorrectedHistogram);
+    }
+
+    /**
+     * 压测线程，负责一部分连接
+     */
+    private final class Worker implements Runnable
+    {
+        /**
+         * 要发送的消息，只读，每个连接duplicate一份
+         */
+        private final ByteBuffer sharedMessage;
+
+        /**
+         * 下一个要建立的连接的序号，所有线程共用
+         */
+        private final AtomicInteger nextConnection;
+
+        /**
+         * 连接建立完成
+         */
+        private final CountDownLatch connected;
+
+        /**
+         * 开始压测
+         */
+        private final CountDownLatch start;
+
+        /**
+         * 本线程的连接
+         */
+        private final List<Connection> connections = new ArrayList<>();
+
+        /**
+         * 本线程的延迟直方图，从计划发送的时间算起
+         */
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        /**
+         * 本线程的延迟直方图，从真正开始写的时间算起
+         */
+        private final LatencyHistogram uncorrectedHistogram = new LatencyHistogram();
+
+        /**
+         * 读缓冲池，不是线程安全的，每个线程一个，空闲连接不占用读缓冲
+         */
+        private final ByteBufferPool bufferPool = new ByteBufferPool(false);
+
+        /**
+         * 是否开环
+         */
+        private final boolean open = config.getMode() == LoadMode.OPEN;
+
+        /**
+         * 建立连接失败的次数
+         */
+        private int connectErrors;
+
+        /**
+         * 压测过程中连接出错的次数
+         */
+        private long ioErrors;
+
+        /**
+         * 记录期间计划发送的请求数
+         */
+        private long sent;
+
+        /**
+         * 结束时还没有收到响应的请求数
+         */
+        private long outstanding;
+
+        /**
+         * 当前时间，解码回调中使用
+         */
+        private long now;
+
+        /**
+         * 选择器
+         */
+        private Selector selector;
+
+        /**
+         * 构造方法
+         *
+         * @param sharedMessage  要发送的消息
+         * @param nextConnection 下一个要建立的连接的序号
+         * @param connected      连接建立完成
+         * @param start          开始压测
+         */
+        private Worker(ByteBuffer sharedMessage, AtomicInteger nextConnection, CountDownLatch connected,
+                       CountDownLatch start)
+        {
+            this.sharedMessage = sharedMessage;
+            this.nextConnection = nextConnection;
+            this.connected = connected;
+            this.start = start;
+        }
+
+        @Override
+        public void run()
+        {
+            boolean connectFinished = false;
+            try
+            {
+                selector = Selector.open();
+                connect();
+                connected.countDown();
+                connectFinished = true;
+                start.await();
+                if (connections.isEmpty())
+                {
+                    return;
+                }
+                now = System.nanoTime();
+                //开环：本线程的请求间隔，线程内轮流使用自己的连接
+                double intervalNanos = open ? threads * 1e9 / config.getRate() : 0;
+                long startNanos = now;
+                long sequence = 0;
+                long nextSendNanos = now;
+                if (!open)
+                {
+                    for (Connection connection : connections)
+                    {
+                        schedule(connection, now);
+                        flushQuietly(connection);
+                    }
+                }
+                while (!stopped)
+                {
+                    if (open)
+                    {
+                        now = System.nanoTime();
+                        while (nextSendNanos <= now)
+                        {
+                            Connection connection = connections.get((int) (sequence % connections.size()));
+                            schedule(connection, nextSendNanos);
+                            flushQuietly(connection);
+                            sequence++;
+                            nextSendNanos = startNanos + (long) (sequence * intervalNanos);
+                        }
+                        long waitNanos = nextSendNanos - System.nanoTime();
+                        if (waitNanos >= PARK_THRESHOLD_NANOS)
+                        {
+                            selector.select(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+                        }
+                        else if (selector.selectNow() == 0 && waitNanos > 0)
+                        {
+                            LockSupport.parkNanos(Math.min(waitNanos, PARK_SLICE_NANOS));
+                        }
+                    }
+                    else
+                    {
+                        selector.select(100);
+                    }
+                    now = System.nanoTime();
+                    Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                    while (iterator.hasNext())
+                    {
+                        SelectionKey selectionKey = iterator.next();
+                        iterator.remove();
+                        Connection connection = (Connection) selectionKey.attachment();
+                        try
+                        {
+                            if (selectionKey.isWritable())
+                            {
+                                flush(connection);
+                            }
+                            if (selectionKey.isReadable())
+                            {
+                                read(connection);
+                            }
+                        }
+                        catch (IOException e)
+                        {
+                            closeConnection(connection);
+                        }
+                    }
+                }
+            }
+            catch (Exception e)
+            {
+                log.warn("压测线程异常", e);
+            }
+            finally
+            {
+                //建立连接时异常退出也不能让主线程一直等
+                if (!connectFinished)
+                {
+                    connected.countDown();
+                }
+                for (Connection connection : connections)
+                {
+                    outstanding += connection.scheduled.size() + connection.inFlightIntended.size();
+                    closeQuietly(connection.socketChannel);
+                    connection.channelContext.release();
+                }
+                if (selector != null)
+                {
+                    try
+                    {
+                        selector.close();
+                    }
+                    catch (IOException ignored)
+                    {
+                    }
+                }
+            }
+        }
+
+        /**
+         * 建立连接，所有线程一起从同一个序号取，阻塞连接，建立后再改成非阻塞
+         */
+        private void connect()
+        {
+            int index;
+            while ((index = nextConnection.getAndIncrement()) < config.getConnections())
+            {
+                SocketChannel socketChannel = null;
+                try
+                {
+                    socketChannel = SocketChannel.open();
+                    if (localAddresses != null)
+                    {
+                        socketChannel.bind(new InetSocketAddress(localAddresses[index % localAddresses.length], 0));
+                    }
+                    socketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    socketChannel.connect(address);
+                    socketChannel.configureBlocking(false);
+                    Connection connection = new Connection(socketChannel, sharedMessage.duplicate(),
+                            new ChannelContext(bufferPool, config.getMaxFrameLength(), newFrameDecoder()));
+                    connection.listener = frame -> onResponse(connection);
+                    connection.selectionKey = socketChannel.register(selector, SelectionKey.OP_READ, connection);
+                    connections.add(connection);
+                }
+                catch (IOException e)
+                {
+                    if (connectErrors++ == 0)
+                    {
+                        log.warn("建立连接失败：{}", e.toString());
+                    }
+                    if (socketChannel != null)
+                    {
+                        closeQuietly(socketChannel);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 创建一个连接的响应解码器
+         *
+         * @return {@link FrameDecoder}
+         */
+        private FrameDecoder newFrameDecoder()
+        {
+            if (config.getLengthFieldType() == null)
+            {
+                return new LineFrameDecoder(config.getMaxFrameLength());
+            }
+            return new LengthFieldFrameDecoder(config.getLengthFieldType(), config.getMaxFrameLength(), false);
+        }
+
+        /**
+         * 计划发送一个请求，加入连接的待发送队列
+         *
+         * @param connection    连接
+         * @param intendedNanos 计划发送的时间
+         */
+        private void schedule(Connection connection, long intendedNanos)
+        {
+            if (connection.closed)
+            {
+                return;
+            }
+            connection.scheduled.add(intendedNanos);
+            if (recording)
+            {
+                sent++;
+            }
+        }
+
+        /**
+         * 按顺序写待发送的请求，写不完就关注写事件。开始写一个请求时记下真正的发送时间
+         *
+         * @param connection 连接
+         * @throws IOException ioexception
+         */
+        private void flush(Connection connection) throws IOException
+        {
+            while (!connection.closed)
+            {
+                if (connection.writing)
+                {
+                    connection.socketChannel.write(connection.message);
+                    if (connection.message.hasRemaining())
+                    {
+                        setInterestOps(connection, SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    connection.writing = false;
+                }
+                if (connection.scheduled.isEmpty())
+                {
+                    setInterestOps(connection, SelectionKey.OP_READ);
+                    return;
+                }
+                connection.inFlightIntended.add(connection.scheduled.poll());
+                connection.inFlightActual.add(now);
+                connection.message.clear();
+                connection.writing = true;
+            }
+        }
+
+        /**
+         * 写，出错时关闭连接
+         *
+         * @param connection 连接
+         */
+        private void flushQuietly(Connection connection)
+        {
+            try
+            {
+                flush(connection);
+            }
+            catch (IOException e)
+            {
+                closeConnection(connection);
+            }
+        }
+
+        /**
+         * 读响应并解码，闭环时每收到一条响应就发下一个请求
+         *
+         * @param connection 连接
+         * @throws IOException ioexception
+         */
+        private void read(Connection connection) throws IOException
+        {
+            int read = connection.channelContext.read(connection.socketChannel);
+            if (read == -1)
+            {
+                throw new IOException("连接被服务端关闭");
+            }
+            connection.channelContext.decode(connection.listener);
+            connection.channelContext.releaseIfEmpty();
+            if (!open)
+            {
+                flush(connection);
+            }
+        }
+
+        /**
+         * 收到一条完整的响应，对应最早发出的那个请求
+         *
+         * @param connection 连接
+         */
+        private void onResponse(Connection connection)
+        {
+            if (connection.inFlightIntended.isEmpty())
+            {
+                //服务端多回了消息，不是回显协议
+                return;
+            }
+            long intended = connection.inFlightIntended.poll();
+            long actual = connection.inFlightActual.poll();
+            if (recording)
+            {
+                histogram.record(now - intended);
+                uncorrectedHistogram.record(now - actual);
+            }
+            if (!open)
+            {
+                schedule(connection, now);
+            }
+        }
+
+        /**
+         * 设置关注的事件，没有变化时不调用
+         *
+         * @param connection 连接
+         * @param interestOps 事件
+         */
+        private void setInterestOps(Connection connection, int interestOps)
+        {
+            if (connection.selectionKey.interestOps() != interestOps)
+            {
+                connection.selectionKey.interestOps(interestOps);
+            }
+        }
+
+        /**
+         * 连接出错，关闭，开环时不再给它分配请求
+         *
+         * @param connection 连接
+         */
+        private void closeConnection(Connection connection)
+        {
+            if (connection.closed)
+            {
+                return;
+            }
+            ioErrors++;
+            connection.closed = true;
+            connection.selectionKey.cancel();
+            closeQuietly(connection.socketChannel);
+        }
+    }
+
+    /**
+     * 一个连接的状态
+     */
+    private static final class Connection
+    {
+        /**
+         * 通道
+         */
+        private final SocketChannel socketChannel;
+
+        /**
+         * 要发送的消息
+         */
+        private final ByteBuffer message;
+
+        /**
+         * 读缓冲和响应解码
+         */
+        private final ChannelContext channelContext;
+
+        /**
+         * 还没有开始写的请求的计划发送时间
+         */
+        private final LongQueue scheduled = new LongQueue();
+
+        /**
+         * 已经开始写、还没有收到响应的请求的计划发送时间
+         */
+        private final LongQueue inFlightIntended = new LongQueue();
+
+        /**
+         * 已经开始写、还没有收到响应的请求的真正发送时间，和inFlightIntended一一对应
+         */
+        private final LongQueue inFlightActual = new LongQueue();
+
+        /**
+         * 解码回调，每个连接一个，建立连接时创建
+         */
+        private FrameListener listener;
+
+        /**
+         * 选择键
+         */
+        private SelectionKey selectionKey;
+
+        /**
+         * message是否写了一半
+         */
+        private boolean writing;
+
+        /**
+         * 是否已经出错关闭
+         */
+        private boolean closed;
+
+        /**
+         * 构造方法
+         *
+         * @param socketChannel  通道
+         * @param message        要发送的消息
+         * @param channelContext 读缓冲和响应解码
+         */
+        private Connection(SocketChannel socketChannel, ByteBuffer message, ChannelContext channelContext)
+        {
+            this.socketChannel = socketChannel;
+            this.message = message;
+            this.channelContext = channelContext;
+        }
+    }
+
+    /**
+     * long的先进先出队列，环形数组，满了翻倍，不装箱
+     */
+    private static final class LongQueue
+    {
+        /**
+         * 元素
+         */
+        private long[] elements = new long[4];
+
+        /**
+         * 队头下标
+         */
+        private int head;
+
+        /**
+         * 元素个数
+         */
+        private int size;
+
+        /**
+         * 加到队尾
+         *
+         * @param value 值
+         */
+        private void add(long value)
+        {
+            if (size == elements.length)
+            {
+                long[] newElements = new long[elements.length << 1];
+                for (int i = 0; i < size; i++)
+                {
+                    newElements[i] = elements[(head + i) & (elements.length - 1)];
+                }
+                elements = newElements;
+                head = 0;
+            }
+            elements[(head + size) & (elements.length - 1)] = value;
+            size++;
+        }
+
+        /**
+         * 取出队头，调用前要保证不为空
+         *
+         * @return long
+         */
+        private long poll()
+        {
+            long value = elements[head];
+            head = (head + 1) & (elements.length - 1);
+            size--;
+            return value;
+        }
+
+        private boolean isEmpty()
+        {
+            return size == 0;
+        }
+
+        private int size()
+        {
+            return size;
+        }
+    }
+
+    /**
+     * 关闭通道，忽略异常
+     *
+     * @param socketChannel 套接字通道
+     */
+    private static void closeQuietly(SocketChannel socketChannel)
+    {
+        try
+        {
+            socketChannel.close();
+        }
+        catch (IOException ignored)
+        {
+        }
+    }
+
+    /**
+     * 压测结果
+     */
+    public static final class Result
+    {
+        /**
+         * 压测模式
+         */
+        private final LoadMode mode;
+
+        /**
+         * 建立的连接数
+         */
+        private final int connections;
+
+        /**
+         * 建立连接失败的次数
+         */
+        private final int connectErrors;
+
+        /**
+         * 压测过程中连接出错的次数
+         */
+        private final long ioErrors;
+
+        /**
+         * 记录的时长，纳秒
+         */
+        private final long elapsedNanos;
+
+        /**
+         * 记录期间计划发送的请求数
+         */
+        private final long sent;
+
+        /**
+         * 结束时还没有收到响应的请求数，开环时持续增长说明服务端跟不上这个速率
+         */
+        private final long outstanding;
+
+        /**
+         * 延迟直方图，从计划发送的时间算起
+         */
+        private final LatencyHistogram histogram;
+
+        /**
+         * 延迟直方图，从真正开始写的时间算起
+         */
+        private final LatencyHistogram uncorrectedHistogram;
+
+        /**
+         * 构造方法
+         *
+         * @param mode                 压测模式
+         * @param connections          建立的连接数
+         * @param connectErrors        建立连接失败的次数
+         * @param ioErrors             压测过程中连接出错的次数
+         * @param elapsedNanos         记录的时长，纳秒
+         * @param sent                 记录期间计划发送的请求数
+         * @param outstanding          结束时还没有收到响应的请求数
+         * @param histogram            延迟直方图，从计划发送的时间算起
+         * @param uncorrectedHistogram 延迟直方图，从真正开始写的时间算起
+         */
+        public Result(LoadMode mode, int connections, int connectErrors, long ioErrors, long elapsedNanos, long sent,
+                      long outstanding, LatencyHistogram histogram, LatencyHistogram uncorrectedHistogram)
+        {
+            this.mode = mode;
+            this.connections = connections;
+            this.connectErrors = connectErrors;
+            this.ioErrors = ioErrors;
+            this.elapsedNanos = elapsedNanos;
+            this.sent = sent;
+            this.outstanding = outstanding;
+            this.histogram = histogram;
+            this.uncorrectedHistogram = uncorrectedHistogram;
+        }
+
+        public LoadMode getMode()
+        {
+            return mode;
+        }
+
+        public int getConnections()
+        {
+            return connections;
+        }
+
+        public int getConnectErrors()
+        {
+            return connectErrors;
+        }
+
+        public long getIoErrors()
+        {
+            return ioErrors;
+        }
+
+        public long getElapsedNanos()
+        {
+            return elapsedNanos;
+        }
+
+        public long getSent()
+        {
+            return sent;
+        }
+
+        public long getOutstanding()
+        {
+            return outstanding;
+        }
+
+        public LatencyHistogram getHistogram()
+        {
+            return histogram;
+        }
+
+        public LatencyHistogram getUncorrectedHistogram()
+        {
+            return uncorrectedHistogram;
+        }
+
+        /**
+         * 每秒完成的请求数
+         *
+         * @return double
+         */
+        public double getThroughput()
+        {
+            return histogram.getTotalCount() * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * 每秒计划发送的请求数，开环时应该接近配置的速率
+         *
+         * @return double
+         */
+        public double getSendRate()
+        {
+            return sent * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString()
+        {
+            String summary = String.format("mode=%s, connections=%d, connectErrors=%d, ioErrors=%d, " +
+                            "throughput=%.0f req/s", mode, connections, connectErrors, ioErrors, getThroughput());
+            if (mode == LoadMode.CLOSED)
+            {
+                return summary + ", " + histogram.toSummaryString();
+            }
+            return summary + String.format(", sendRate=%.0f req/s, outstanding=%d%n  corrected:   %s%n  uncorrected: %s",
+                    getSendRate(), outstanding, histogram.toSummaryString(), uncorrectedHistogram.toSummaryString());
+        }
+    }
+
+    /**
+     * main方法，配置见{@link LoadGeneratorConfig#fromSystemProperties()}，另外：
+     * -Dmao.loadgen.warmupSeconds=5 -Dmao.loadgen.seconds=30
+     * 例如按每秒5万个请求压t6，看延迟：
+     * -Dmao.loadgen.mode=open -Dmao.loadgen.rate=50000 -Dmao.loadgen.connections=1000
+     *
+     * @param args 参数
+     */
+    public static void main(String[] args) throws Exception
+    {
+        LoadGeneratorConfig config = LoadGeneratorConfig.fromSystemProperties();
+        log.info("{}", config);
+        LoadGenerator loadGenerator = new LoadGenerator(config);
+        Result result = loadGenerator.run(TimeUnit.SECONDS.toNanos(Integer.getInteger("mao.loadgen.warmupSeconds", 5)),
+                TimeUnit.SECONDS.toNanos(Integer.getInteger("mao.loadgen.seconds", 30)));
+        log.info("{}", result);
+    }
+}
@@ -0,0 +1,217 @@
+package mao.loadgen;
+
+import mao.utils.FrameDecoder;
+import mao.utils.LengthFieldType;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.loadgen
+ * Class(类名): LoadGeneratorConfig
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 16:55
+ * Version(版本): 1.0
+ * Description(描述)： 压测客户端的配置
+ */
+
+public class LoadGeneratorConfig
+{
+    /**
+     * 服务端地址
+     */
+    private String host = "127.0.0.1";
+
+    /**
+     * 服务端端口
+     */
+    private int port = 8080;
+
+    /**
+     * 连接数
+     */
+    private int connections = 1000;
+
+    /**
+     * 线程数，每个线程一个Selector，不会超过连接数
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 一条消息的长度，包含结尾的'\n'或者开头的长度字段
+     */
+    private int messageSize = 64;
+
+    /**
+     * 压测模式
+     */
+    private LoadMode mode = LoadMode.CLOSED;
+
+    /**
+     * 开环时所有连接加起来每秒发送的请求数，平均分给每个线程，线程内轮流使用自己的连接
+     */
+    private double rate = 10000;
+
+    /**
+     * 消息的长度字段格式，为null时按'\n'分隔消息，要和服务端一致
+     */
+    private LengthFieldType lengthFieldType;
+
+    /**
+     * 大于0时使用127.0.0.1到127.0.0.N作为源地址，一个源地址最多几万个临时端口
+     */
+    private int localAddressCount;
+
+    /**
+     * 响应的最大长度
+     */
+    private int maxFrameLength = FrameDecoder.DEFAULT_MAX_FRAME_LENGTH;
+
+    /**
+     * 从系统属性读取配置，没有设置的使用默认值：
+     * -Dmao.loadgen.host=服务端地址
+     * -Dmao.loadgen.port=服务端端口
+     * -Dmao.loadgen.connections=连接数
+     * -Dmao.loadgen.threads=线程数
+     * -Dmao.loadgen.messageSize=消息长度
+     * -Dmao.loadgen.mode=closed|open
+     * -Dmao.loadgen.rate=开环时的总速率（请求/秒）
+     * -Dmao.loadgen.framing=line|int16|int32|varint
+     * -Dmao.loadgen.localAddresses=源地址数量
+     *
+     * @return {@link LoadGeneratorConfig}
+     */
+    public static LoadGeneratorConfig fromSystemProperties()
+    {
+        LoadGeneratorConfig config = new LoadGeneratorConfig();
+        config.setHost(System.getProperty("mao.loadgen.host", config.getHost()));
+        config.setPort(Integer.getInteger("mao.loadgen.port", config.getPort()));
+        config.setConnections(Integer.getInteger("mao.loadgen.connections", config.getConnections()));
+        config.setThreads(Integer.getInteger("mao.loadgen.threads", config.getThreads()));
+        config.setMessageSize(Integer.getInteger("mao.loadgen.messageSize", config.getMessageSize()));
+        config.setMode(LoadMode.valueOf(System.getProperty("mao.loadgen.mode", "closed").toUpperCase()));
+        config.setRate(Double.parseDouble(System.getProperty("mao.loadgen.rate", String.valueOf(config.getRate()))));
+        String framing = System.getProperty("mao.loadgen.framing", "line");
+        config.setLengthFieldType("line".equalsIgnoreCase(framing) ? null : LengthFieldType.valueOf(framing.toUpperCase()));
+        config.setLocalAddressCount(Integer.getInteger("mao.loadgen.localAddresses", config.getLocalAddressCount()));
+        return config;
+    }
+
+    public String getHost()
+    {
+        return host;
+    }
+
+    public void setHost(String host)
+    {
+        this.host = host;
+    }
+
+    public int getPort()
+    {
+        return port;
+    }
+
+    public void setPort(int port)
+    {
+        this.port = port;
+    }
+
+    public int getConnections()
+    {
+        return connections;
+    }
+
+    public void setConnections(int connections)
+    {
+        this.connections = connections;
+    }
+
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    public void setThreads(int threads)
+    {
+        this.threads = threads;
+    }
+
+    public int getMessageSize()
+    {
+        return messageSize;
+    }
+
+    public void setMessageSize(int messageSize)
+    {
+        this.messageSize = messageSize;
+    }
+
+    public LoadMode getMode()
+    {
+        return mode;
+    }
+
+    public void setMode(LoadMode mode)
+    {
+        this.mode = mode;
+    }
+
+    public double getRate()
+    {
+        return rate;
+    }
+
+    public void setRate(double rate)
+    {
+        this.rate = rate;
+    }
+
+    public LengthFieldType getLengthFieldType()
+    {
+        return lengthFieldType;
+    }
+
+    public void setLengthFieldType(LengthFieldType lengthFieldType)
+    {
+        this.lengthFieldType = lengthFieldType;
+    }
+
+    public int getLocalAddressCount()
+    {
+        return localAddressCount;
+    }
+
+    public void setLocalAddressCount(int localAddressCount)
+    {
+        this.localAddressCount = localAddressCount;
+    }
+
+    public int getMaxFrameLength()
+    {
+        return maxFrameLength;
+    }
+
+    public void setMaxFrameLength(int maxFrameLength)
+    {
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LoadGeneratorConfig{" +
+                "host='" + host + '\'' +
+                ", port=" + port +
+                ", connections=" + connections +
+                ", threads=" + threads +
+                ", messageSize=" + messageSize +
+                ", mode=" + mode +
+                (mode == LoadMode.OPEN ? ", rate=" + rate : "") +
+                ", framing=" + (lengthFieldType == null ? "line" : lengthFieldType) +
+                ", localAddressCount=" + localAddressCount +
+                ", maxFrameLength=" + maxFrameLength +
+                '}';
+    }
+}
@@ -0,0 +1,30 @@
+package mao.loadgen;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.loadgen
+ * Enum(枚举名): LoadMode
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 16:50
+ * Version(版本): 1.0
+ * Description(描述)： 压测模式
+ */
+
+public enum LoadMode
+{
+    /**
+     * 闭环，每个连接同时只有一个请求，收到响应后马上发下一个，尽可能快。
+     * 服务端变慢时客户端也会少发请求，延迟偏乐观，适合测最大吞吐和同一条件下的对比
+     */
+    CLOSED,
+
+    /**
+     * 开环，按固定的总速率发送，不管响应有没有回来。
+     * 延迟从计划发送的时间算起，服务端（或者客户端自己）卡住期间本该发出的请求的等待时间也计算在内，
+     * 没有coordinated omission，适合做容量规划：给定速率下的延迟是多少
+     */
+    OPEN
+}
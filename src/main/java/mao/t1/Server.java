@@ -1,6 +1,6 @@
 package mao.t1;
 
-import mao.utils.ByteBufferUtil;
+import mao.utils.WireTap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,8 +9,8 @@ import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Project name(项目名称)：Netty_Net_Programming
@@ -45,26 +45,27 @@ public class Server
         ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
         //绑定
         serverSocketChannel.bind(new InetSocketAddress(8080));
-        //连接集合
-        List<SocketChannel> socketChannelList = new ArrayList<>();
+        //连接集合，每个连接一个Tap，收到的数据交给后台线程打印
+        Map<SocketChannel, WireTap.Tap> socketChannelMap = new LinkedHashMap<>();
 
         while (true)
         {
             log.debug("等待客户端连接...");
             SocketChannel socketChannel = serverSocketChannel.accept();
-            log.debug("客户端已连接：" + socketChannel);
+            log.debug("客户端已连接：{}", socketChannel);
             //放入连接集合
-            socketChannelList.add(socketChannel);
+            socketChannelMap.put(socketChannel, WireTap.getDefault().newTap(socketChannel));
 
             //遍历连接集合
-            for (SocketChannel channel : socketChannelList)
+            for (Map.Entry<SocketChannel, WireTap.Tap> entry : socketChannelMap.entrySet())
             {
-                log.debug("等待读：" + channel);
+                SocketChannel channel = entry.getKey();
+                log.debug("等待读：{}", channel);
                 int read = channel.read(byteBuffer);
                 byteBuffer.flip();
-                ByteBufferUtil.debugAll(byteBuffer);
+                entry.getValue().onFrame(byteBuffer);
                 byteBuffer.clear();
-                log.debug("读取成功：" + channel);
+                log.debug("读取成功：{}", channel);
             }
         }
     }
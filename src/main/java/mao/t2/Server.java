@@ -1,6 +1,6 @@
 package mao.t2;
 
-import mao.utils.ByteBufferUtil;
+import mao.utils.WireTap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,8 +9,8 @@ import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Project name(项目名称)：Netty_Net_Programming
@@ -46,8 +46,8 @@ public class Server
         serverSocketChannel.configureBlocking(false);
         //绑定
         serverSocketChannel.bind(new InetSocketAddress(8080));
-        //连接集合
-        List<SocketChannel> socketChannelList = new ArrayList<>();
+        //连接集合，每个连接一个Tap，收到的数据交给后台线程打印
+        Map<SocketChannel, WireTap.Tap> socketChannelMap = new LinkedHashMap<>();
 
 
         while (true)
@@ -56,24 +56,25 @@ public class Server
             SocketChannel socketChannel = serverSocketChannel.accept();
             if (socketChannel != null)
             {
-                log.debug("客户端已连接：" + socketChannel);
+                log.debug("客户端已连接：{}", socketChannel);
                 //设置成非阻塞模式
                 socketChannel.configureBlocking(false);
                 //放入连接集合
-                socketChannelList.add(socketChannel);
+                socketChannelMap.put(socketChannel, WireTap.getDefault().newTap(socketChannel));
             }
 
             //遍历连接集合
-            for (SocketChannel channel : socketChannelList)
+            for (Map.Entry<SocketChannel, WireTap.Tap> entry : socketChannelMap.entrySet())
             {
+                SocketChannel channel = entry.getKey();
                 int read = channel.read(byteBuffer);
                 if (read > 0)
                 {
-                    log.debug("等待读：" + channel);
+                    log.debug("等待读：{}", channel);
                     byteBuffer.flip();
-                    ByteBufferUtil.debugAll(byteBuffer);
+                    entry.getValue().onFrame(byteBuffer);
                     byteBuffer.clear();
-                    log.debug("读取成功：" + channel);
+                    log.debug("读取成功：{}", channel);
                 }
             }
         }
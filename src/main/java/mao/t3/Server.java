@@ -1,6 +1,7 @@
 package mao.t3;
 
-import mao.utils.ByteBufferUtil;
+import mao.utils.OptimizedSelector;
+import mao.utils.WireTap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,9 +10,7 @@ import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.*;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Project name(项目名称)：Netty_Net_Programming
@@ -49,9 +48,9 @@ public class Server
         serverSocketChannel.bind(new InetSocketAddress(8080));
 
         //Selector
-        Selector selector = Selector.open();
+        OptimizedSelector selector = OptimizedSelector.open();
         //注册，事件为OP_WRITE
-        serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
+        serverSocketChannel.register(selector.unwrap(), SelectionKey.OP_ACCEPT);
 
         Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
         {
@@ -81,16 +80,11 @@ public class Server
         while (true)
         {
             int count = selector.select();
-            log.debug("事件总数：" + count);
+            log.debug("事件总数：{}", count);
 
-            //获取所有事件
-            Set<SelectionKey> selectionKeys = selector.selectedKeys();
-
-            Iterator<SelectionKey> iterator = selectionKeys.iterator();
-            while (iterator.hasNext())
+            //处理所有事件，按数组下标遍历，不创建迭代器，处理完自动移除
+            selector.processSelectedKeys(selectionKey ->
             {
-                //获得SelectionKey
-                SelectionKey selectionKey = iterator.next();
                 //判断事件类型
 
                 //连接服务器
@@ -99,11 +93,12 @@ public class Server
                     ServerSocketChannel ssc = (ServerSocketChannel) selectionKey.channel();
                     //处理连接事件
                     SocketChannel socketChannel = ssc.accept();
-                    log.debug("连接事件：" + socketChannel);
+                    log.debug("连接事件：{}", socketChannel);
                     //非阻塞
                     socketChannel.configureBlocking(false);
-                    //注册，事件为OP_WRITE
-                    socketChannel.register(selector, SelectionKey.OP_READ);
+                    //注册，事件为OP_READ，这个连接的Tap作为附件
+                    socketChannel.register(selector.unwrap(), SelectionKey.OP_READ,
+                            WireTap.getDefault().newTap(socketChannel));
                     log.debug("连接已注册到selector");
                 }
 
@@ -112,7 +107,7 @@ public class Server
                 {
                     SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
                     //处理读事件
-                    log.debug("读事件：" + socketChannel);
+                    log.debug("读事件：{}", socketChannel);
                     int read = socketChannel.read(byteBuffer);
                     if (read == -1)
                     {
@@ -122,15 +117,13 @@ public class Server
                     else
                     {
                         byteBuffer.flip();
-                        ByteBufferUtil.debugAll(byteBuffer);
+                        //收到的数据交给后台线程打印，不在这里格式化
+                        ((WireTap.Tap) selectionKey.attachment()).onFrame(byteBuffer);
                         byteBuffer.clear();
                     }
 
                 }
-
-                // 处理完毕，必须将事件移除
-                iterator.remove();
-            }
+            });
         }
     }
 }
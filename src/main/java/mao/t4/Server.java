@@ -1,6 +1,13 @@
 package mao.t4;
 
-import mao.utils.ByteBufferUtil;
+import mao.utils.AdaptiveBufferGrowth;
+import mao.utils.BufferAllocator;
+import mao.utils.ChannelContext;
+import mao.utils.FrameDecoder;
+import mao.utils.LineFrameDecoder;
+import mao.utils.OptimizedSelector;
+import mao.utils.TooLongFrameException;
+import mao.utils.WireTap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,11 +15,8 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.util.Iterator;
-import java.util.Set;
 
 /**
  * Project name(项目名称)：Netty_Net_Programming
@@ -34,6 +38,11 @@ public class Server
      */
     private static final Logger log = LoggerFactory.getLogger(mao.t4.Server.class);
 
+    /**
+     * 最大消息长度
+     */
+    private static final int MAX_FRAME_LENGTH = FrameDecoder.DEFAULT_MAX_FRAME_LENGTH;
+
     /**
      * main方法
      *
@@ -41,7 +50,6 @@ public class Server
      */
     public static void main(String[] args) throws IOException, InterruptedException
     {
-        ByteBuffer byteBuffer = ByteBuffer.allocate(16);
         //创建服务器
         ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
         //设置成非阻塞模式
@@ -50,11 +58,11 @@ public class Server
         serverSocketChannel.bind(new InetSocketAddress(8080));
 
         //Selector
-        Selector selector = Selector.open();
+        OptimizedSelector selector = OptimizedSelector.open();
         //注册，事件为OP_WRITE
-        SelectionKey selectionKey1 = serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
+        SelectionKey selectionKey1 = serverSocketChannel.register(selector.unwrap(), SelectionKey.OP_ACCEPT);
         selectionKey1.interestOps(SelectionKey.OP_ACCEPT);
-        log.debug("SelectionKey:" + selectionKey1);
+        log.debug("SelectionKey:{}", selectionKey1);
 
 
         Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
@@ -85,16 +93,11 @@ public class Server
         while (true)
         {
             int count = selector.select();
-            log.debug("事件总数：" + count);
-
-            //获取所有事件
-            Set<SelectionKey> selectionKeys = selector.selectedKeys();
+            log.debug("事件总数：{}", count);
 
-            Iterator<SelectionKey> iterator = selectionKeys.iterator();
-            while (iterator.hasNext())
+            //处理所有事件，按数组下标遍历，不创建迭代器，处理完自动移除
+            selector.processSelectedKeys(selectionKey ->
             {
-                //获得SelectionKey
-                SelectionKey selectionKey = iterator.next();
                 //判断事件类型
 
                 //连接服务器
@@ -103,11 +106,13 @@ public class Server
                     ServerSocketChannel ssc = (ServerSocketChannel) selectionKey.channel();
                     //处理连接事件
                     SocketChannel socketChannel = ssc.accept();
-                    log.debug("连接事件：" + socketChannel);
+                    log.debug("连接事件：{}", socketChannel);
                     //非阻塞
                     socketChannel.configureBlocking(false);
-                    //注册，事件为OP_WRITE
-                    socketChannel.register(selector, SelectionKey.OP_READ);
+                    //注册，事件为OP_READ，连接上下文作为附件
+                    ChannelContext channelContext = newChannelContext();
+                    channelContext.setTap(WireTap.getDefault().newTap(socketChannel));
+                    socketChannel.register(selector.unwrap(), SelectionKey.OP_READ, channelContext);
                     log.debug("连接已注册到selector");
                 }
 
@@ -118,14 +123,11 @@ public class Server
                     {
                         SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
                         // 获取 selectionKey 上关联的附件
-                        ByteBuffer buffer = (ByteBuffer) selectionKey.attachment();
-                        if (buffer == null)
-                        {
-                            buffer = byteBuffer;
-                        }
+                        ChannelContext channelContext = (ChannelContext) selectionKey.attachment();
                         //处理读事件
-                        log.debug("读事件：" + socketChannel);
-                        int read = socketChannel.read(buffer);
+                        log.debug("读事件：{}", socketChannel);
+                        //读缓冲满了会自动扩容
+                        int read = channelContext.read(socketChannel);
                         if (read == -1)
                         {
                             selectionKey.cancel();
@@ -133,16 +135,22 @@ public class Server
                         }
                         else
                         {
-                            split(buffer);
-                            if (buffer.position() == buffer.limit())
-                            {
-                                //需要扩容
-                                ByteBuffer newByteBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
-                                buffer.flip();
-                                newByteBuffer.put(buffer);
-                                selectionKey.attach(newByteBuffer);
-                            }
-
+                            //处理消息的边界，完整的消息交给后台线程打印
+                            channelContext.decode(channelContext.getTap());
+                        }
+                    }
+                    catch (TooLongFrameException e)
+                    {
+                        //消息太长，拒绝这个连接，防止读缓冲无限增长
+                        log.warn("关闭连接：{}，{}", selectionKey.channel(), e.getMessage());
+                        selectionKey.cancel();
+                        try
+                        {
+                            selectionKey.channel().close();
+                        }
+                        catch (IOException ex)
+                        {
+                            ex.printStackTrace();
                         }
                     }
                     catch (Exception e)
@@ -151,34 +159,19 @@ public class Server
                         selectionKey.cancel();
                     }
                 }
-
-                // 处理完毕，必须将事件移除
-                iterator.remove();
-            }
+            });
         }
     }
 
-    private static void split(ByteBuffer source)
+    /**
+     * 创建连接上下文，读缓冲从16字节开始按需扩容，最大不超过最大消息长度
+     *
+     * @return {@link ChannelContext}
+     */
+    private static ChannelContext newChannelContext()
     {
-        //切换到读模式
-        source.flip();
-        for (int i = 0; i < source.limit(); i++)
-        {
-            //找到一条完整消息
-            if (source.get(i) == '\n')
-            {
-                int length = i + 1 - source.position();
-                // 把这条完整消息存入新的 ByteBuffer
-                ByteBuffer target = ByteBuffer.allocate(length);
-                // 从 source 读，向 target 写
-                for (int j = 0; j < length; j++)
-                {
-                    target.put(source.get());
-                }
-                ByteBufferUtil.debugAll(target);
-            }
-        }
-        //切换到写模式，没读完的部分继续
-        source.compact();
+        return new ChannelContext(BufferAllocator.HEAP,
+                new AdaptiveBufferGrowth(16, 16, MAX_FRAME_LENGTH),
+                new LineFrameDecoder(MAX_FRAME_LENGTH));
     }
 }
@@ -65,7 +65,7 @@ public class Client
                     count += socketChannel.read(buffer);
                     //ByteBufferUtil.debugAll(buffer);
                     buffer.clear();
-                    log.info("已读完：" + count + "字节");
+                    log.info("已读完：{}字节", count);
                 }
                 iterator.remove();
             }
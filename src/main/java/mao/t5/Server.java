@@ -1,16 +1,24 @@
 package mao.t5;
 
-import mao.utils.ByteBufferUtil;
+import mao.utils.AdaptiveBufferGrowth;
+import mao.utils.BufferAllocator;
+import mao.utils.ChannelContext;
+import mao.utils.FilePayloadSource;
+import mao.utils.FrameDecoder;
+import mao.utils.GeneratedPayloadSource;
+import mao.utils.LineFrameDecoder;
+import mao.utils.OptimizedSelector;
+import mao.utils.PayloadSource;
+import mao.utils.SharedBufferPayloadSource;
+import mao.utils.TooLongFrameException;
+import mao.utils.WireTap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
 import java.nio.channels.*;
-import java.nio.charset.Charset;
-import java.util.Iterator;
-import java.util.Set;
+import java.nio.file.Paths;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -33,6 +41,22 @@ public class Server
      */
     private static final Logger log = LoggerFactory.getLogger(mao.t5.Server.class);
 
+    /**
+     * 最大消息长度
+     */
+    private static final int MAX_FRAME_LENGTH = FrameDecoder.DEFAULT_MAX_FRAME_LENGTH;
+
+    /**
+     * 连接建立后发送的数据，-Dmao.t5.payload=shared|generated|file:路径|mapped:路径，默认shared，
+     * 文件可以用 -Dmao.t5.payloadOffset 和 -Dmao.t5.payloadLength 指定区间
+     */
+    private static final PayloadSource PAYLOAD_SOURCE = createPayloadSource(System.getProperty("mao.t5.payload", "shared"));
+
+    /**
+     * 数据长度
+     */
+    private static final int PAYLOAD_LENGTH = 10000000;
+
     /**
      * main方法
      *
@@ -41,7 +65,6 @@ public class Server
     public static void main(String[] args) throws IOException, InterruptedException
     {
         AtomicLong atomicLong = new AtomicLong(0);
-        ByteBuffer byteBuffer = ByteBuffer.allocate(16);
         //创建服务器
         ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
         //设置成非阻塞模式
@@ -50,11 +73,11 @@ public class Server
         serverSocketChannel.bind(new InetSocketAddress(8080));
 
         //Selector
-        Selector selector = Selector.open();
+        OptimizedSelector selector = OptimizedSelector.open();
         //注册，事件为OP_WRITE
-        SelectionKey selectionKey1 = serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
+        SelectionKey selectionKey1 = serverSocketChannel.register(selector.unwrap(), SelectionKey.OP_ACCEPT);
         selectionKey1.interestOps(SelectionKey.OP_ACCEPT);
-        log.debug("SelectionKey:" + selectionKey1);
+        log.debug("SelectionKey:{}", selectionKey1);
 
 
         Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
@@ -85,16 +108,11 @@ public class Server
         while (true)
         {
             int count = selector.select();
-            log.debug("事件总数：" + count);
+            log.debug("事件总数：{}", count);
 
-            //获取所有事件
-            Set<SelectionKey> selectionKeys = selector.selectedKeys();
-
-            Iterator<SelectionKey> iterator = selectionKeys.iterator();
-            while (iterator.hasNext())
+            //处理所有事件，按数组下标遍历，不创建迭代器，处理完自动移除
+            selector.processSelectedKeys(selectionKey ->
             {
-                //获得SelectionKey
-                SelectionKey selectionKey = iterator.next();
                 //判断事件类型
 
                 //连接服务器
@@ -103,30 +121,28 @@ public class Server
                     ServerSocketChannel ssc = (ServerSocketChannel) selectionKey.channel();
                     //处理连接事件
                     SocketChannel socketChannel = ssc.accept();
-                    log.debug("连接事件：" + socketChannel);
+                    log.debug("连接事件：{}", socketChannel);
                     //非阻塞
                     socketChannel.configureBlocking(false);
-                    //注册，事件为OP_WRITE
-                    SelectionKey selectionKey2 = socketChannel.register(selector, SelectionKey.OP_READ);
+                    //注册，事件为OP_READ，连接上下文作为附件
+                    ChannelContext channelContext = newChannelContext();
+                    channelContext.setTap(WireTap.getDefault().newTap(socketChannel));
+                    SelectionKey selectionKey2 = socketChannel.register(selector.unwrap(), SelectionKey.OP_READ, channelContext);
                     log.debug("连接已注册到selector");
-                    StringBuilder stringBuilder = new StringBuilder();
-                    for (int i = 0; i < 10000000; i++)
+                    try
                     {
-                        stringBuilder.append("0");
+                        //每个连接打开一份自己的读取进度，数据本身所有连接共享
+                        channelContext.write(PAYLOAD_SOURCE.open());
+                        //写，没有一次写完会关注写事件，写队列超过高水位时暂停读
+                        long write = channelContext.flush(selectionKey2);
+                        log.debug("写入的字节数：{}", write);
+                        atomicLong.set(write);
                     }
-                    ByteBuffer buffer = Charset.defaultCharset().encode(stringBuilder.toString());
-                    //写
-                    int write = socketChannel.write(buffer);
-                    log.debug("写入的字节数：" + write);
-                    atomicLong.set(write);
-                    //判断是否写完
-                    if (buffer.hasRemaining())
+                    catch (IOException e)
                     {
-                        //没有一次写完
-                        //再关注写事件
-                        selectionKey2.interestOps(SelectionKey.OP_WRITE);
-                        //加入到附件
-                        selectionKey2.attach(buffer);
+                        //对端已经关闭或者文件打不开，不能让一个连接的异常结束整个服务器
+                        log.debug("连接异常，关闭连接：{}，{}", socketChannel, e);
+                        close(selectionKey2);
                     }
                 }
 
@@ -137,99 +153,120 @@ public class Server
                     {
                         SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
                         // 获取 selectionKey 上关联的附件
-                        ByteBuffer buffer = (ByteBuffer) selectionKey.attachment();
-                        if (buffer == null)
-                        {
-                            buffer = byteBuffer;
-                        }
+                        ChannelContext channelContext = (ChannelContext) selectionKey.attachment();
                         //处理读事件
-                        log.debug("读事件：" + socketChannel);
-                        int read = socketChannel.read(buffer);
+                        log.debug("读事件：{}", socketChannel);
+                        //读缓冲满了会自动扩容
+                        int read = channelContext.read(socketChannel);
                         if (read == -1)
                         {
-                            selectionKey.cancel();
-                            //socketChannel.close();
+                            //对端关闭，关闭连接并释放还没发完的数据
+                            close(selectionKey);
                         }
                         else
                         {
-                            split(buffer);
-                            if (buffer.position() == buffer.limit())
-                            {
-                                //需要扩容
-                                ByteBuffer newByteBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
-                                buffer.flip();
-                                newByteBuffer.put(buffer);
-                                selectionKey.attach(newByteBuffer);
-                            }
-
+                            //处理消息的边界，完整的消息交给后台线程打印
+                            channelContext.decode(channelContext.getTap());
                         }
                     }
+                    catch (TooLongFrameException e)
+                    {
+                        //消息太长，拒绝这个连接，防止读缓冲无限增长
+                        log.warn("关闭连接：{}，{}", selectionKey.channel(), e.getMessage());
+                        close(selectionKey);
+                    }
                     catch (Exception e)
                     {
                         e.printStackTrace();
-                        selectionKey.cancel();
+                        close(selectionKey);
                     }
                 }
 
-                //写事件
-                else if (selectionKey.isWritable())
+                //写事件，读事件处理完之后也要检查，不能被读事件饿死
+                if (selectionKey.isValid() && selectionKey.isWritable())
                 {
                     try
                     {
                         //取附件
-                        ByteBuffer buffer = (ByteBuffer) selectionKey.attachment();
+                        ChannelContext channelContext = (ChannelContext) selectionKey.attachment();
                         //SocketChannel
                         SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
-                        //继续写
-                        log.debug("写事件：" + socketChannel);
-                        int write = socketChannel.write(buffer);
-                        log.debug("写入的字节数：" + write);
+                        //继续写，写队列中的多个ByteBuffer一次写出去
+                        log.debug("写事件：{}", socketChannel);
+                        long write = channelContext.flush(selectionKey);
+                        log.debug("写入的字节数：{}", write);
                         atomicLong.getAndAdd(write);
-                        //判断是否读完
-                        if (!buffer.hasRemaining())
+                        //判断是否写完，写完了flush会取消关注写事件
+                        if (channelContext.isFlushed())
                         {
-                            //写完了
-                            //取消关注写事件
-                            selectionKey.interestOps(SelectionKey.OP_READ);
-                            //加入到附件
-                            selectionKey.attach(null);
-                            log.debug("写完成，总字节数：" + atomicLong.get());
+                            log.debug("写完成，总字节数：{}", atomicLong.get());
                         }
                     }
                     catch (Exception e)
                     {
                         e.printStackTrace();
-                        selectionKey.cancel();
+                        close(selectionKey);
                     }
                 }
+            });
+        }
+    }
 
-                // 处理完毕，必须将事件移除
-                iterator.remove();
-            }
+    /**
+     * 关闭连接，释放连接持有的缓冲和还没发完的数据（文件数据会关闭FileChannel）
+     *
+     * @param selectionKey 选择键
+     */
+    private static void close(SelectionKey selectionKey)
+    {
+        selectionKey.cancel();
+        ChannelContext channelContext = (ChannelContext) selectionKey.attachment();
+        if (channelContext != null)
+        {
+            channelContext.release();
+        }
+        try
+        {
+            selectionKey.channel().close();
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
         }
     }
 
-    private static void split(ByteBuffer source)
+    /**
+     * 创建连接上下文，读缓冲从16字节开始按需扩容，最大不超过最大消息长度
+     *
+     * @return {@link ChannelContext}
+     */
+    private static ChannelContext newChannelContext()
     {
-        //切换到读模式
-        source.flip();
-        for (int i = 0; i < source.limit(); i++)
+        return new ChannelContext(BufferAllocator.HEAP,
+                new AdaptiveBufferGrowth(16, 16, MAX_FRAME_LENGTH),
+                new LineFrameDecoder(MAX_FRAME_LENGTH));
+    }
+
+    /**
+     * 创建连接建立后发送的数据
+     *
+     * @param type shared：预先生成好的共享直接内存；generated：边写边生成；
+     *             file:路径：用transferTo发送文件；mapped:路径：分段映射文件再发送
+     * @return {@link PayloadSource}
+     */
+    private static PayloadSource createPayloadSource(String type)
+    {
+        if (type.startsWith("file:") || type.startsWith("mapped:"))
         {
-            //找到一条完整消息
-            if (source.get(i) == '\n')
-            {
-                int length = i + 1 - source.position();
-                // 把这条完整消息存入新的 ByteBuffer
-                ByteBuffer target = ByteBuffer.allocate(length);
-                // 从 source 读，向 target 写
-                for (int j = 0; j < length; j++)
-                {
-                    target.put(source.get());
-                }
-                ByteBufferUtil.debugAll(target);
-            }
+            boolean mapped = type.startsWith("mapped:");
+            String path = type.substring(type.indexOf(':') + 1);
+            return new FilePayloadSource(Paths.get(path), Long.getLong("mao.t5.payloadOffset", 0),
+                    Long.getLong("mao.t5.payloadLength", -1), mapped);
+        }
+        if ("generated".equals(type))
+        {
+            return GeneratedPayloadSource.repeat((byte) '0', PAYLOAD_LENGTH);
         }
-        //切换到写模式，没读完的部分继续
-        source.compact();
+        return SharedBufferPayloadSource.repeat((byte) '0', PAYLOAD_LENGTH);
     }
 }
@@ -1,13 +1,16 @@
 package mao.t6;
 
+import mao.utils.OptimizedSelector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
 import java.nio.channels.*;
-import java.util.Iterator;
-import java.util.concurrent.atomic.AtomicLong;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Project name(项目名称)：Netty_Net_Programming
@@ -33,7 +36,7 @@ public class AcceptHandler implements Runnable
     /**
      * 选择器
      */
-    private Selector selector;
+    private OptimizedSelector selector;
 
     /**
      * 工人处理程序
@@ -46,9 +49,44 @@ public class AcceptHandler implements Runnable
     private volatile boolean isRegister = false;
 
     /**
-     * 原子Long，cas方式累加
+     * 配置
      */
-    private final AtomicLong atomicLong = new AtomicLong(0);
+    private final ReactorConfig config;
+
+    /**
+     * 工作线程工厂，线程名为Worker-序号
+     */
+    private final ReactorThreadFactory workerThreadFactory;
+
+    /**
+     * Accept线程工厂
+     */
+    private final ReactorThreadFactory acceptThreadFactory;
+
+    /**
+     * 为新连接选择WorkerHandler
+     */
+    private WorkerChooser workerChooser;
+
+    /**
+     * 构造方法，使用默认配置
+     */
+    public AcceptHandler()
+    {
+        this(new ReactorConfig());
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param config 配置
+     */
+    public AcceptHandler(ReactorConfig config)
+    {
+        this.config = config;
+        this.workerThreadFactory = new ReactorThreadFactory("Worker", config);
+        this.acceptThreadFactory = new ReactorThreadFactory("Accept", config);
+    }
 
     /**
      * 注册
@@ -59,35 +97,80 @@ public class AcceptHandler implements Runnable
     public void register(int port) throws IOException
     {
         //判断是否已经注册过
-        if (!isRegister)
+        SelectorProvider selectorProvider = config.getSelectorProvider();
+        if (!isRegister && config.isReusePort() && isReusePortSupported(selectorProvider))
+        {
+            //每个WorkerHandler一个ServerSocketChannel，绑定同一个端口，内核负责分配连接
+            workerHandlers = initWorkerHandlers();
+            for (WorkerHandler workerHandler : workerHandlers)
+            {
+                ServerSocketChannel serverSocketChannel = selectorProvider.openServerSocketChannel();
+                serverSocketChannel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                serverSocketChannel.bind(new InetSocketAddress(port));
+                serverSocketChannel.configureBlocking(false);
+                workerHandler.bind(serverSocketChannel);
+            }
+            log.debug("服务启动，SO_REUSEPORT模式，ServerSocketChannel数量：{}", workerHandlers.length);
+            isRegister = true;
+        }
+        else if (!isRegister)
         {
             //还没有注册过
-            ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+            if (config.isReusePort())
+            {
+                log.warn("当前平台不支持SO_REUSEPORT，使用单个Accept线程");
+            }
+            ServerSocketChannel serverSocketChannel = selectorProvider.openServerSocketChannel();
             //绑定端口
             serverSocketChannel.bind(new InetSocketAddress(port));
             //非阻塞
             serverSocketChannel.configureBlocking(false);
             //创建Selector
-            selector = Selector.open();
+            selector = OptimizedSelector.open(selectorProvider);
             //注册到Selector
-            serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
+            serverSocketChannel.register(selector.unwrap(), SelectionKey.OP_ACCEPT);
             //创建WorkerHandler
             workerHandlers = initWorkerHandlers();
+            workerChooser = config.getLoadBalanceStrategy().newChooser(workerHandlers);
+            log.debug("负载均衡策略：{}", config.getLoadBalanceStrategy());
             log.debug("服务启动");
-            new Thread(this, "Accept").start();
+            acceptThreadFactory.newThread(this).start();
             isRegister = true;
         }
     }
 
-    public WorkerHandler[] initWorkerHandlers()
+    /**
+     * 当前平台是否支持SO_REUSEPORT
+     *
+     * @param selectorProvider 用来创建ServerSocketChannel
+     * @return boolean
+     * @throws IOException ioexception
+     */
+    private static boolean isReusePortSupported(SelectorProvider selectorProvider) throws IOException
+    {
+        try (ServerSocketChannel serverSocketChannel = selectorProvider.openServerSocketChannel())
+        {
+            return serverSocketChannel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+        }
+    }
+
+    /**
+     * 创建并启动WorkerHandler，按序号依次启动，线程名Worker-i和WorkerHandler的索引一致
+     *
+     * @return {@link WorkerHandler[]}
+     * @throws IOException ioexception
+     */
+    public WorkerHandler[] initWorkerHandlers() throws IOException
     {
-        int processors = Runtime.getRuntime().availableProcessors();
-        log.debug("线程数量：" + processors);
-        WorkerHandler[] workerHandlers = new WorkerHandler[processors];
-        for (int i = 0; i < processors; i++)
+        int workerCount = config.getWorkerCount();
+        log.debug("配置：{}", config);
+        log.debug("线程数量：{}", workerCount);
+        WorkerHandler[] workerHandlers = new WorkerHandler[workerCount];
+        for (int i = 0; i < workerCount; i++)
         {
-            log.debug("初始化WorkerHandler" + i);
-            workerHandlers[i] = new WorkerHandler(i);
+            log.debug("初始化WorkerHandler{}", i);
+            workerHandlers[i] = new WorkerHandler(i, config, workerThreadFactory);
+            workerHandlers[i].start();
         }
         return workerHandlers;
     }
@@ -100,13 +183,9 @@ public class AcceptHandler implements Runnable
             try
             {
                 int select = selector.select();
-                //iterator
-                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
-                while (iterator.hasNext())
+                //按数组下标遍历就绪事件，处理完自动移除
+                selector.processSelectedKeys(selectionKey ->
                 {
-                    //得到selectionKey
-                    SelectionKey selectionKey = iterator.next();
-
                     //连接事件
                     if (selectionKey.isAcceptable())
                     {
@@ -114,23 +193,20 @@ public class AcceptHandler implements Runnable
                         {
                             //得到ServerSocketChannel
                             ServerSocketChannel serverSocketChannel = (ServerSocketChannel) selectionKey.channel();
-                            log.debug("注册事件：" + serverSocketChannel);
+                            log.debug("注册事件：{}", serverSocketChannel);
                             //得到SocketChannel
                             SocketChannel socketChannel = serverSocketChannel.accept();
                             //非阻塞
                             socketChannel.configureBlocking(false);
-                            //轮询负载均衡注册到每个workerHandler
-                            workerHandlers[Math.toIntExact((atomicLong.getAndIncrement() %
-                                    workerHandlers.length))].register(socketChannel);
+                            //按负载均衡策略注册到workerHandler
+                            workerChooser.next().register(socketChannel);
                         }
                         catch (Exception e)
                         {
                             selectionKey.cancel();
                         }
                     }
-                    //移除
-                    iterator.remove();
-                }
+                });
             }
             catch (Exception e)
             {
@@ -138,4 +214,26 @@ public class AcceptHandler implements Runnable
             }
         }
     }
+
+    /**
+     * 得到工人处理程序
+     *
+     * @return {@link WorkerHandler[]}
+     */
+    public WorkerHandler[] getWorkerHandlers()
+    {
+        return workerHandlers;
+    }
+
+    /**
+     * 得到Accept线程和工作线程各自用掉的CPU时间，单位纳秒
+     *
+     * @return 线程名 -> CPU时间
+     */
+    public Map<String, Long> getThreadCpuTimes()
+    {
+        Map<String, Long> cpuTimes = new LinkedHashMap<>(acceptThreadFactory.getCpuTimes());
+        cpuTimes.putAll(workerThreadFactory.getCpuTimes());
+        return cpuTimes;
+    }
 }
@@ -45,9 +45,9 @@ public class Client
                 socketChannel.connect(new InetSocketAddress("127.0.0.1", 8080));
                 Scanner input = new Scanner(System.in);
                 input.nextLine();
-                socketChannel.write(ByteBuffer.wrap("hello".getBytes(StandardCharsets.UTF_8)));
+                socketChannel.write(ByteBuffer.wrap("hello\n".getBytes(StandardCharsets.UTF_8)));
                 input.nextLine();
-                socketChannel.write(ByteBuffer.wrap("world".getBytes(StandardCharsets.UTF_8)));
+                socketChannel.write(ByteBuffer.wrap("world\n".getBytes(StandardCharsets.UTF_8)));
                 input.nextLine();
                 socketChannel.close();
             }
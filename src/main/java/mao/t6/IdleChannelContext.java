@@ -0,0 +1,131 @@
+package mao.t6;
+
+import mao.utils.BufferAllocator;
+import mao.utils.ChannelContext;
+import mao.utils.FrameDecoder;
+import mao.utils.HashedTimingWheel;
+
+import java.nio.channels.SocketChannel;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t6
+ * Class(类名): IdleChannelContext
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 20:50
+ * Version(版本): 1.0
+ * Description(描述)： 带空闲检测的连接上下文，记录最后一次读写的时间和三种空闲检测的定时器。
+ * 读写时只更新时间，定时器到期时才检查是否真的空闲，不是就按剩余时间重新调度。
+ * 只在工作线程中使用
+ */
+
+class IdleChannelContext extends ChannelContext
+{
+    /**
+     * 连接，selector重建后SelectionKey会变，所以只记通道
+     */
+    final SocketChannel socketChannel;
+
+    /**
+     * 最后一次读到数据的时间
+     */
+    long lastReadNanos;
+
+    /**
+     * 最后一次写出数据的时间
+     */
+    long lastWriteNanos;
+
+    /**
+     * 读空闲定时器，没有开启时为null
+     */
+    HashedTimingWheel.Timeout readerIdleTimeout;
+
+    /**
+     * 写空闲定时器，没有开启时为null
+     */
+    HashedTimingWheel.Timeout writerIdleTimeout;
+
+    /**
+     * 读写空闲定时器，没有开启时为null
+     */
+    HashedTimingWheel.Timeout allIdleTimeout;
+
+    /**
+     * 构造方法
+     *
+     * @param allocator     读缓冲分配器
+     * @param frameDecoder  解码器，最大消息长度为{@link FrameDecoder#DEFAULT_MAX_FRAME_LENGTH}
+     * @param socketChannel 连接
+     * @param nowNanos      当前时间
+     */
+    IdleChannelContext(BufferAllocator allocator, FrameDecoder frameDecoder, SocketChannel socketChannel, long nowNanos)
+    {
+        super(allocator, FrameDecoder.DEFAULT_MAX_FRAME_LENGTH, frameDecoder);
+        this.socketChannel = socketChannel;
+        this.lastReadNanos = nowNanos;
+        this.lastWriteNanos = nowNanos;
+    }
+
+    /**
+     * 得到定时器对应的空闲类型
+     *
+     * @param timeout 定时器
+     * @return {@link IdleState}
+     */
+    IdleState idleStateOf(HashedTimingWheel.Timeout timeout)
+    {
+        if (timeout == readerIdleTimeout)
+        {
+            return IdleState.READER_IDLE;
+        }
+        if (timeout == writerIdleTimeout)
+        {
+            return IdleState.WRITER_IDLE;
+        }
+        return IdleState.ALL_IDLE;
+    }
+
+    /**
+     * 得到某种空闲类型的最后活动时间
+     *
+     * @param idleState 空闲类型
+     * @return long
+     */
+    long lastActivityNanos(IdleState idleState)
+    {
+        switch (idleState)
+        {
+            case READER_IDLE:
+                return lastReadNanos;
+            case WRITER_IDLE:
+                return lastWriteNanos;
+            default:
+                return Math.max(lastReadNanos, lastWriteNanos);
+        }
+    }
+
+    /**
+     * 取消所有定时器
+     *
+     * @param timingWheel 时间轮
+     */
+    void cancelIdleTimeouts(HashedTimingWheel timingWheel)
+    {
+        if (readerIdleTimeout != null)
+        {
+            timingWheel.cancel(readerIdleTimeout);
+        }
+        if (writerIdleTimeout != null)
+        {
+            timingWheel.cancel(writerIdleTimeout);
+        }
+        if (allIdleTimeout != null)
+        {
+            timingWheel.cancel(allIdleTimeout);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package mao.t6;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t6
+ * Enum(枚举名): IdleState
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 20:45
+ * Version(版本): 1.0
+ * Description(描述)： 连接的空闲类型
+ */
+
+public enum IdleState
+{
+    /**
+     * 一段时间没有读到数据
+     */
+    READER_IDLE,
+
+    /**
+     * 一段时间没有写出数据
+     */
+    WRITER_IDLE,
+
+    /**
+     * 一段时间既没有读也没有写
+     */
+    ALL_IDLE
+}
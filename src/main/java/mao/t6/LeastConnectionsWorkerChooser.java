@@ -0,0 +1,60 @@
+package mao.t6;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t6
+ * Class(类名): LeastConnectionsWorkerChooser
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 16:30
+ * Version(版本): 1.0
+ * Description(描述)： 最少连接，遍历所有WorkerHandler选择当前连接数最少的，
+ * 每次从不同的位置开始遍历，连接数相同时不会总是选中第一个
+ */
+
+public class LeastConnectionsWorkerChooser implements WorkerChooser
+{
+    /**
+     * 工人处理程序
+     */
+    private final WorkerHandler[] workerHandlers;
+
+    /**
+     * 遍历的开始位置
+     */
+    private final AtomicInteger start = new AtomicInteger();
+
+    /**
+     * 构造方法
+     *
+     * @param workerHandlers 工人处理程序
+     */
+    public LeastConnectionsWorkerChooser(WorkerHandler[] workerHandlers)
+    {
+        this.workerHandlers = workerHandlers;
+    }
+
+    @Override
+    public WorkerHandler next()
+    {
+        int length = workerHandlers.length;
+        int offset = Math.abs(start.getAndIncrement() % length);
+        WorkerHandler best = workerHandlers[offset];
+        int bestConnections = best.getActiveConnections();
+        for (int i = 1; i < length && bestConnections > 0; i++)
+        {
+            WorkerHandler workerHandler = workerHandlers[(offset + i) % length];
+            int connections = workerHandler.getActiveConnections();
+            if (connections < bestConnections)
+            {
+                best = workerHandler;
+                bestConnections = connections;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,51 @@
+package mao.t6;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t6
+ * Enum(枚举名): LoadBalanceStrategy
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 16:40
+ * Version(版本): 1.0
+ * Description(描述)： 负载均衡策略
+ */
+
+public enum LoadBalanceStrategy
+{
+    /**
+     * 轮询
+     */
+    ROUND_ROBIN,
+
+    /**
+     * 最少连接
+     */
+    LEAST_CONNECTIONS,
+
+    /**
+     * 随机选两个取负载低的
+     */
+    POWER_OF_TWO_CHOICES;
+
+    /**
+     * 创建WorkerChooser
+     *
+     * @param workerHandlers 工人处理程序
+     * @return {@link WorkerChooser}
+     */
+    public WorkerChooser newChooser(WorkerHandler[] workerHandlers)
+    {
+        switch (this)
+        {
+            case LEAST_CONNECTIONS:
+                return new LeastConnectionsWorkerChooser(workerHandlers);
+            case POWER_OF_TWO_CHOICES:
+                return new PowerOfTwoChoicesWorkerChooser(workerHandlers);
+            default:
+                return new RoundRobinWorkerChooser(workerHandlers);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package mao.t6;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t6
+ * Class(类名): PowerOfTwoChoicesWorkerChooser
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 16:36
+ * Version(版本): 1.0
+ * Description(描述)： 随机选两个，取负载低的那个。
+ * 只看两个WorkerHandler，开销和WorkerHandler数量无关，负载比轮询均匀得多
+ */
+
+public class PowerOfTwoChoicesWorkerChooser implements WorkerChooser
+{
+    /**
+     * 工人处理程序
+     */
+    private final WorkerHandler[] workerHandlers;
+
+    /**
+     * 构造方法
+     *
+     * @param workerHandlers 工人处理程序
+     */
+    public PowerOfTwoChoicesWorkerChooser(WorkerHandler[] workerHandlers)
+    {
+        this.workerHandlers = workerHandlers;
+    }
+
+    @Override
+    public WorkerHandler next()
+    {
+        int length = workerHandlers.length;
+        if (length == 1)
+        {
+            return workerHandlers[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(length);
+        //第二个在剩下的length - 1个中选，保证和第一个不同
+        int second = random.nextInt(length - 1);
+        if (second >= first)
+        {
+            second++;
+        }
+        WorkerHandler a = workerHandlers[first];
+        WorkerHandler b = workerHandlers[second];
+        return a.getLoad() <= b.getLoad() ? a : b;
+    }
+}
@@ -0,0 +1,314 @@
+package mao.t6;
+
+import mao.utils.EchoMessageHandler;
+import mao.utils.LengthFieldType;
+import mao.utils.MessageHandler;
+
+import java.nio.channels.spi.SelectorProvider;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t6
+ * Class(类名): ReactorConfig
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 18:00
+ * Version(版本): 1.0
+ * Description(描述)： 多线程reactor的配置。
+ * 容器中availableProcessors()可能不等于实际分到的CPU，工作线程数需要能单独指定
+ */
+
+public class ReactorConfig
+{
+    /**
+     * 工作线程数
+     */
+    private int workerCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 线程优先级
+     */
+    private int threadPriority = Thread.NORM_PRIORITY;
+
+    /**
+     * 是否是守护线程
+     */
+    private boolean daemon = false;
+
+    /**
+     * 绑核，为null时不绑核
+     */
+    private ThreadAffinityHook affinityHook;
+
+    /**
+     * 用来创建Selector和ServerSocketChannel
+     */
+    private SelectorProvider selectorProvider = SelectorProvider.provider();
+
+    /**
+     * 负载均衡策略
+     */
+    private LoadBalanceStrategy loadBalanceStrategy = LoadBalanceStrategy.ROUND_ROBIN;
+
+    /**
+     * 是否使用SO_REUSEPORT，开启后由内核把连接分配给各个WorkerHandler，负载均衡策略不再起作用
+     */
+    private boolean reusePort = false;
+
+    /**
+     * 是否给接受的连接设置TCP_NODELAY，和Netty一样默认开启。
+     * 关闭时如果客户端流水线发送请求，上一个响应还没被确认，下一个响应会被Nagle算法攒着，
+     * 对端又在延迟确认，响应要等到下一个请求捎带确认才发出去
+     */
+    private boolean tcpNoDelay = true;
+
+    /**
+     * 读空闲超时时间，毫秒，这么长时间没有读到数据就关闭连接，0表示不检测
+     */
+    private long readerIdleTimeMillis = 0;
+
+    /**
+     * 写空闲超时时间，毫秒，这么长时间没有写出数据就关闭连接，0表示不检测
+     */
+    private long writerIdleTimeMillis = 0;
+
+    /**
+     * 读写空闲超时时间，毫秒，这么长时间既没有读也没有写就关闭连接，0表示不检测
+     */
+    private long allIdleTimeMillis = 0;
+
+    /**
+     * 空闲检测时间轮每一格的时间，毫秒，也是空闲检测的精度
+     */
+    private long idleTickMillis = 100;
+
+    /**
+     * 业务处理，所有工作线程共用，默认回显
+     */
+    private MessageHandler messageHandler = new EchoMessageHandler();
+
+    /**
+     * 消息的长度字段格式，为null时按'\n'分隔消息
+     */
+    private LengthFieldType lengthFieldType;
+
+    /**
+     * 从系统属性读取配置，没有设置的使用默认值：
+     * -Dmao.t6.workers=工作线程数
+     * -Dmao.t6.threadPriority=线程优先级
+     * -Dmao.t6.daemon=true|false
+     * -Dmao.t6.loadBalance=round_robin|least_connections|power_of_two_choices
+     * -Dmao.t6.reusePort=true|false
+     * -Dmao.t6.tcpNoDelay=true|false
+     * -Dmao.t6.readerIdleMillis=读空闲超时时间
+     * -Dmao.t6.writerIdleMillis=写空闲超时时间
+     * -Dmao.t6.allIdleMillis=读写空闲超时时间
+     * -Dmao.t6.idleTickMillis=空闲检测精度
+     * -Dmao.t6.framing=line|int16|int32|varint
+     *
+     * @return {@link ReactorConfig}
+     */
+    public static ReactorConfig fromSystemProperties()
+    {
+        ReactorConfig config = new ReactorConfig();
+        config.setWorkerCount(Integer.getInteger("mao.t6.workers", config.getWorkerCount()));
+        config.setThreadPriority(Integer.getInteger("mao.t6.threadPriority", config.getThreadPriority()));
+        config.setDaemon(Boolean.getBoolean("mao.t6.daemon"));
+        config.setLoadBalanceStrategy(LoadBalanceStrategy.valueOf(
+                System.getProperty("mao.t6.loadBalance", "round_robin").toUpperCase()));
+        config.setReusePort(Boolean.getBoolean("mao.t6.reusePort"));
+        config.setTcpNoDelay(Boolean.parseBoolean(System.getProperty("mao.t6.tcpNoDelay", "true")));
+        config.setReaderIdleTimeMillis(Long.getLong("mao.t6.readerIdleMillis", config.getReaderIdleTimeMillis()));
+        config.setWriterIdleTimeMillis(Long.getLong("mao.t6.writerIdleMillis", config.getWriterIdleTimeMillis()));
+        config.setAllIdleTimeMillis(Long.getLong("mao.t6.allIdleMillis", config.getAllIdleTimeMillis()));
+        config.setIdleTickMillis(Long.getLong("mao.t6.idleTickMillis", config.getIdleTickMillis()));
+        String framing = System.getProperty("mao.t6.framing", "line");
+        config.setLengthFieldType("line".equalsIgnoreCase(framing) ? null : LengthFieldType.valueOf(framing.toUpperCase()));
+        return config;
+    }
+
+    public int getWorkerCount()
+    {
+        return workerCount;
+    }
+
+    public void setWorkerCount(int workerCount)
+    {
+        if (workerCount <= 0)
+        {
+            throw new IllegalArgumentException("workerCount必须大于0：" + workerCount);
+        }
+        this.workerCount = workerCount;
+    }
+
+    public int getThreadPriority()
+    {
+        return threadPriority;
+    }
+
+    public void setThreadPriority(int threadPriority)
+    {
+        if (threadPriority < Thread.MIN_PRIORITY || threadPriority > Thread.MAX_PRIORITY)
+        {
+            throw new IllegalArgumentException("threadPriority必须在1到10之间：" + threadPriority);
+        }
+        this.threadPriority = threadPriority;
+    }
+
+    public boolean isDaemon()
+    {
+        return daemon;
+    }
+
+    public void setDaemon(boolean daemon)
+    {
+        this.daemon = daemon;
+    }
+
+    public ThreadAffinityHook getAffinityHook()
+    {
+        return affinityHook;
+    }
+
+    public void setAffinityHook(ThreadAffinityHook affinityHook)
+    {
+        this.affinityHook = affinityHook;
+    }
+
+    public SelectorProvider getSelectorProvider()
+    {
+        return selectorProvider;
+    }
+
+    public void setSelectorProvider(SelectorProvider selectorProvider)
+    {
+        this.selectorProvider = selectorProvider;
+    }
+
+    public LoadBalanceStrategy getLoadBalanceStrategy()
+    {
+        return loadBalanceStrategy;
+    }
+
+    public void setLoadBalanceStrategy(LoadBalanceStrategy loadBalanceStrategy)
+    {
+        this.loadBalanceStrategy = loadBalanceStrategy;
+    }
+
+    public boolean isReusePort()
+    {
+        return reusePort;
+    }
+
+    public void setReusePort(boolean reusePort)
+    {
+        this.reusePort = reusePort;
+    }
+
+    public boolean isTcpNoDelay()
+    {
+        return tcpNoDelay;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay)
+    {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public long getReaderIdleTimeMillis()
+    {
+        return readerIdleTimeMillis;
+    }
+
+    public void setReaderIdleTimeMillis(long readerIdleTimeMillis)
+    {
+        this.readerIdleTimeMillis = Math.max(0, readerIdleTimeMillis);
+    }
+
+    public long getWriterIdleTimeMillis()
+    {
+        return writerIdleTimeMillis;
+    }
+
+    public void setWriterIdleTimeMillis(long writerIdleTimeMillis)
+    {
+        this.writerIdleTimeMillis = Math.max(0, writerIdleTimeMillis);
+    }
+
+    public long getAllIdleTimeMillis()
+    {
+        return allIdleTimeMillis;
+    }
+
+    public void setAllIdleTimeMillis(long allIdleTimeMillis)
+    {
+        this.allIdleTimeMillis = Math.max(0, allIdleTimeMillis);
+    }
+
+    public long getIdleTickMillis()
+    {
+        return idleTickMillis;
+    }
+
+    public void setIdleTickMillis(long idleTickMillis)
+    {
+        if (idleTickMillis <= 0)
+        {
+            throw new IllegalArgumentException("idleTickMillis必须大于0：" + idleTickMillis);
+        }
+        this.idleTickMillis = idleTickMillis;
+    }
+
+    public MessageHandler getMessageHandler()
+    {
+        return messageHandler;
+    }
+
+    public void setMessageHandler(MessageHandler messageHandler)
+    {
+        this.messageHandler = messageHandler;
+    }
+
+    /**
+     * 是否开启了任意一种空闲检测
+     *
+     * @return boolean
+     */
+    public boolean isIdleDetectionEnabled()
+    {
+        return readerIdleTimeMillis > 0 || writerIdleTimeMillis > 0 || allIdleTimeMillis > 0;
+    }
+
+    public LengthFieldType getLengthFieldType()
+    {
+        return lengthFieldType;
+    }
+
+    public void setLengthFieldType(LengthFieldType lengthFieldType)
+    {
+        this.lengthFieldType = lengthFieldType;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ReactorConfig{" +
+                "workerCount=" + workerCount +
+                ", threadPriority=" + threadPriority +
+                ", daemon=" + daemon +
+                ", affinityHook=" + affinityHook +
+                ", selectorProvider=" + selectorProvider.getClass().getName() +
+                ", loadBalanceStrategy=" + loadBalanceStrategy +
+                ", reusePort=" + reusePort +
+                ", tcpNoDelay=" + tcpNoDelay +
+                ", readerIdleTimeMillis=" + readerIdleTimeMillis +
+                ", writerIdleTimeMillis=" + writerIdleTimeMillis +
+                ", allIdleTimeMillis=" + allIdleTimeMillis +
+                ", idleTickMillis=" + idleTickMillis +
+                ", messageHandler=" + messageHandler.getClass().getName() +
+                ", framing=" + (lengthFieldType == null ? "line" : lengthFieldType) +
+                '}';
+    }
+}
@@ -0,0 +1,121 @@
+package mao.t6;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t6
+ * Class(类名): ReactorThreadFactory
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 18:10
+ * Version(版本): 1.0
+ * Description(描述)： reactor线程工厂，线程名为 前缀-序号，按配置设置优先级、守护线程和绑核，
+ * 记录每个线程用掉的CPU时间，用来判断线程数是不是合适
+ */
+
+public class ReactorThreadFactory implements ThreadFactory
+{
+    /**
+     * 线程名前缀
+     */
+    private final String prefix;
+
+    /**
+     * 配置
+     */
+    private final ReactorConfig config;
+
+    /**
+     * 线程序号
+     */
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    /**
+     * 创建的线程
+     */
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+    /**
+     * 已经结束的线程用掉的CPU时间
+     */
+    private final Map<String, Long> finishedCpuTimes = new ConcurrentHashMap<>();
+
+    /**
+     * 构造方法
+     *
+     * @param prefix 线程名前缀
+     * @param config 配置
+     */
+    public ReactorThreadFactory(String prefix, ReactorConfig config)
+    {
+        this.prefix = prefix;
+        this.config = config;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable)
+    {
+        int index = nextIndex.getAndIncrement();
+        Thread thread = new Thread(() ->
+        {
+            Thread current = Thread.currentThread();
+            ThreadAffinityHook affinityHook = config.getAffinityHook();
+            if (affinityHook != null)
+            {
+                affinityHook.bind(index, current);
+            }
+            try
+            {
+                runnable.run();
+            }
+            finally
+            {
+                ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+                if (threadMXBean.isCurrentThreadCpuTimeSupported())
+                {
+                    finishedCpuTimes.put(current.getName(), threadMXBean.getCurrentThreadCpuTime());
+                }
+            }
+        }, prefix + "-" + index);
+        thread.setPriority(config.getThreadPriority());
+        thread.setDaemon(config.isDaemon());
+        threads.add(thread);
+        return thread;
+    }
+
+    /**
+     * 得到每个线程用掉的CPU时间，单位纳秒，不支持时为-1
+     *
+     * @return 线程名 -> CPU时间
+     */
+    public Map<String, Long> getCpuTimes()
+    {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        boolean supported = threadMXBean.isThreadCpuTimeSupported();
+        Map<String, Long> cpuTimes = new LinkedHashMap<>();
+        for (Thread thread : threads)
+        {
+            Long finished = finishedCpuTimes.get(thread.getName());
+            if (finished != null)
+            {
+                cpuTimes.put(thread.getName(), finished);
+            }
+            else
+            {
+                cpuTimes.put(thread.getName(), supported ? threadMXBean.getThreadCpuTime(thread.getId()) : -1);
+            }
+        }
+        return cpuTimes;
+    }
+}
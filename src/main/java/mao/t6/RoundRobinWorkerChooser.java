@@ -0,0 +1,56 @@
+package mao.t6;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t6
+ * Class(类名): RoundRobinWorkerChooser
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 16:22
+ * Version(版本): 1.0
+ * Description(描述)： 轮询，WorkerHandler数量是2的幂时用位运算代替取模
+ */
+
+public class RoundRobinWorkerChooser implements WorkerChooser
+{
+    /**
+     * 工人处理程序
+     */
+    private final WorkerHandler[] workerHandlers;
+
+    /**
+     * 是否是2的幂
+     */
+    private final boolean powerOfTwo;
+
+    /**
+     * 计数器，溢出之后变成负数也没关系
+     */
+    private final AtomicInteger index = new AtomicInteger();
+
+    /**
+     * 构造方法
+     *
+     * @param workerHandlers 工人处理程序
+     */
+    public RoundRobinWorkerChooser(WorkerHandler[] workerHandlers)
+    {
+        this.workerHandlers = workerHandlers;
+        this.powerOfTwo = Integer.bitCount(workerHandlers.length) == 1;
+    }
+
+    @Override
+    public WorkerHandler next()
+    {
+        int i = index.getAndIncrement();
+        if (powerOfTwo)
+        {
+            return workerHandlers[i & (workerHandlers.length - 1)];
+        }
+        return workerHandlers[Math.abs(i % workerHandlers.length)];
+    }
+}
@@ -27,7 +27,13 @@ public class Server
 
     public static void main(String[] args) throws IOException
     {
-        AcceptHandler acceptHandler = new AcceptHandler();
+        //线程数、负载均衡策略、SO_REUSEPORT等，见ReactorConfig.fromSystemProperties()
+        ReactorConfig config = ReactorConfig.fromSystemProperties();
+        AcceptHandler acceptHandler = new AcceptHandler(config);
+        //退出时打印每个线程用掉的CPU时间，用来判断线程数是不是合适
+        Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                acceptHandler.getThreadCpuTimes().forEach((name, cpuTime) ->
+                        log.info("{} CPU时间：{}ms", name, cpuTime / 1000000))));
         acceptHandler.register(8080);
     }
 }
@@ -0,0 +1,27 @@
+package mao.t6;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t6
+ * Interface(接口名): ThreadAffinityHook
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 18:05
+ * Version(版本): 1.0
+ * Description(描述)： 线程绑核的扩展点，在新线程中、开始执行任务之前调用，
+ * 可以在这里调用第三方的affinity库把当前线程绑定到指定的CPU
+ */
+
+@FunctionalInterface
+public interface ThreadAffinityHook
+{
+    /**
+     * 绑定当前线程
+     *
+     * @param index  线程序号，从0开始
+     * @param thread 当前线程
+     */
+    void bind(int index, Thread thread);
+}
@@ -0,0 +1,24 @@
+package mao.t6;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t6
+ * Interface(接口名): WorkerChooser
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 16:20
+ * Version(版本): 1.0
+ * Description(描述)： 负载均衡，为新连接选择一个WorkerHandler
+ */
+
+public interface WorkerChooser
+{
+    /**
+     * 选择下一个WorkerHandler
+     *
+     * @return {@link WorkerHandler}
+     */
+    WorkerHandler next();
+}
@@ -1,16 +1,32 @@
 package mao.t6;
 
-import mao.utils.ByteBufferUtil;
+import mao.utils.ByteBufferPool;
+import mao.utils.FrameDecoder;
+import mao.utils.FrameListener;
+import mao.utils.HashedTimingWheel;
+import mao.utils.LengthFieldFrameDecoder;
+import mao.utils.LengthFieldType;
+import mao.utils.LineFrameDecoder;
+import mao.utils.MessageHandler;
+import mao.utils.OptimizedSelector;
+import mao.utils.SelectedKeyHandler;
+import mao.utils.TooLongFrameException;
+import mao.utils.WireTap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.net.StandardSocketOptions;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.util.Iterator;
+import java.nio.channels.spi.SelectorProvider;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Project name(项目名称)：Netty_Net_Programming
@@ -33,20 +49,179 @@ public class WorkerHandler implements Runnable
      */
     private static final Logger log = LoggerFactory.getLogger(WorkerHandler.class);
 
+    /**
+     * 每轮循环最多执行的任务数量
+     */
+    private static final int MAX_TASKS_PER_LOOP = Integer.getInteger("mao.t6.maxTasksPerLoop", 1024);
+
+    /**
+     * 每轮循环执行任务的时间预算，单位纳秒
+     */
+    private static final long TASK_TIME_BUDGET_NANOS =
+            Long.getLong("mao.t6.taskTimeBudgetMicros", 1000) * 1000;
+
+    /**
+     * 每执行多少个任务检查一次时间预算，System.nanoTime()并不便宜
+     */
+    private static final int TIME_CHECK_INTERVAL = 64;
+
+    /**
+     * 读缓冲是否使用直接内存，直接内存读socket时少一次拷贝
+     */
+    private static final boolean DIRECT_BUFFER =
+            Boolean.parseBoolean(System.getProperty("mao.t6.directBuffer", "true"));
+
+    /**
+     * 一次连接事件最多接受的连接数
+     */
+    private static final int MAX_ACCEPTS_PER_EVENT = 64;
+
+    /**
+     * 连续多少次select()提前返回（没有事件、没有任务、没有被中断）就重建selector，小于等于0时不重建。
+     * JDK的epoll空轮询bug会让select()一直立即返回0，工作线程空转占满一个CPU
+     */
+    private static final int SELECTOR_AUTO_REBUILD_THRESHOLD =
+            Integer.getInteger("mao.t6.selectorAutoRebuildThreshold", 512);
+
+    /**
+     * 空闲检测时间轮的槽数量，每格100毫秒时转一圈是51.2秒，更长的超时多转几圈
+     */
+    private static final int IDLE_WHEEL_SIZE = 512;
+
     /**
      * 索引
      */
     private final int index;
 
+    /**
+     * 用来创建selector
+     */
+    private final SelectorProvider selectorProvider;
+
+    /**
+     * 消息的长度字段格式，为null时按'\n'分隔消息
+     */
+    private final LengthFieldType lengthFieldType;
+
+    /**
+     * 是否给连接设置TCP_NODELAY
+     */
+    private final boolean tcpNoDelay;
+
+    /**
+     * 业务处理
+     */
+    private final MessageHandler messageHandler;
+
+    /**
+     * 读空闲超时时间，纳秒，0表示不检测
+     */
+    private final long readerIdleNanos;
+
+    /**
+     * 写空闲超时时间，纳秒，0表示不检测
+     */
+    private final long writerIdleNanos;
+
+    /**
+     * 读写空闲超时时间，纳秒，0表示不检测
+     */
+    private final long allIdleNanos;
+
+    /**
+     * 空闲检测的时间轮，每个工作线程一个，不需要额外的定时线程
+     */
+    private final HashedTimingWheel timingWheel;
+
+    /**
+     * 空闲检测定时器到期时的回调，所有连接共用
+     */
+    private final HashedTimingWheel.TimeoutTask idleTimeoutTask = this::onIdleTimeout;
+
+    /**
+     * 本轮事件循环的时间，select返回后取一次，读写时间戳都用它，只在工作线程中使用
+     */
+    private long loopNanos;
+
+    /**
+     * 用来创建工作线程
+     */
+    private final ThreadFactory threadFactory;
+
+    /**
+     * 读缓冲池，只在工作线程中使用
+     */
+    private final ByteBufferPool bufferPool = new ByteBufferPool(DIRECT_BUFFER);
+
+    /**
+     * 正在解码的连接，只在工作线程中使用
+     */
+    private IdleChannelContext currentContext;
+
+    /**
+     * 报文抓取，关闭时每个连接拿到的都是不做事的Tap
+     */
+    private final WireTap wireTap = WireTap.getDefault();
+
+    /**
+     * 消息回调，只创建一次
+     */
+    private final FrameListener frameListener = this::onFrame;
+
+    /**
+     * 就绪事件回调，只创建一次
+     */
+    private final SelectedKeyHandler selectedKeyHandler = this::processSelectedKey;
+
     /**
      * 选择器
      */
-    private Selector selector;
+    private OptimizedSelector selector;
 
     /**
      * 线程安全的任务队列
      */
-    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Task> tasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 队列中等待执行的任务数量，ConcurrentLinkedQueue的size()是O(n)的，所以单独计数
+     */
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+
+    /**
+     * 当前连接数，分配连接时就加一，负载均衡能马上看到
+     */
+    private final AtomicInteger activeConnections = new AtomicInteger();
+
+    /**
+     * 已执行的任务总数
+     */
+    private final AtomicLong executedTasks = new AtomicLong();
+
+    /**
+     * 任务从入队到开始执行的总等待时间，单位纳秒
+     */
+    private final AtomicLong totalTaskLatencyNanos = new AtomicLong();
+
+    /**
+     * 任务从入队到开始执行的最大等待时间，单位纳秒
+     */
+    private final AtomicLong maxTaskLatencyNanos = new AtomicLong();
+
+    /**
+     * 因为空闲被关闭的连接数
+     */
+    private final AtomicLong idleClosedConnections = new AtomicLong();
+
+    /**
+     * selector重建次数
+     */
+    private final AtomicLong selectorRebuilds = new AtomicLong();
+
+    /**
+     * 最后一次重建selector的时间，毫秒，用来和CPU监控的尖刺对照
+     */
+    private volatile long lastSelectorRebuildMillis;
 
     /**
      * 是否已经注册
@@ -56,11 +231,24 @@ public class WorkerHandler implements Runnable
     /**
      * 构造方法
      *
-     * @param index 索引
+     * @param index         索引
+     * @param config        配置，使用其中的SelectorProvider、业务处理和空闲检测时间
+     * @param threadFactory 用来创建工作线程
      */
-    public WorkerHandler(int index)
+    public WorkerHandler(int index, ReactorConfig config, ThreadFactory threadFactory)
     {
         this.index = index;
+        this.selectorProvider = config.getSelectorProvider();
+        this.messageHandler = config.getMessageHandler();
+        this.lengthFieldType = config.getLengthFieldType();
+        this.tcpNoDelay = config.isTcpNoDelay();
+        this.threadFactory = threadFactory;
+        this.readerIdleNanos = TimeUnit.MILLISECONDS.toNanos(config.getReaderIdleTimeMillis());
+        this.writerIdleNanos = TimeUnit.MILLISECONDS.toNanos(config.getWriterIdleTimeMillis());
+        this.allIdleNanos = TimeUnit.MILLISECONDS.toNanos(config.getAllIdleTimeMillis());
+        this.loopNanos = System.nanoTime();
+        this.timingWheel = new HashedTimingWheel(TimeUnit.MILLISECONDS.toNanos(config.getIdleTickMillis()),
+                IDLE_WHEEL_SIZE, loopNanos);
     }
 
 
@@ -71,30 +259,159 @@ public class WorkerHandler implements Runnable
      */
     public void register(SocketChannel socketChannel) throws IOException
     {
-        //判断是否已经注册过
-        if (!isRegister)
+        start();
+        activeConnections.incrementAndGet();
+        //添加一个任务到队列
+        execute(() ->
         {
-            //创建selector
-            selector = Selector.open();
-            //开启线程
-            new Thread(this, "Worker-" + index).start();
-            log.debug("启动工作线程：Worker-" + index + " ,监听读事件");
-            isRegister = true;
+            try
+            {
+                //注册，连接上下文作为附件，读缓冲在第一次读事件时从池中取
+                registerChannel(socketChannel);
+            }
+            catch (Exception e)
+            {
+                e.printStackTrace();
+                activeConnections.decrementAndGet();
+                closeQuietly(socketChannel);
+            }
+        });
+    }
+
+    /**
+     * 创建一个连接的解码器
+     *
+     * @return {@link FrameDecoder}
+     */
+    private FrameDecoder newFrameDecoder()
+    {
+        if (lengthFieldType == null)
+        {
+            return new LineFrameDecoder(FrameDecoder.DEFAULT_MAX_FRAME_LENGTH);
         }
-        //添加一个任务到队列
-        tasks.add(() ->
+        return new LengthFieldFrameDecoder(lengthFieldType, FrameDecoder.DEFAULT_MAX_FRAME_LENGTH, false);
+    }
+
+    /**
+     * 注册连接到selector，开启了空闲检测时调度定时器，只在工作线程中调用
+     *
+     * @param socketChannel 套接字通道
+     * @throws IOException ioexception
+     */
+    private void registerChannel(SocketChannel socketChannel) throws IOException
+    {
+        if (tcpNoDelay)
+        {
+            socketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        IdleChannelContext channelContext = new IdleChannelContext(bufferPool, newFrameDecoder(), socketChannel,
+                loopNanos);
+        channelContext.setTap(wireTap.newTap(socketChannel));
+        socketChannel.register(selector.unwrap(), SelectionKey.OP_READ, channelContext);
+        if (readerIdleNanos > 0)
+        {
+            channelContext.readerIdleTimeout = new HashedTimingWheel.Timeout(idleTimeoutTask, channelContext);
+            timingWheel.schedule(channelContext.readerIdleTimeout, readerIdleNanos, loopNanos);
+        }
+        if (writerIdleNanos > 0)
+        {
+            channelContext.writerIdleTimeout = new HashedTimingWheel.Timeout(idleTimeoutTask, channelContext);
+            timingWheel.schedule(channelContext.writerIdleTimeout, writerIdleNanos, loopNanos);
+        }
+        if (allIdleNanos > 0)
+        {
+            channelContext.allIdleTimeout = new HashedTimingWheel.Timeout(idleTimeoutTask, channelContext);
+            timingWheel.schedule(channelContext.allIdleTimeout, allIdleNanos, loopNanos);
+        }
+    }
+
+    /**
+     * 空闲检测定时器到期，读写时只更新了时间戳，这里才判断是不是真的空闲，
+     * 不是就按剩余的时间重新调度，是就关闭连接；连接已经关闭时什么都不做
+     *
+     * @param timeout  到期的定时器
+     * @param nowNanos 当前时间
+     */
+    private void onIdleTimeout(HashedTimingWheel.Timeout timeout, long nowNanos)
+    {
+        IdleChannelContext channelContext = (IdleChannelContext) timeout.getAttachment();
+        //同一轮到期的定时器会先全部从时间轮上取下来再执行，前一个定时器可能已经关闭了这个连接，
+        //这时cancelIdleTimeouts取消不了剩下的，不能再关闭一次，也不能重新调度
+        if (!channelContext.socketChannel.isOpen())
+        {
+            return;
+        }
+        IdleState idleState = channelContext.idleStateOf(timeout);
+        long idleNanos = idleState == IdleState.READER_IDLE ? readerIdleNanos
+                : idleState == IdleState.WRITER_IDLE ? writerIdleNanos : allIdleNanos;
+        long remainingNanos = idleNanos - (nowNanos - channelContext.lastActivityNanos(idleState));
+        if (remainingNanos > 0)
+        {
+            timingWheel.schedule(timeout, remainingNanos, nowNanos);
+            return;
+        }
+        //注册失败的连接已经关闭了，重建selector时迁移失败的也会关闭，打开着的连接一定注册在当前selector上
+        SelectionKey selectionKey = channelContext.socketChannel.keyFor(selector.unwrap());
+        assert selectionKey != null : "打开的连接没有注册到selector：" + channelContext.socketChannel;
+        log.debug("连接空闲，关闭连接：{}，{}", channelContext.socketChannel, idleState);
+        idleClosedConnections.incrementAndGet();
+        //和其他关闭路径一样经过close，activeConnections才会减少
+        close(selectionKey);
+    }
+
+    /**
+     * 绑定一个自己的ServerSocketChannel，直接在工作线程中接受连接，
+     * 不再经过Accept线程转交和唤醒selector，用于SO_REUSEPORT模式
+     *
+     * @param serverSocketChannel 服务器套接字通道，已经绑定端口并且是非阻塞的
+     * @throws IOException ioexception
+     */
+    public void bind(ServerSocketChannel serverSocketChannel) throws IOException
+    {
+        start();
+        execute(() ->
         {
             try
             {
-                //注册
-                SelectionKey selectionKey = socketChannel.register(selector, SelectionKey.OP_READ);
-                selector.selectNow();
+                serverSocketChannel.register(selector.unwrap(), SelectionKey.OP_ACCEPT);
+                log.debug("Worker-{} 开始接受连接：{}", index, serverSocketChannel);
             }
             catch (Exception e)
             {
                 e.printStackTrace();
             }
         });
+    }
+
+    /**
+     * 启动工作线程，只启动一次
+     *
+     * @throws IOException ioexception
+     */
+    synchronized void start() throws IOException
+    {
+        //判断是否已经注册过
+        if (!isRegister)
+        {
+            //创建selector
+            selector = OptimizedSelector.open(selectorProvider);
+            //开启线程
+            Thread thread = threadFactory.newThread(this);
+            thread.start();
+            log.debug("启动工作线程：{} ,监听读事件", thread.getName());
+            isRegister = true;
+        }
+    }
+
+    /**
+     * 提交一个任务到工作线程执行，例如注册、写数据、关闭连接
+     *
+     * @param runnable 任务
+     */
+    public void execute(Runnable runnable)
+    {
+        tasks.add(new Task(runnable, System.nanoTime()));
+        pendingTasks.incrementAndGet();
         //唤醒阻塞的selector
         selector.wakeup();
     }
@@ -102,59 +419,453 @@ public class WorkerHandler implements Runnable
     @Override
     public void run()
     {
+        //连续提前返回的次数
+        int prematureReturns = 0;
         while (true)
         {
             try
             {
-                selector.select();
-                //取得任务，非阻塞取
-                Runnable runnable = tasks.poll();
-                //判断是否为空
-                if (runnable != null)
+                int selected;
+                boolean blocked = false;
+                //有空闲检测定时器时最多阻塞到时间轮的下一格
+                long timeoutNanos = timingWheel.nanosUntilNextTick(loopNanos);
+                long selectStartNanos = loopNanos;
+                //还有没执行完的任务时不能阻塞
+                if (pendingTasks.get() > 0 || timeoutNanos == 0)
                 {
-                    //直接调用run方法，不启动新线程
-                    runnable.run();
+                    selected = selector.selectNow();
                 }
-                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
-                while (iterator.hasNext())
+                else if (timeoutNanos < 0)
                 {
-                    SelectionKey selectionKey = iterator.next();
-                    //读事件
-                    if (selectionKey.isReadable())
-                    {
-                        try
-                        {
-                            SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
-                            log.debug("读事件：" + socketChannel);
-                            ByteBuffer buffer = ByteBuffer.allocate(32);
-                            int read = socketChannel.read(buffer);
-                            if (read == -1)
-                            {
-                                selectionKey.cancel();
-                                socketChannel.close();
-                            }
-                            else
-                            {
-                                //切换到读模式
-                                buffer.flip();
-                                ByteBufferUtil.debugAll(buffer);
-                            }
-                        }
-                        catch (Exception e)
-                        {
-                            e.printStackTrace();
-                            selectionKey.cancel();
-                        }
+                    selected = selector.select();
+                    blocked = true;
+                }
+                else
+                {
+                    //select(0)会一直阻塞，至少1毫秒，向上取整保证醒来时已经到了下一格
+                    selected = selector.select(Math.max(1, (timeoutNanos + 999999) / 1000000));
+                    blocked = true;
+                }
+                loopNanos = System.nanoTime();
+                //执行任务，在预算内把队列里的任务尽量全部执行完
+                int executed = runAllTasks();
+                //处理就绪事件，按数组下标遍历，不创建迭代器
+                selector.processSelectedKeys(selectedKeyHandler);
+                //空闲检测，放在读写之后，这一轮刚有读写的连接不会被误判
+                int expired = timingWheel.expireTimeouts(loopNanos);
 
+                //阻塞的select()没有事件、没有任务、没有到超时时间也没有被中断就返回了，可能是空轮询
+                boolean timedOut = timeoutNanos > 0 && loopNanos - selectStartNanos >= timeoutNanos;
+                if (blocked && selected == 0 && executed == 0 && expired == 0 && !timedOut && !Thread.interrupted())
+                {
+                    prematureReturns++;
+                    if (SELECTOR_AUTO_REBUILD_THRESHOLD > 0 && prematureReturns >= SELECTOR_AUTO_REBUILD_THRESHOLD)
+                    {
+                        rebuildSelector(prematureReturns);
+                        prematureReturns = 0;
                     }
-                    //移除
-                    iterator.remove();
+                }
+                else
+                {
+                    prematureReturns = 0;
                 }
             }
             catch (Exception e)
+            {
+                log.warn("Worker-{} 事件循环异常", index, e);
+                //避免连续的异常让线程空转
+                try
+                {
+                    Thread.sleep(1000);
+                }
+                catch (InterruptedException ignored)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * 重建selector，所有连接迁移到新的selector，迁移失败的连接直接关闭
+     *
+     * @param prematureReturns 连续提前返回的次数
+     * @throws IOException 创建新的selector失败
+     */
+    private void rebuildSelector(int prematureReturns) throws IOException
+    {
+        long start = System.nanoTime();
+        int migrated = selector.rebuild(this::close);
+        long rebuilds = selectorRebuilds.incrementAndGet();
+        lastSelectorRebuildMillis = System.currentTimeMillis();
+        log.warn("Worker-{} select()连续{}次提前返回，可能是JDK的epoll空轮询bug，已重建selector，"
+                        + "迁移连接数：{}，耗时：{}us，累计重建次数：{}",
+                index, prematureReturns, migrated, (System.nanoTime() - start) / 1000, rebuilds);
+    }
+
+    /**
+     * 处理一个就绪事件，连接出错时只关闭这个连接
+     *
+     * @param selectionKey 选择键
+     */
+    private void processSelectedKey(SelectionKey selectionKey)
+    {
+        try
+        {
+            //连接事件，只有SO_REUSEPORT模式下工作线程自己接受连接
+            if (selectionKey.isAcceptable())
+            {
+                accept(selectionKey);
+                return;
+            }
+            //写事件，先把积压的数据写出去
+            if (selectionKey.isValid() && selectionKey.isWritable())
+            {
+                IdleChannelContext channelContext = (IdleChannelContext) selectionKey.attachment();
+                if (channelContext.flush(selectionKey) > 0)
+                {
+                    channelContext.lastWriteNanos = loopNanos;
+                }
+            }
+            //读事件
+            if (selectionKey.isValid() && selectionKey.isReadable())
+            {
+                read(selectionKey);
+            }
+        }
+        catch (TooLongFrameException e)
+        {
+            //消息太长，拒绝这个连接，防止读缓冲无限增长
+            log.warn("关闭连接：{}，{}", selectionKey.channel(), e.getMessage());
+            close(selectionKey);
+        }
+        catch (IOException e)
+        {
+            //对端重置连接之类的，属于正常情况，不打印异常栈
+            log.debug("连接异常，关闭连接：{}，{}", selectionKey.channel(), e);
+            close(selectionKey);
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+            close(selectionKey);
+        }
+    }
+
+    /**
+     * 接受连接，直接注册到自己的selector，一次最多接受MAX_ACCEPTS_PER_EVENT个，其他的下一轮再接受
+     *
+     * @param selectionKey 选择键
+     */
+    private void accept(SelectionKey selectionKey)
+    {
+        ServerSocketChannel serverSocketChannel = (ServerSocketChannel) selectionKey.channel();
+        for (int i = 0; i < MAX_ACCEPTS_PER_EVENT; i++)
+        {
+            SocketChannel socketChannel = null;
+            try
+            {
+                socketChannel = serverSocketChannel.accept();
+                if (socketChannel == null)
+                {
+                    return;
+                }
+                log.debug("连接事件：{}", socketChannel);
+                socketChannel.configureBlocking(false);
+                registerChannel(socketChannel);
+                activeConnections.incrementAndGet();
+            }
+            catch (IOException e)
             {
                 e.printStackTrace();
+                if (socketChannel != null)
+                {
+                    closeQuietly(socketChannel);
+                }
+            }
+        }
+    }
+
+    /**
+     * 处理读事件，解码出的消息原样写回，一次读事件的所有回复合并写出
+     *
+     * @param selectionKey 选择键
+     * @throws IOException ioexception
+     */
+    private void read(SelectionKey selectionKey) throws IOException
+    {
+        SocketChannel socketChannel = (SocketChannel) selectionKey.channel();
+        IdleChannelContext channelContext = (IdleChannelContext) selectionKey.attachment();
+        log.debug("读事件：{}", socketChannel);
+        int read = channelContext.read(socketChannel);
+        if (read == -1)
+        {
+            close(selectionKey);
+            return;
+        }
+        if (read > 0)
+        {
+            channelContext.lastReadNanos = loopNanos;
+        }
+        currentContext = channelContext;
+        try
+        {
+            channelContext.decode(frameListener);
+        }
+        finally
+        {
+            currentContext = null;
+        }
+        if (channelContext.flush(selectionKey) > 0)
+        {
+            channelContext.lastWriteNanos = loopNanos;
+        }
+        channelContext.releaseIfEmpty();
+    }
+
+    /**
+     * 处理一条完整的消息，交给业务处理，回写的数据进入当前连接的写队列
+     *
+     * @param frame 消息
+     */
+    private void onFrame(ByteBuffer frame)
+    {
+        //只拷贝到抓取队列，不移动position，业务处理看到的还是完整的消息
+        currentContext.getTap().onFrame(frame);
+        messageHandler.onMessage(frame, currentContext);
+    }
+
+    /**
+     * 关闭连接，归还连接持有的缓冲
+     *
+     * @param selectionKey 选择键
+     */
+    private void close(SelectionKey selectionKey)
+    {
+        if (selectionKey.isValid())
+        {
+            activeConnections.decrementAndGet();
+        }
+        selectionKey.cancel();
+        IdleChannelContext channelContext = (IdleChannelContext) selectionKey.attachment();
+        if (channelContext != null)
+        {
+            channelContext.cancelIdleTimeouts(timingWheel);
+            channelContext.release();
+        }
+        try
+        {
+            selectionKey.channel().close();
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 执行任务队列中的任务，直到队列为空、达到数量上限或者用完时间预算
+     *
+     * @return 本轮执行的任务数量
+     */
+    private int runAllTasks()
+    {
+        long deadline = System.nanoTime() + TASK_TIME_BUDGET_NANOS;
+        int count = 0;
+        Task task;
+        while (count < MAX_TASKS_PER_LOOP && (task = tasks.poll()) != null)
+        {
+            pendingTasks.decrementAndGet();
+            recordLatency(System.nanoTime() - task.enqueueNanos);
+            try
+            {
+                //直接调用run方法，不启动新线程
+                task.runnable.run();
             }
+            catch (Throwable t)
+            {
+                log.warn("任务执行失败", t);
+            }
+            count++;
+            if ((count & (TIME_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() - deadline >= 0)
+            {
+                break;
+            }
+        }
+        if (count > 0)
+        {
+            executedTasks.addAndGet(count);
+        }
+        return count;
+    }
+
+    /**
+     * 记录任务等待时间
+     *
+     * @param latencyNanos 等待时间，单位纳秒
+     */
+    private void recordLatency(long latencyNanos)
+    {
+        totalTaskLatencyNanos.addAndGet(latencyNanos);
+        long max = maxTaskLatencyNanos.get();
+        while (latencyNanos > max && !maxTaskLatencyNanos.compareAndSet(max, latencyNanos))
+        {
+            max = maxTaskLatencyNanos.get();
+        }
+    }
+
+    /**
+     * 关闭通道，忽略异常
+     *
+     * @param socketChannel 套接字通道
+     */
+    private static void closeQuietly(SocketChannel socketChannel)
+    {
+        try
+        {
+            socketChannel.close();
+        }
+        catch (IOException ignored)
+        {
+        }
+    }
+
+    /**
+     * 得到索引
+     *
+     * @return int
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * 得到读缓冲池
+     *
+     * @return {@link ByteBufferPool}
+     */
+    public ByteBufferPool getBufferPool()
+    {
+        return bufferPool;
+    }
+
+    /**
+     * 得到当前连接数
+     *
+     * @return int
+     */
+    public int getActiveConnections()
+    {
+        return activeConnections.get();
+    }
+
+    /**
+     * 得到负载，当前连接数加上还没执行的任务数
+     *
+     * @return int
+     */
+    public int getLoad()
+    {
+        return activeConnections.get() + pendingTasks.get();
+    }
+
+    /**
+     * 得到队列中等待执行的任务数量
+     *
+     * @return int
+     */
+    public int getPendingTasks()
+    {
+        return pendingTasks.get();
+    }
+
+    /**
+     * 得到已执行的任务总数
+     *
+     * @return long
+     */
+    public long getExecutedTasks()
+    {
+        return executedTasks.get();
+    }
+
+    /**
+     * 得到任务平均等待时间，单位纳秒
+     *
+     * @return long
+     */
+    public long getAverageTaskLatencyNanos()
+    {
+        long executed = executedTasks.get();
+        return executed == 0 ? 0 : totalTaskLatencyNanos.get() / executed;
+    }
+
+    /**
+     * 得到任务最大等待时间，单位纳秒
+     *
+     * @return long
+     */
+    public long getMaxTaskLatencyNanos()
+    {
+        return maxTaskLatencyNanos.get();
+    }
+
+    /**
+     * 得到因为空闲被关闭的连接数
+     *
+     * @return long
+     */
+    public long getIdleClosedConnections()
+    {
+        return idleClosedConnections.get();
+    }
+
+    /**
+     * 得到selector重建次数
+     *
+     * @return long
+     */
+    public long getSelectorRebuilds()
+    {
+        return selectorRebuilds.get();
+    }
+
+    /**
+     * 得到最后一次重建selector的时间，毫秒，没有重建过时为0
+     *
+     * @return long
+     */
+    public long getLastSelectorRebuildMillis()
+    {
+        return lastSelectorRebuildMillis;
+    }
+
+    /**
+     * 任务，记录入队时间用于统计等待时间
+     */
+    private static final class Task
+    {
+        /**
+         * 任务
+         */
+        private final Runnable runnable;
+
+        /**
+         * 入队时间
+         */
+        private final long enqueueNanos;
+
+        /**
+         * 构造方法
+         *
+         * @param runnable     任务
+         * @param enqueueNanos 入队时间
+         */
+        private Task(Runnable runnable, long enqueueNanos)
+        {
+            this.runnable = runnable;
+            this.enqueueNanos = enqueueNanos;
         }
     }
 }
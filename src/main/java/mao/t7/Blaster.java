@@ -0,0 +1,147 @@
+package mao.t7;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t7
+ * Class(类名): Blaster
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:59
+ * Version(版本): 1.0
+ * Description(描述)： UDP压测，测量丢包率和吞吐的关系。在进程内启动{@link UdpIngestServer}，
+ * 所以能精确知道收到了多少。按给定的一组发送速率依次压测，每一档多个线程一起发，
+ * 每个线程一个socket（源端口不同，SO_REUSEPORT才能分到不同分片），结束后打印每一档的发送速率、
+ * 接收速率、丢包率、内核丢包数和每个分片收到的数量。
+ * -Dmao.t7.blaster.threads=发送线程数
+ * -Dmao.t7.blaster.messageSize=数据报大小
+ * -Dmao.t7.blaster.rates=每一档的总发送速率（数据报/秒），逗号分隔，0表示不限速
+ * -Dmao.t7.blaster.stepSeconds=每一档的时间
+ * 接收端的配置和{@link Server}一样，见{@link UdpServerConfig#fromSystemProperties()}
+ */
+
+public class Blaster
+{
+    /**
+     * 日志
+     */
+    private static final Logger log = LoggerFactory.getLogger(Blaster.class);
+
+    /**
+     * 每一档结束后等待接收线程把接收队列里剩下的数据报取完的时间
+     */
+    private static final long DRAIN_MILLIS = 500;
+
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        UdpServerConfig serverConfig = UdpServerConfig.fromSystemProperties();
+        int threads = Integer.getInteger("mao.t7.blaster.threads", Runtime.getRuntime().availableProcessors());
+        int messageSize = Integer.getInteger("mao.t7.blaster.messageSize", 100);
+        long stepNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger("mao.t7.blaster.stepSeconds", 5));
+        String[] rates = System.getProperty("mao.t7.blaster.rates", "50000,100000,200000,400000,0").split(",");
+
+        try (UdpIngestServer udpIngestServer = new UdpIngestServer(serverConfig, (datagram, sender) ->
+        {
+        }))
+        {
+            udpIngestServer.start();
+            log.info("接收端：{}，发送线程数：{}，数据报大小：{}", serverConfig, threads, messageSize);
+            InetSocketAddress target = new InetSocketAddress("127.0.0.1", serverConfig.getPort());
+            UdpReceiver[] receivers = udpIngestServer.getReceivers();
+            for (String rate : rates)
+            {
+                long targetRate = Long.parseLong(rate.trim());
+                long receivedBefore = udpIngestServer.getReceivedDatagrams();
+                long dropsBefore = udpIngestServer.getKernelDrops();
+                long[] shardBefore = new long[receivers.length];
+                for (int i = 0; i < receivers.length; i++)
+                {
+                    shardBefore[i] = receivers[i].getReceivedDatagrams();
+                }
+
+                long start = System.nanoTime();
+                long sent = blast(target, threads, messageSize, targetRate, stepNanos);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                Thread.sleep(DRAIN_MILLIS);
+
+                long received = udpIngestServer.getReceivedDatagrams() - receivedBefore;
+                StringBuilder shards = new StringBuilder();
+                for (int i = 0; i < receivers.length; i++)
+                {
+                    shards.append(i == 0 ? "" : ", ").append(receivers[i].getReceivedDatagrams() - shardBefore[i]);
+                }
+                if (log.isInfoEnabled())
+                {
+                    log.info(String.format("target=%s pps, sent=%.0f pps, received=%.0f pps, loss=%.2f%%, " +
+                                    "kernelDrops=%d, shards=[%s]",
+                            targetRate == 0 ? "unlimited" : String.valueOf(targetRate), sent / seconds,
+                            received / seconds, sent == 0 ? 0 : 100.0 * (sent - received) / sent,
+                            udpIngestServer.getKernelDrops() - dropsBefore, shards));
+                }
+            }
+        }
+    }
+
+    /**
+     * 多个线程一起发送一段时间
+     *
+     * @param target      目标地址
+     * @param threads     线程数
+     * @param messageSize 数据报大小
+     * @param targetRate  总发送速率，0表示不限速
+     * @param nanos       发送时间
+     * @return long 发送成功的数据报数量
+     * @throws InterruptedException InterruptedException
+     */
+    private static long blast(InetSocketAddress target, int threads, int messageSize, long targetRate, long nanos)
+            throws InterruptedException
+    {
+        AtomicLong sent = new AtomicLong();
+        double ratePerThread = targetRate / (double) threads;
+        Thread[] senders = new Thread[threads];
+        for (int i = 0; i < threads; i++)
+        {
+            senders[i] = new Thread(() -> sent.addAndGet(send(target, messageSize, ratePerThread, nanos)),
+                    "Blaster-" + i);
+            senders[i].start();
+        }
+        for (Thread sender : senders)
+        {
+            sender.join();
+        }
+        return sent.get();
+    }
+
+    /**
+     * 一个线程按给定速率发送，一条记录一个数据报
+     *
+     * @param target      目标地址
+     * @param messageSize 数据报大小
+     * @param rate        发送速率，0表示不限速
+     * @param nanos       发送时间
+     * @return long 发送成功的数据报数量
+     */
+    private static long send(InetSocketAddress target, int messageSize, double rate, long nanos)
+    {
+        try (UdpSender udpSender = new UdpSender(target, Math.max(messageSize, UdpSender.ETHERNET_MTU_PAYLOAD)))
+        {
+            udpSender.sendAtRate(ByteBuffer.allocateDirect(messageSize), false, rate, nanos);
+            return udpSender.getDatagramsSent();
+        }
+        catch (IOException e)
+        {
+            log.warn("发送失败", e);
+            return 0;
+        }
+    }
+}
@@ -3,10 +3,12 @@ package mao.t7;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.channels.DatagramChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Project name(项目名称)：Netty_Net_Programming
@@ -18,24 +20,132 @@ import java.nio.charset.StandardCharsets;
  * Date(创建日期)： 2023/3/15
  * Time(创建时间)： 13:41
  * Version(版本): 1.0
- * Description(描述)： UDP
+ * Description(描述)： UDP，发送见{@link UdpSender}。不设置mao.t7.client.seconds时只发送一个"hello"，
+ * 设置了就作为压测工具，多个线程按给定速率发送，每秒打印一次发送速率：
+ * -Dmao.t7.client.host=目标地址
+ * -Dmao.t7.client.port=目标端口
+ * -Dmao.t7.client.seconds=发送时间
+ * -Dmao.t7.client.threads=发送线程数
+ * -Dmao.t7.client.rate=总发送速率（记录/秒），0表示不限速
+ * -Dmao.t7.client.recordSize=一条记录的大小，以'\n'结尾
+ * -Dmao.t7.client.batch=true时把记录攒成不超过maxDatagramSize的数据报发送，false时一条记录一个数据报
+ * -Dmao.t7.client.maxDatagramSize=一个数据报的最大长度
+ * -Dmao.t7.client.sequenced=true时每条记录的前16个字节是十六进制序号，记录大小至少17，默认false
+ * 记录的格式是recordSize个字节的一行文本："aaaa...a\n"，开启序号时为"0000000000000001aa...a\n"
  */
 
 public class Client
 {
     private static final Logger log = LoggerFactory.getLogger(Client.class);
 
-    public static void main(String[] args)
+    public static void main(String[] args) throws IOException, InterruptedException
     {
-        try (DatagramChannel datagramChannel = DatagramChannel.open())
+        InetSocketAddress target = new InetSocketAddress(System.getProperty("mao.t7.client.host", "127.0.0.1"),
+                Integer.getInteger("mao.t7.client.port", 8080));
+        int seconds = Integer.getInteger("mao.t7.client.seconds", 0);
+        if (seconds <= 0)
         {
-            ByteBuffer buffer = StandardCharsets.UTF_8.encode("hello");
-            datagramChannel.send(buffer, new InetSocketAddress("127.0.0.1", 8080));
-            log.debug("消息已发送");
+            try (UdpSender udpSender = new UdpSender(target))
+            {
+                udpSender.sendDatagram(StandardCharsets.UTF_8.encode("hello"));
+                log.debug("消息已发送");
+            }
+            return;
         }
-        catch (Exception e)
+
+        int threads = Integer.getInteger("mao.t7.client.threads", 1);
+        long rate = Long.getLong("mao.t7.client.rate", 0);
+        int recordSize = Integer.getInteger("mao.t7.client.recordSize", 64);
+        boolean batch = Boolean.parseBoolean(System.getProperty("mao.t7.client.batch", "true"));
+        int maxDatagramSize = Integer.getInteger("mao.t7.client.maxDatagramSize", UdpSender.ETHERNET_MTU_PAYLOAD);
+        boolean sequenced = Boolean.getBoolean("mao.t7.client.sequenced");
+        if (sequenced && recordSize <= UdpSender.SEQUENCE_LENGTH)
         {
-            e.printStackTrace();
+            throw new IllegalArgumentException("开启序号时记录大小至少" + (UdpSender.SEQUENCE_LENGTH + 1) + "：" + recordSize);
         }
+        log.info("目标：{}，线程数：{}，速率：{}，记录大小：{}，批量：{}，数据报最大长度：{}，序号：{}", target, threads,
+                rate == 0 ? "不限速" : rate + "/s", recordSize, batch, maxDatagramSize, sequenced);
+
+        UdpSender[] senders = new UdpSender[threads];
+        Thread[] sendThreads = new Thread[threads];
+        long nanos = TimeUnit.SECONDS.toNanos(seconds);
+        for (int i = 0; i < threads; i++)
+        {
+            UdpSender udpSender = new UdpSender(target, maxDatagramSize);
+            senders[i] = udpSender;
+            sendThreads[i] = new Thread(() ->
+            {
+                ByteBuffer record = newRecord(recordSize);
+                try (udpSender)
+                {
+                    udpSender.sendAtRate(record, batch, rate / (double) threads, nanos, sequenced);
+                }
+                catch (IOException e)
+                {
+                    log.warn("发送失败", e);
+                }
+            }, "UdpSender-" + i);
+            sendThreads[i].start();
+        }
+
+        long start = System.nanoTime();
+        long[] last = new long[4];
+        for (Thread sendThread : sendThreads)
+        {
+            while (sendThread.isAlive())
+            {
+                sendThread.join(1000);
+                if (sendThread.isAlive())
+                {
+                    last = report(senders, last, 1);
+                }
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        log.info("总计：");
+        report(senders, new long[4], elapsedSeconds);
+    }
+
+    /**
+     * 打印和上一次相比的发送速率
+     *
+     * @param senders 所有发送器
+     * @param last    上一次的记录数、数据报数、字节数、失败数
+     * @param seconds 距离上一次的时间
+     * @return long[] 这一次的记录数、数据报数、字节数、失败数
+     */
+    private static long[] report(UdpSender[] senders, long[] last, double seconds)
+    {
+        long[] current = new long[4];
+        for (UdpSender sender : senders)
+        {
+            current[0] += sender.getRecordsSent();
+            current[1] += sender.getDatagramsSent();
+            current[2] += sender.getBytesSent();
+            current[3] += sender.getSendErrors();
+        }
+        if (log.isInfoEnabled())
+        {
+            log.info(String.format("%.0f records/s, %.0f datagrams/s, %.1f MB/s, sendErrors=%d",
+                    (current[0] - last[0]) / seconds, (current[1] - last[1]) / seconds,
+                    (current[2] - last[2]) / seconds / (1024 * 1024), current[3]));
+        }
+        return current;
+    }
+
+    /**
+     * 创建一条记录，以'\n'结尾，用直接内存
+     *
+     * @param recordSize 记录大小
+     * @return {@link ByteBuffer}
+     */
+    private static ByteBuffer newRecord(int recordSize)
+    {
+        byte[] bytes = new byte[recordSize];
+        Arrays.fill(bytes, (byte) 'a');
+        bytes[recordSize - 1] = '\n';
+        ByteBuffer record = ByteBuffer.allocateDirect(recordSize);
+        record.put(bytes).flip();
+        return record;
     }
 }
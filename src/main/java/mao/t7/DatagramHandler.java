@@ -0,0 +1,30 @@
+package mao.t7;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t7
+ * Interface(接口名): DatagramHandler
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:50
+ * Version(版本): 1.0
+ * Description(描述)： 处理收到的UDP数据报，在接收线程中调用
+ */
+
+@FunctionalInterface
+public interface DatagramHandler
+{
+    /**
+     * 收到一个完整的数据报，被截断的数据报不会交给这里。
+     * datagram是接收缓冲区，只在本次调用中有效，需要保留数据时自己拷贝
+     *
+     * @param datagram 数据报，position到limit是数据
+     * @param sender   发送方地址
+     */
+    void onDatagram(ByteBuffer datagram, SocketAddress sender);
+}
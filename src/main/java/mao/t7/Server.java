@@ -1,12 +1,11 @@
 package mao.t7;
 
-import mao.utils.ByteBufferUtil;
+import mao.utils.WireTap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
-import java.nio.channels.DatagramChannel;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Project name(项目名称)：Netty_Net_Programming
@@ -18,7 +17,10 @@ import java.nio.channels.DatagramChannel;
  * Date(创建日期)： 2023/3/15
  * Time(创建时间)： 13:40
  * Version(版本): 1.0
- * Description(描述)： UDP
+ * Description(描述)： UDP，接收见{@link UdpIngestServer}，主线程定时打印总的和每个分片的统计。
+ * 默认只计数，-Dmao.t7.dump=true 时抓取数据报的内容，由{@link WireTap}在后台线程打印，
+ * 按-Dmao.wiretap.sampleRate采样，队列满了丢弃，接收线程不会被打印拖慢，
+ * -Dmao.t7.statsIntervalSeconds=统计间隔，-Dmao.t7.shards=接收线程数
  */
 
 public class Server
@@ -28,22 +30,62 @@ public class Server
      */
     private static final Logger log = LoggerFactory.getLogger(Server.class);
 
-    public static void main(String[] args)
+    public static void main(String[] args) throws IOException, InterruptedException
     {
-        try (DatagramChannel datagramChannel = DatagramChannel.open())
+        UdpServerConfig config = UdpServerConfig.fromSystemProperties();
+        boolean dump = Boolean.getBoolean("mao.t7.dump");
+        long statsIntervalSeconds = Long.getLong("mao.t7.statsIntervalSeconds", 5);
+        //每个接收线程一个Tap，采样计数不需要同步
+        ThreadLocal<WireTap.Tap> taps = ThreadLocal.withInitial(() ->
+                WireTap.getDefault().newTap(Thread.currentThread().getName()));
+        DatagramHandler handler = (datagram, sender) ->
         {
-            //绑定端口
-            datagramChannel.bind(new InetSocketAddress(8080));
-            log.debug("服务已启动");
-            ByteBuffer buffer = ByteBuffer.allocate(16);
-            //等待接收数据
-            datagramChannel.receive(buffer);
-            buffer.flip();
-            ByteBufferUtil.debugAll(buffer);
-        }
-        catch (Exception e)
+            if (dump)
+            {
+                taps.get().capture(datagram, sender);
+            }
+        };
+        UdpIngestServer udpIngestServer = new UdpIngestServer(config, handler);
+        udpIngestServer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(udpIngestServer::close, "UdpIngestServer-shutdown"));
+        UdpReceiver[] receivers = udpIngestServer.getReceivers();
+        log.info("服务已启动，{}，实际SO_RCVBUF：{}", config, receivers[0].getActualReceiveBufferSize());
+
+        long lastDatagrams = 0;
+        long lastBytes = 0;
+        long lastReadEvents = 0;
+        long[] lastShardDatagrams = new long[receivers.length];
+        while (udpIngestServer.isRunning())
         {
-            e.printStackTrace();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(statsIntervalSeconds));
+            long datagrams = udpIngestServer.getReceivedDatagrams();
+            long bytes = udpIngestServer.getReceivedBytes();
+            long readEvents = udpIngestServer.getReadEvents();
+            if (datagrams == lastDatagrams)
+            {
+                continue;
+            }
+            StringBuilder shards = new StringBuilder();
+            for (int i = 0; i < receivers.length; i++)
+            {
+                long shardDatagrams = receivers[i].getReceivedDatagrams();
+                shards.append(i == 0 ? "" : ", ").append((shardDatagrams - lastShardDatagrams[i]) / statsIntervalSeconds);
+                lastShardDatagrams[i] = shardDatagrams;
+            }
+            //统计要按固定的小数位数格式化，不能用{}占位符，INFO没有开启时不格式化
+            if (log.isInfoEnabled())
+            {
+                log.info(String.format("%d datagrams/s, %.1f MB/s, %.1f datagrams/read, truncated=%d, " +
+                                "handlerErrors=%d, kernelDrops=%d, shards datagrams/s=[%s]",
+                        (datagrams - lastDatagrams) / statsIntervalSeconds,
+                        (bytes - lastBytes) / (double) statsIntervalSeconds / (1024 * 1024),
+                        (datagrams - lastDatagrams) / (double) Math.max(1, readEvents - lastReadEvents),
+                        udpIngestServer.getTruncatedDatagrams(), udpIngestServer.getHandlerErrors(),
+                        udpIngestServer.getKernelDrops(), shards));
+            }
+            lastDatagrams = datagrams;
+            lastBytes = bytes;
+            lastReadEvents = readEvents;
         }
     }
 }
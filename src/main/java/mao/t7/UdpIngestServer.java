@@ -0,0 +1,256 @@
+package mao.t7;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t7
+ * Class(类名): UdpIngestServer
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:58
+ * Version(版本): 1.0
+ * Description(描述)： 多线程UDP接收。shardCount个UdpReceiver用SO_REUSEPORT绑定同一个端口，
+ * 每个在自己的线程上，内核按四元组哈希把数据报分给它们，线程之间没有共享状态。
+ * 内核按源地址和端口分配，发送端只有一个socket时所有数据报都会到同一个分片。
+ * handler被所有分片共用，需要是线程安全的
+ */
+
+public class UdpIngestServer implements Closeable
+{
+    /**
+     * 日志
+     */
+    private static final Logger log = LoggerFactory.getLogger(UdpIngestServer.class);
+
+    /**
+     * 配置
+     */
+    private final UdpServerConfig config;
+
+    /**
+     * 每个分片的接收器
+     */
+    private final UdpReceiver[] receivers;
+
+    /**
+     * 每个分片的接收线程
+     */
+    private final Thread[] threads;
+
+    /**
+     * 构造方法，打开并绑定所有分片的通道，平台不支持SO_REUSEPORT时只用一个分片
+     *
+     * @param config  配置
+     * @param handler 数据报处理，所有分片共用
+     * @throws IOException IOException
+     */
+    public UdpIngestServer(UdpServerConfig config, DatagramHandler handler) throws IOException
+    {
+        if (config.getShardCount() > 1 && !isReusePortSupported())
+        {
+            log.warn("当前平台不支持SO_REUSEPORT，只使用一个接收线程");
+            config.setShardCount(1);
+        }
+        this.config = config;
+        this.receivers = new UdpReceiver[config.getShardCount()];
+        this.threads = new Thread[receivers.length];
+        try
+        {
+            for (int i = 0; i < receivers.length; i++)
+            {
+                receivers[i] = new UdpReceiver(config, handler);
+            }
+        }
+        catch (IOException e)
+        {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * 启动所有接收线程
+     */
+    public synchronized void start()
+    {
+        for (int i = 0; i < receivers.length; i++)
+        {
+            if (threads[i] == null)
+            {
+                threads[i] = new Thread(receivers[i], "UdpReceiver-" + i);
+                threads[i].start();
+            }
+        }
+    }
+
+    /**
+     * 停止所有接收线程并等待退出
+     */
+    @Override
+    public synchronized void close()
+    {
+        for (UdpReceiver receiver : receivers)
+        {
+            if (receiver != null)
+            {
+                receiver.close();
+            }
+        }
+        for (Thread thread : threads)
+        {
+            if (thread == null)
+            {
+                continue;
+            }
+            try
+            {
+                thread.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 是否还有接收线程在运行
+     *
+     * @return boolean
+     */
+    public boolean isRunning()
+    {
+        for (Thread thread : threads)
+        {
+            if (thread != null && thread.isAlive())
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public UdpServerConfig getConfig()
+    {
+        return config;
+    }
+
+    /**
+     * 每个分片的接收器，下标就是分片编号
+     *
+     * @return {@link UdpReceiver[]}
+     */
+    public UdpReceiver[] getReceivers()
+    {
+        return receivers;
+    }
+
+    /**
+     * 所有分片收到的数据报数量之和
+     *
+     * @return long
+     */
+    public long getReceivedDatagrams()
+    {
+        long sum = 0;
+        for (UdpReceiver receiver : receivers)
+        {
+            sum += receiver.getReceivedDatagrams();
+        }
+        return sum;
+    }
+
+    /**
+     * 所有分片交给handler的字节数之和
+     *
+     * @return long
+     */
+    public long getReceivedBytes()
+    {
+        long sum = 0;
+        for (UdpReceiver receiver : receivers)
+        {
+            sum += receiver.getReceivedBytes();
+        }
+        return sum;
+    }
+
+    /**
+     * 所有分片被截断的数据报数量之和
+     *
+     * @return long
+     */
+    public long getTruncatedDatagrams()
+    {
+        long sum = 0;
+        for (UdpReceiver receiver : receivers)
+        {
+            sum += receiver.getTruncatedDatagrams();
+        }
+        return sum;
+    }
+
+    /**
+     * 所有分片handler抛出异常的次数之和
+     *
+     * @return long
+     */
+    public long getHandlerErrors()
+    {
+        long sum = 0;
+        for (UdpReceiver receiver : receivers)
+        {
+            sum += receiver.getHandlerErrors();
+        }
+        return sum;
+    }
+
+    /**
+     * 所有分片读事件的次数之和
+     *
+     * @return long
+     */
+    public long getReadEvents()
+    {
+        long sum = 0;
+        for (UdpReceiver receiver : receivers)
+        {
+            sum += receiver.getReadEvents();
+        }
+        return sum;
+    }
+
+    /**
+     * 内核丢包数，所有分片绑定的是同一个端口，这里已经是所有分片的总和，不能按分片区分
+     *
+     * @return long，不支持时返回-1
+     */
+    public long getKernelDrops()
+    {
+        return UdpKernelStats.readDrops(config.getPort());
+    }
+
+    /**
+     * 当前平台的DatagramChannel是否支持SO_REUSEPORT
+     *
+     * @return boolean
+     * @throws IOException IOException
+     */
+    private static boolean isReusePortSupported() throws IOException
+    {
+        try (DatagramChannel datagramChannel = DatagramChannel.open())
+        {
+            return datagramChannel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+        }
+    }
+}
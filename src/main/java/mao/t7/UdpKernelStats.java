@@ -0,0 +1,123 @@
+package mao.t7;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t7
+ * Class(类名): UdpKernelStats
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:55
+ * Version(版本): 1.0
+ * Description(描述)： 从/proc/net/udp读取内核的丢包数。接收缓冲区满时内核直接丢弃数据报，
+ * 应用层看不到，只能从这里统计。只支持Linux，JDK拿不到socket的inode，
+ * 所以按端口统计本进程所有绑定了这个端口的socket
+ */
+
+public final class UdpKernelStats
+{
+    /**
+     * IPv4和IPv6的UDP socket表
+     */
+    private static final Path[] UDP_TABLES = {Paths.get("/proc/net/udp"), Paths.get("/proc/net/udp6")};
+
+    /**
+     * 本进程的文件描述符目录
+     */
+    private static final Path SELF_FD = Paths.get("/proc/self/fd");
+
+    /**
+     * 构造方法
+     */
+    private UdpKernelStats()
+    {
+    }
+
+    /**
+     * 本进程绑定在port上的所有UDP socket的内核丢包数之和
+     *
+     * @param port 本地端口
+     * @return long，不是Linux或者读取失败时返回-1
+     */
+    public static long readDrops(int port)
+    {
+        Set<String> inodes = socketInodes();
+        if (inodes == null)
+        {
+            return -1;
+        }
+        String portHex = String.format(":%04X", port);
+        long drops = 0;
+        boolean found = false;
+        for (Path table : UDP_TABLES)
+        {
+            List<String> lines;
+            try
+            {
+                lines = Files.readAllLines(table);
+            }
+            catch (IOException e)
+            {
+                continue;
+            }
+            //第一行是表头：sl local_address rem_address st tx_queue:rx_queue tr:tm->when retrnsmt uid timeout inode ref pointer drops
+            for (int i = 1; i < lines.size(); i++)
+            {
+                String[] fields = lines.get(i).trim().split("\\s+");
+                if (fields.length < 13 || !fields[1].endsWith(portHex) || !inodes.contains(fields[9]))
+                {
+                    continue;
+                }
+                drops += Long.parseLong(fields[12]);
+                found = true;
+            }
+        }
+        return found ? drops : -1;
+    }
+
+    /**
+     * 本进程打开的所有socket的inode
+     *
+     * @return {@link Set}，读取失败时返回null
+     */
+    private static Set<String> socketInodes()
+    {
+        Set<String> inodes = new HashSet<>();
+        try (DirectoryStream<Path> fds = Files.newDirectoryStream(SELF_FD))
+        {
+            for (Path fd : fds)
+            {
+                String target;
+                try
+                {
+                    target = Files.readSymbolicLink(fd).toString();
+                }
+                catch (IOException e)
+                {
+                    //遍历过程中关闭了的fd
+                    continue;
+                }
+                //socket:[12345]
+                if (target.startsWith("socket:["))
+                {
+                    inodes.add(target.substring(8, target.length() - 1));
+                }
+            }
+        }
+        catch (IOException | UnsupportedOperationException e)
+        {
+            return null;
+        }
+        return inodes;
+    }
+}
@@ -0,0 +1,305 @@
+package mao.t7;
+
+import mao.utils.ByteBufferPool;
+import mao.utils.OptimizedSelector;
+import mao.utils.SelectedKeyHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t7
+ * Class(类名): UdpReceiver
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:55
+ * Version(版本): 1.0
+ * Description(描述)： UDP接收循环。非阻塞的DatagramChannel注册在selector上，一次读事件循环调用receive
+ * 直到返回null（接收队列空了）或者达到maxDatagramsPerRead，每个数据报交给DatagramHandler。
+ * 接收缓冲区从池中分配，比最大数据报长度多1个字节：receive会静默截断放不下的部分，
+ * 收到的长度超过最大长度就说明被截断了，计数后丢弃。
+ * handler是同步调用的，所以一个接收线程只需要一个缓冲区，反复使用。
+ * 计数器每次读事件结束时累加一次，不是每个数据报一次原子操作
+ */
+
+public class UdpReceiver implements Runnable, Closeable
+{
+    /**
+     * 日志
+     */
+    private static final Logger log = LoggerFactory.getLogger(UdpReceiver.class);
+
+    /**
+     * 配置
+     */
+    private final UdpServerConfig config;
+
+    /**
+     * 数据报处理
+     */
+    private final DatagramHandler handler;
+
+    /**
+     * 通道
+     */
+    private final DatagramChannel datagramChannel;
+
+    /**
+     * 选择器
+     */
+    private final OptimizedSelector selector;
+
+    /**
+     * 缓冲池，接收线程独占
+     */
+    private final ByteBufferPool bufferPool;
+
+    /**
+     * 接收缓冲区
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * 接收缓冲区的limit，最大数据报长度 + 1
+     */
+    private final int receiveLimit;
+
+    /**
+     * 处理就绪的key，只注册了一个通道，就绪了就接收
+     */
+    private final SelectedKeyHandler selectedKeyHandler = selectionKey -> drain();
+
+    /**
+     * 是否在运行
+     */
+    private volatile boolean running = true;
+
+    /**
+     * 收到的数据报数量，包括被截断的
+     */
+    private final AtomicLong receivedDatagrams = new AtomicLong();
+
+    /**
+     * 交给handler的字节数
+     */
+    private final AtomicLong receivedBytes = new AtomicLong();
+
+    /**
+     * 被截断丢弃的数据报数量
+     */
+    private final AtomicLong truncatedDatagrams = new AtomicLong();
+
+    /**
+     * handler抛出异常的次数
+     */
+    private final AtomicLong handlerErrors = new AtomicLong();
+
+    /**
+     * 读事件的次数，receivedDatagrams / readEvents 就是平均每次读事件收到的数据报数量
+     */
+    private final AtomicLong readEvents = new AtomicLong();
+
+    /**
+     * 构造方法，打开通道并绑定端口
+     *
+     * @param config  配置
+     * @param handler 数据报处理
+     * @throws IOException IOException
+     */
+    public UdpReceiver(UdpServerConfig config, DatagramHandler handler) throws IOException
+    {
+        this.config = config;
+        this.handler = handler;
+        this.datagramChannel = DatagramChannel.open();
+        try
+        {
+            datagramChannel.configureBlocking(false);
+            datagramChannel.setOption(StandardSocketOptions.SO_RCVBUF, config.getReceiveBufferSize());
+            if (config.getShardCount() > 1)
+            {
+                datagramChannel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            }
+            datagramChannel.bind(new InetSocketAddress(config.getPort()));
+            this.selector = OptimizedSelector.open();
+            datagramChannel.register(selector.unwrap(), SelectionKey.OP_READ);
+        }
+        catch (IOException e)
+        {
+            datagramChannel.close();
+            throw e;
+        }
+        this.bufferPool = new ByteBufferPool(config.isDirectBuffer());
+        this.receiveLimit = config.getMaxDatagramSize() + 1;
+        this.buffer = bufferPool.allocate(receiveLimit);
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            while (running)
+            {
+                selector.select();
+                if (!running)
+                {
+                    break;
+                }
+                selector.processSelectedKeys(selectedKeyHandler);
+            }
+        }
+        catch (IOException | ClosedSelectorException e)
+        {
+            if (running)
+            {
+                log.warn("UDP接收异常退出", e);
+            }
+        }
+        finally
+        {
+            closeResources();
+        }
+    }
+
+    /**
+     * 接收直到接收队列为空或者达到maxDatagramsPerRead
+     *
+     * @throws IOException IOException
+     */
+    private void drain() throws IOException
+    {
+        int maxDatagrams = config.getMaxDatagramsPerRead();
+        int maxDatagramSize = config.getMaxDatagramSize();
+        long datagrams = 0;
+        long bytes = 0;
+        long truncated = 0;
+        long errors = 0;
+        while (datagrams < maxDatagrams)
+        {
+            buffer.clear().limit(receiveLimit);
+            SocketAddress sender = datagramChannel.receive(buffer);
+            if (sender == null)
+            {
+                break;
+            }
+            datagrams++;
+            int length = buffer.position();
+            if (length > maxDatagramSize)
+            {
+                truncated++;
+                continue;
+            }
+            bytes += length;
+            buffer.flip();
+            try
+            {
+                handler.onDatagram(buffer, sender);
+            }
+            catch (RuntimeException e)
+            {
+                //同一批只打印第一个异常，避免日志刷屏
+                if (errors++ == 0)
+                {
+                    log.warn("处理来自{}的数据报出现异常", sender, e);
+                }
+            }
+        }
+        readEvents.incrementAndGet();
+        receivedDatagrams.addAndGet(datagrams);
+        receivedBytes.addAndGet(bytes);
+        if (truncated != 0)
+        {
+            truncatedDatagrams.addAndGet(truncated);
+        }
+        if (errors != 0)
+        {
+            handlerErrors.addAndGet(errors);
+        }
+    }
+
+    /**
+     * 停止接收，接收线程退出时关闭通道
+     */
+    @Override
+    public void close()
+    {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * 关闭通道和选择器，归还缓冲区，在接收线程中调用
+     */
+    private void closeResources()
+    {
+        try
+        {
+            datagramChannel.close();
+            selector.close();
+        }
+        catch (IOException e)
+        {
+            log.warn("关闭UDP通道失败", e);
+        }
+        bufferPool.release(buffer);
+    }
+
+    /**
+     * 实际的SO_RCVBUF，受内核net.core.rmem_max限制，可能比设置的小
+     *
+     * @return int
+     * @throws IOException IOException
+     */
+    public int getActualReceiveBufferSize() throws IOException
+    {
+        return datagramChannel.getOption(StandardSocketOptions.SO_RCVBUF);
+    }
+
+    /**
+     * 内核丢包数，见{@link UdpKernelStats#readDrops(int)}
+     *
+     * @return long，不支持时返回-1
+     */
+    public long getKernelDrops()
+    {
+        return UdpKernelStats.readDrops(config.getPort());
+    }
+
+    public long getReceivedDatagrams()
+    {
+        return receivedDatagrams.get();
+    }
+
+    public long getReceivedBytes()
+    {
+        return receivedBytes.get();
+    }
+
+    public long getTruncatedDatagrams()
+    {
+        return truncatedDatagrams.get();
+    }
+
+    public long getHandlerErrors()
+    {
+        return handlerErrors.get();
+    }
+
+    public long getReadEvents()
+    {
+        return readEvents.get();
+    }
+}
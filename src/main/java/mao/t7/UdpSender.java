@@ -0,0 +1,348 @@
+package mao.t7;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t7
+ * Class(类名): UdpSender
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 00:20
+ * Version(版本): 1.0
+ * Description(描述)： UDP发送。DatagramChannel只connect一次，之后用write发送，
+ * 不用每次send都解析地址和做安全检查；批量缓冲区是复用的直接内存，不用每次拷贝到临时直接内存。
+ * sendRecord把小记录攒到一个数据报里，放不下时发出去，默认一个数据报不超过以太网MTU（1472字节），
+ * 避免IP分片。记录原样拼接，需要自带分隔符，比如statsd一行一个指标，每行以'\n'结尾。
+ * sendAtRate开启序号时，每条记录的前16个字节换成定长的小写十六进制序号（0-9a-f，不会出现'\n'），
+ * 其余字节（包括结尾的分隔符）不变，即"0000000000000001aaaa...\n"；不开启时记录原样发送。
+ * 不是线程安全的，每个线程一个；计数器只有发送线程写，其他线程可以读来统计速率
+ */
+
+public class UdpSender implements Closeable
+{
+    /**
+     * 以太网MTU下不分片的最大UDP负载，1500 - 20字节IP头 - 8字节UDP头
+     */
+    public static final int ETHERNET_MTU_PAYLOAD = 1472;
+
+    /**
+     * 序号的长度，定长16位十六进制
+     */
+    public static final int SEQUENCE_LENGTH = 16;
+
+    /**
+     * 十六进制字符
+     */
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 通道，已经connect到目标地址
+     */
+    private final DatagramChannel datagramChannel;
+
+    /**
+     * 批量缓冲区，容量就是一个数据报的最大长度
+     */
+    private final ByteBuffer batch;
+
+    /**
+     * 批量缓冲区中的记录数
+     */
+    private int batchedRecords;
+
+    /**
+     * 发出的数据报数量
+     */
+    private volatile long datagramsSent;
+
+    /**
+     * 发出的记录数量
+     */
+    private volatile long recordsSent;
+
+    /**
+     * 发出的字节数
+     */
+    private volatile long bytesSent;
+
+    /**
+     * 发送失败的数据报数量，connect之后对端端口不可达时write会抛出PortUnreachableException
+     */
+    private volatile long sendErrors;
+
+    /**
+     * 构造方法，一个数据报最大1472字节
+     *
+     * @param target 目标地址
+     * @throws IOException IOException
+     */
+    public UdpSender(InetSocketAddress target) throws IOException
+    {
+        this(target, ETHERNET_MTU_PAYLOAD);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param target          目标地址
+     * @param maxDatagramSize 一个数据报的最大长度
+     * @throws IOException IOException
+     */
+    public UdpSender(InetSocketAddress target, int maxDatagramSize) throws IOException
+    {
+        if (maxDatagramSize <= 0 || maxDatagramSize > UdpServerConfig.MAX_UDP_PAYLOAD)
+        {
+            throw new IllegalArgumentException("maxDatagramSize必须在1到" + UdpServerConfig.MAX_UDP_PAYLOAD +
+                    "之间：" + maxDatagramSize);
+        }
+        this.datagramChannel = DatagramChannel.open();
+        try
+        {
+            //发送缓冲区至少能放下一批，阻塞模式下放不下时write会等待
+            if (datagramChannel.getOption(StandardSocketOptions.SO_SNDBUF) < maxDatagramSize)
+            {
+                datagramChannel.setOption(StandardSocketOptions.SO_SNDBUF, maxDatagramSize);
+            }
+            datagramChannel.connect(target);
+        }
+        catch (IOException e)
+        {
+            datagramChannel.close();
+            throw e;
+        }
+        this.batch = ByteBuffer.allocateDirect(maxDatagramSize);
+    }
+
+    /**
+     * 添加一条记录，当前数据报放不下时先把已经攒的发出去。
+     * 读取record的position到limit，返回后record的position等于limit
+     *
+     * @param record 记录
+     * @throws IOException IOException
+     */
+    public void sendRecord(ByteBuffer record) throws IOException
+    {
+        int length = record.remaining();
+        if (length > batch.capacity())
+        {
+            throw new IllegalArgumentException("记录长度" + length + "超过了数据报的最大长度" + batch.capacity());
+        }
+        if (length > batch.remaining())
+        {
+            flush();
+        }
+        batch.put(record);
+        batchedRecords++;
+    }
+
+    /**
+     * 把已经攒的记录作为一个数据报发出去，没有记录时什么也不做
+     *
+     * @throws IOException IOException
+     */
+    public void flush() throws IOException
+    {
+        if (batchedRecords == 0)
+        {
+            return;
+        }
+        batch.flip();
+        int records = batchedRecords;
+        batchedRecords = 0;
+        try
+        {
+            write(batch, records);
+        }
+        finally
+        {
+            batch.clear();
+        }
+    }
+
+    /**
+     * 不经过批量缓冲区，直接把data作为一个数据报发出去。data最好是直接内存，
+     * 堆内存时JDK会拷贝到临时直接内存。返回后data的position等于limit
+     *
+     * @param data 数据报
+     * @throws IOException IOException
+     */
+    public void sendDatagram(ByteBuffer data) throws IOException
+    {
+        if (data.remaining() > batch.capacity())
+        {
+            throw new IllegalArgumentException("数据报长度" + data.remaining() + "超过了最大长度" + batch.capacity());
+        }
+        write(data, 1);
+    }
+
+    /**
+     * 按给定速率重复发送同一条记录，不写序号，记录原样发送
+     *
+     * @param record  记录，position到limit是内容，不会修改position和limit
+     * @param batched true时用sendRecord攒成大数据报发送，false时一条记录一个数据报
+     * @param rate    每秒发送的记录数，0表示不限速
+     * @param nanos   发送时间
+     * @return long 发送的记录数
+     * @throws IOException IOException
+     */
+    public long sendAtRate(ByteBuffer record, boolean batched, double rate, long nanos) throws IOException
+    {
+        return sendAtRate(record, batched, rate, nanos, false);
+    }
+
+    /**
+     * 按给定速率重复发送同一条记录，用于压测。落后了就连续发送追上，超前了就暂停一会。
+     * sequenced为true时前16个字节写入十六进制序号，记录至少要比序号多一个字节，留给结尾的分隔符
+     *
+     * @param record    记录，position到limit是内容，不会修改position和limit，开启序号时内容会被修改
+     * @param batched   true时用sendRecord攒成大数据报发送，false时一条记录一个数据报
+     * @param rate      每秒发送的记录数，0表示不限速
+     * @param nanos     发送时间
+     * @param sequenced 是否写入序号
+     * @return long 发送的记录数
+     * @throws IOException IOException
+     */
+    public long sendAtRate(ByteBuffer record, boolean batched, double rate, long nanos, boolean sequenced)
+            throws IOException
+    {
+        if (sequenced && record.remaining() <= SEQUENCE_LENGTH)
+        {
+            throw new IllegalArgumentException("记录长度" + record.remaining() + "放不下" + SEQUENCE_LENGTH
+                    + "位序号和分隔符");
+        }
+        long records = 0;
+        int position = record.position();
+        int limit = record.limit();
+        long start = System.nanoTime();
+        long now = start;
+        while (now - start < nanos)
+        {
+            long due = rate == 0 ? records + 1 : (long) ((now - start) * rate / 1e9);
+            if (records >= due)
+            {
+                //超前了，先把攒的发出去，避免低速率时记录在缓冲区里停留太久
+                flush();
+                LockSupport.parkNanos(50_000);
+            }
+            else
+            {
+                if (sequenced)
+                {
+                    putSequence(record, position, records);
+                }
+                record.limit(limit).position(position);
+                if (batched)
+                {
+                    sendRecord(record);
+                }
+                else
+                {
+                    sendDatagram(record);
+                }
+                records++;
+            }
+            now = System.nanoTime();
+        }
+        flush();
+        record.limit(limit).position(position);
+        return records;
+    }
+
+    /**
+     * 在index处写入定长16位的十六进制序号，不创建字符串
+     *
+     * @param record   记录
+     * @param index    写入位置
+     * @param sequence 序号
+     */
+    private static void putSequence(ByteBuffer record, int index, long sequence)
+    {
+        for (int i = SEQUENCE_LENGTH - 1; i >= 0; i--)
+        {
+            record.put(index + i, HEX_DIGITS[(int) (sequence & 0xF)]);
+            sequence >>>= 4;
+        }
+    }
+
+    /**
+     * 发送一个数据报并计数，对端端口不可达时只计数不抛出异常
+     *
+     * @param data    数据报
+     * @param records 包含的记录数
+     * @throws IOException IOException
+     */
+    private void write(ByteBuffer data, int records) throws IOException
+    {
+        try
+        {
+            bytesSent += datagramChannel.write(data);
+            datagramsSent++;
+            recordsSent += records;
+        }
+        catch (PortUnreachableException e)
+        {
+            //上一个数据报触发的ICMP端口不可达，这个数据报没有发出去
+            sendErrors++;
+            data.position(data.limit());
+        }
+    }
+
+    /**
+     * 发送剩下的记录并关闭通道
+     *
+     * @throws IOException IOException
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            datagramChannel.close();
+        }
+    }
+
+    /**
+     * 一个数据报的最大长度
+     *
+     * @return int
+     */
+    public int getMaxDatagramSize()
+    {
+        return batch.capacity();
+    }
+
+    public long getDatagramsSent()
+    {
+        return datagramsSent;
+    }
+
+    public long getRecordsSent()
+    {
+        return recordsSent;
+    }
+
+    public long getBytesSent()
+    {
+        return bytesSent;
+    }
+
+    public long getSendErrors()
+    {
+        return sendErrors;
+    }
+}
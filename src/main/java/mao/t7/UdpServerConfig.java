@@ -0,0 +1,167 @@
+package mao.t7;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t7
+ * Class(类名): UdpServerConfig
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:50
+ * Version(版本): 1.0
+ * Description(描述)： UDP接收的配置
+ */
+
+public class UdpServerConfig
+{
+    /**
+     * IPv4下UDP数据报的最大长度，65535 - 20字节IP头 - 8字节UDP头
+     */
+    public static final int MAX_UDP_PAYLOAD = 65507;
+
+    /**
+     * 端口
+     */
+    private int port = 8080;
+
+    /**
+     * 允许的最大数据报长度，超过的算截断，丢弃
+     */
+    private int maxDatagramSize = MAX_UDP_PAYLOAD;
+
+    /**
+     * socket接收缓冲区大小（SO_RCVBUF），突发流量时接收线程来不及处理的数据报在这里排队，
+     * 满了内核就会丢包。实际大小受内核net.core.rmem_max限制
+     */
+    private int receiveBufferSize = 4 * 1024 * 1024;
+
+    /**
+     * 一次读事件最多接收的数据报数量，达到后回到select，避免一直读检查不到关闭
+     */
+    private int maxDatagramsPerRead = 4096;
+
+    /**
+     * 接收缓冲区是否使用直接内存，堆内存时JDK内部还要从临时直接内存拷贝一次
+     */
+    private boolean directBuffer = true;
+
+    /**
+     * 接收线程数，大于1时每个线程一个DatagramChannel，都用SO_REUSEPORT绑定同一个端口，
+     * 由内核按源地址和端口的哈希分配数据报，同一个发送端的数据报总是到同一个线程
+     */
+    private int shardCount = 1;
+
+    /**
+     * 从系统属性读取配置，没有设置的使用默认值：
+     * -Dmao.t7.port=端口
+     * -Dmao.t7.maxDatagramSize=最大数据报长度
+     * -Dmao.t7.receiveBufferSize=SO_RCVBUF
+     * -Dmao.t7.maxDatagramsPerRead=一次读事件最多接收的数据报数量
+     * -Dmao.t7.directBuffer=true|false
+     * -Dmao.t7.shards=接收线程数
+     *
+     * @return {@link UdpServerConfig}
+     */
+    public static UdpServerConfig fromSystemProperties()
+    {
+        UdpServerConfig config = new UdpServerConfig();
+        config.setPort(Integer.getInteger("mao.t7.port", config.getPort()));
+        config.setMaxDatagramSize(Integer.getInteger("mao.t7.maxDatagramSize", config.getMaxDatagramSize()));
+        config.setReceiveBufferSize(Integer.getInteger("mao.t7.receiveBufferSize", config.getReceiveBufferSize()));
+        config.setMaxDatagramsPerRead(Integer.getInteger("mao.t7.maxDatagramsPerRead",
+                config.getMaxDatagramsPerRead()));
+        config.setDirectBuffer(Boolean.parseBoolean(System.getProperty("mao.t7.directBuffer", "true")));
+        config.setShardCount(Integer.getInteger("mao.t7.shards", config.getShardCount()));
+        return config;
+    }
+
+    public int getPort()
+    {
+        return port;
+    }
+
+    public void setPort(int port)
+    {
+        this.port = port;
+    }
+
+    public int getMaxDatagramSize()
+    {
+        return maxDatagramSize;
+    }
+
+    public void setMaxDatagramSize(int maxDatagramSize)
+    {
+        if (maxDatagramSize <= 0 || maxDatagramSize > MAX_UDP_PAYLOAD)
+        {
+            throw new IllegalArgumentException("maxDatagramSize必须在1到" + MAX_UDP_PAYLOAD + "之间：" + maxDatagramSize);
+        }
+        this.maxDatagramSize = maxDatagramSize;
+    }
+
+    public int getReceiveBufferSize()
+    {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize)
+    {
+        if (receiveBufferSize <= 0)
+        {
+            throw new IllegalArgumentException("receiveBufferSize必须大于0：" + receiveBufferSize);
+        }
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    public int getMaxDatagramsPerRead()
+    {
+        return maxDatagramsPerRead;
+    }
+
+    public void setMaxDatagramsPerRead(int maxDatagramsPerRead)
+    {
+        if (maxDatagramsPerRead <= 0)
+        {
+            throw new IllegalArgumentException("maxDatagramsPerRead必须大于0：" + maxDatagramsPerRead);
+        }
+        this.maxDatagramsPerRead = maxDatagramsPerRead;
+    }
+
+    public boolean isDirectBuffer()
+    {
+        return directBuffer;
+    }
+
+    public void setDirectBuffer(boolean directBuffer)
+    {
+        this.directBuffer = directBuffer;
+    }
+
+    public int getShardCount()
+    {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount)
+    {
+        if (shardCount <= 0)
+        {
+            throw new IllegalArgumentException("shardCount必须大于0：" + shardCount);
+        }
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "UdpServerConfig{" +
+                "port=" + port +
+                ", maxDatagramSize=" + maxDatagramSize +
+                ", receiveBufferSize=" + receiveBufferSize +
+                ", maxDatagramsPerRead=" + maxDatagramsPerRead +
+                ", directBuffer=" + directBuffer +
+                ", shardCount=" + shardCount +
+                '}';
+    }
+}
@@ -0,0 +1,130 @@
+package mao.t9;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.TooLongFrameException;
+import mao.utils.MessageHandler;
+import mao.utils.MessageWriter;
+import mao.utils.WireTap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t9
+ * Class(类名): MessageHandlerAdapter
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 22:55
+ * Version(版本): 1.0
+ * Description(描述)： 把MessageHandler接到Netty的pipeline上，LineBasedFrameDecoder解码出的每一行
+ * 以ByteBuffer视图交给业务处理，不拷贝。回写的数据从池中分配ByteBuf，
+ * 和t6一样一次读事件的所有回复在channelReadComplete时一起flush。
+ * 每个连接一个实例，只在连接所在的EventLoop中使用
+ */
+
+public class MessageHandlerAdapter extends ChannelInboundHandlerAdapter implements MessageWriter
+{
+    /**
+     * 日志
+     */
+    private static final Logger log = LoggerFactory.getLogger(MessageHandlerAdapter.class);
+
+    /**
+     * 业务处理，所有连接共用
+     */
+    private final MessageHandler messageHandler;
+
+    /**
+     * 当前连接的上下文
+     */
+    private ChannelHandlerContext ctx;
+
+    /**
+     * 当前连接的报文抓取
+     */
+    private WireTap.Tap tap;
+
+    /**
+     * 构造方法
+     *
+     * @param messageHandler 业务处理
+     */
+    public MessageHandlerAdapter(MessageHandler messageHandler)
+    {
+        this.messageHandler = messageHandler;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx)
+    {
+        this.ctx = ctx;
+        this.tap = WireTap.getDefault().newTap(ctx.channel());
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg)
+    {
+        ByteBuf frame = (ByteBuf) msg;
+        try
+        {
+            //池化的直接内存，nioBuffer()是同一块内存的视图
+            ByteBuffer message = frame.nioBuffer();
+            tap.onFrame(message);
+            messageHandler.onMessage(message, this);
+        }
+        finally
+        {
+            frame.release();
+        }
+    }
+
+    @Override
+    public void write(ByteBuffer data)
+    {
+        ByteBuf byteBuf = ctx.alloc().ioBuffer(data.remaining());
+        byteBuf.writeBytes(data);
+        //不关心每次写的结果，用voidPromise不创建Future
+        ctx.write(byteBuf, ctx.voidPromise());
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx)
+    {
+        ctx.flush();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx)
+    {
+        //和t6一样，写队列超过高水位时暂停读，降到低水位以下时恢复
+        ctx.channel().config().setAutoRead(ctx.channel().isWritable());
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause)
+    {
+        if (cause instanceof TooLongFrameException)
+        {
+            //消息太长，拒绝这个连接
+            log.warn("关闭连接：{}，{}", ctx.channel(), cause.getMessage());
+        }
+        else if (cause instanceof IOException)
+        {
+            //对端重置连接之类的，属于正常情况，不打印异常栈
+            log.debug("连接异常，关闭连接：{}，{}", ctx.channel(), cause);
+        }
+        else
+        {
+            log.warn("关闭连接：{}", ctx.channel(), cause);
+        }
+        ctx.close();
+    }
+}
@@ -0,0 +1,314 @@
+package mao.t9;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioChannelOption;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t9
+ * Class(类名): NettyTransport
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:30
+ * Version(版本): 1.0
+ * Description(描述)： 选出来的传输层。AUTO时Linux上native epoll可用就用epoll，否则退回nio。
+ * 负责创建EventLoopGroup、选择ServerChannel类型、把TransportConfig里的选项设置到ServerBootstrap上，
+ * 并生成启动报告：用了哪个传输层、为什么，哪些选项生效了、哪些被忽略了
+ */
+
+public final class NettyTransport
+{
+    /**
+     * 内核TCP Fast Open开关，第1位是客户端，第2位是服务端
+     */
+    private static final Path TCP_FASTOPEN_SYSCTL = Paths.get("/proc/sys/net/ipv4/tcp_fastopen");
+
+    /**
+     * 实际使用的传输层，EPOLL或者NIO
+     */
+    private final TransportType transportType;
+
+    /**
+     * 选择这个传输层的原因
+     */
+    private final String reason;
+
+    /**
+     * 配置
+     */
+    private final TransportConfig config;
+
+    /**
+     * 是否使用SO_REUSEPORT，平台不支持时为false
+     */
+    private final boolean reusePort;
+
+    /**
+     * 启动报告中的选项说明
+     */
+    private final List<String> notes = new ArrayList<>();
+
+    /**
+     * 构造方法
+     *
+     * @param transportType 实际使用的传输层
+     * @param reason        原因
+     * @param config        配置
+     */
+    private NettyTransport(TransportType transportType, String reason, TransportConfig config)
+    {
+        this.transportType = transportType;
+        this.reason = reason;
+        this.config = config;
+        this.reusePort = config.isReusePort() && (transportType == TransportType.EPOLL || isNioReusePortSupported());
+        describeOptions();
+    }
+
+    /**
+     * 根据配置选择传输层，指定了epoll但是不可用时退回nio
+     *
+     * @param config 配置
+     * @return {@link NettyTransport}
+     */
+    public static NettyTransport select(TransportConfig config)
+    {
+        switch (config.getTransportType())
+        {
+            case NIO:
+                return new NettyTransport(TransportType.NIO, "配置指定了nio", config);
+            case EPOLL:
+                if (Epoll.isAvailable())
+                {
+                    return new NettyTransport(TransportType.EPOLL, "配置指定了epoll", config);
+                }
+                return new NettyTransport(TransportType.NIO,
+                        "配置指定了epoll，但是epoll不可用，退回nio：" + Epoll.unavailabilityCause(), config);
+            default:
+                String os = System.getProperty("os.name");
+                if (!os.toLowerCase().contains("linux"))
+                {
+                    return new NettyTransport(TransportType.NIO, "自动选择，当前系统是" + os + "，不支持epoll", config);
+                }
+                if (Epoll.isAvailable())
+                {
+                    return new NettyTransport(TransportType.EPOLL, "自动选择，Linux上native epoll可用", config);
+                }
+                return new NettyTransport(TransportType.NIO,
+                        "自动选择，native epoll加载失败，退回nio：" + Epoll.unavailabilityCause(), config);
+        }
+    }
+
+    /**
+     * 创建EventLoopGroup
+     *
+     * @param threads 线程数
+     * @return {@link EventLoopGroup}
+     */
+    public EventLoopGroup newEventLoopGroup(int threads)
+    {
+        return transportType == TransportType.EPOLL ? new EpollEventLoopGroup(threads) : new NioEventLoopGroup(threads);
+    }
+
+    /**
+     * ServerChannel的类型
+     *
+     * @return {@link Class}
+     */
+    public Class<? extends ServerChannel> serverChannelClass()
+    {
+        return transportType == TransportType.EPOLL ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+
+    /**
+     * 需要bind的次数，SO_REUSEPORT模式下每个工作线程一个ServerSocket，否则只有一个。
+     * Accept线程数和它相等，每个ServerSocket在自己的Accept线程上
+     *
+     * @return int
+     */
+    public int bindCount()
+    {
+        return reusePort ? config.getWorkerCount() : 1;
+    }
+
+    /**
+     * 把配置中的选项设置到ServerBootstrap上，当前传输层不支持的选项不设置
+     *
+     * @param serverBootstrap ServerBootstrap
+     */
+    public void configure(ServerBootstrap serverBootstrap)
+    {
+        if (transportType == TransportType.EPOLL)
+        {
+            EpollMode epollMode = config.isEdgeTriggered() ? EpollMode.EDGE_TRIGGERED : EpollMode.LEVEL_TRIGGERED;
+            serverBootstrap.option(EpollChannelOption.EPOLL_MODE, epollMode)
+                    .childOption(EpollChannelOption.EPOLL_MODE, epollMode);
+            if (config.getTcpFastOpen() > 0)
+            {
+                serverBootstrap.option(EpollChannelOption.TCP_FASTOPEN, config.getTcpFastOpen());
+            }
+            if (reusePort)
+            {
+                serverBootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+            }
+            if (config.isTcpCork())
+            {
+                serverBootstrap.childOption(EpollChannelOption.TCP_CORK, true);
+            }
+            if (config.isTcpQuickAck())
+            {
+                //连接建立时先设置一次，之后由QuickAckHandler在每次读完后重新设置
+                serverBootstrap.childOption(EpollChannelOption.TCP_QUICKACK, true);
+            }
+        }
+        else if (reusePort)
+        {
+            ChannelOption<Boolean> soReusePort = NioChannelOption.of(StandardSocketOptions.SO_REUSEPORT);
+            serverBootstrap.option(soReusePort, true);
+        }
+    }
+
+    /**
+     * 启动报告
+     *
+     * @return {@link String}
+     */
+    public String report()
+    {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("传输层：").append(transportType.name().toLowerCase())
+                .append("，原因：").append(reason)
+                .append("，工作线程数：").append(config.getWorkerCount())
+                .append("，ServerSocket数量：").append(bindCount());
+        for (String note : notes)
+        {
+            stringBuilder.append("\n  ").append(note);
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * 是否需要在pipeline中加入{@link QuickAckHandler}，只有epoll并且开启了TCP_QUICKACK时需要
+     *
+     * @return boolean
+     */
+    public boolean isQuickAckEnabled()
+    {
+        return transportType == TransportType.EPOLL && config.isTcpQuickAck();
+    }
+
+    public TransportType getTransportType()
+    {
+        return transportType;
+    }
+
+    public String getReason()
+    {
+        return reason;
+    }
+
+    public boolean isReusePort()
+    {
+        return reusePort;
+    }
+
+    /**
+     * 生成每个选项的说明
+     */
+    private void describeOptions()
+    {
+        boolean epoll = transportType == TransportType.EPOLL;
+        if (epoll)
+        {
+            notes.add("epoll模式：" + (config.isEdgeTriggered() ? "边缘触发" : "水平触发"));
+        }
+        else if (!config.isEdgeTriggered())
+        {
+            notes.add("水平触发：nio只有水平触发，忽略");
+        }
+        if (config.getTcpFastOpen() > 0)
+        {
+            if (!epoll)
+            {
+                notes.add("TCP_FASTOPEN：nio不支持，忽略");
+            }
+            //读取失败时是-1，第2位是1，按已开启处理
+            else if ((readTcpFastOpenSysctl() & 2) == 0)
+            {
+                notes.add("TCP_FASTOPEN=" + config.getTcpFastOpen() + "：已设置，但内核没有开启服务端TFO（"
+                        + TCP_FASTOPEN_SYSCTL + "第2位），不会生效");
+            }
+            else
+            {
+                notes.add("TCP_FASTOPEN=" + config.getTcpFastOpen() + "：已开启");
+            }
+        }
+        if (config.isReusePort())
+        {
+            notes.add("SO_REUSEPORT：" + (reusePort ? "已开启" : "当前平台不支持，使用单个ServerSocket"));
+        }
+        if (config.isTcpCork())
+        {
+            notes.add("TCP_CORK：" + (epoll ? "已开启" : "nio不支持，忽略"));
+        }
+        if (config.isTcpQuickAck())
+        {
+            notes.add("TCP_QUICKACK：" + (epoll ? "已开启，内核不会保持这个选项，每次读完后重新设置" : "nio不支持，忽略"));
+        }
+    }
+
+    /**
+     * 读取内核的TCP Fast Open开关
+     *
+     * @return int，读取失败时返回-1
+     */
+    private static int readTcpFastOpenSysctl()
+    {
+        try
+        {
+            return Integer.parseInt(new String(Files.readAllBytes(TCP_FASTOPEN_SYSCTL), StandardCharsets.US_ASCII).trim());
+        }
+        catch (IOException | NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * 当前平台的nio是否支持SO_REUSEPORT
+     *
+     * @return boolean
+     */
+    private static boolean isNioReusePortSupported()
+    {
+        try (ServerSocketChannel serverSocketChannel = ServerSocketChannel.open())
+        {
+            return serverSocketChannel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package mao.t9;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.epoll.EpollSocketChannel;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t9
+ * Class(类名): QuickAckHandler
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:50
+ * Version(版本): 1.0
+ * Description(描述)： Linux的TCP_QUICKACK不是持久的，内核发出一个ACK之后可能又回到延迟确认，
+ * 只在建立连接时设置一次只影响下一个ACK。这里每次读完（channelReadComplete）重新设置一次，
+ * 每批读多一次setsockopt。没有状态，所有连接共用一个，只用于epoll传输层
+ */
+
+@ChannelHandler.Sharable
+public final class QuickAckHandler extends ChannelInboundHandlerAdapter
+{
+    /**
+     * 共享实例
+     */
+    public static final QuickAckHandler INSTANCE = new QuickAckHandler();
+
+    /**
+     * 构造方法
+     */
+    private QuickAckHandler()
+    {
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx)
+    {
+        ((EpollSocketChannel) ctx.channel()).config().setTcpQuickAck(true);
+        ctx.fireChannelReadComplete();
+    }
+}
@@ -0,0 +1,109 @@
+package mao.t9;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import mao.utils.EchoMessageHandler;
+import mao.utils.FrameDecoder;
+import mao.utils.MessageHandler;
+import mao.utils.OutboundBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t9
+ * Class(类名): Server
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:00
+ * Version(版本): 1.0
+ * Description(描述)： 用Netty实现和t6一样的服务：按行解码，业务处理用同一个MessageHandler（默认回显），
+ * 写队列的高低水位也和t6一样。
+ * 传输层默认自动选择，Linux上用native epoll，否则用nio，启动时打印选择结果和原因，配置见{@link TransportConfig}
+ */
+
+public class Server
+{
+    /**
+     * 日志
+     */
+    private static final Logger log = LoggerFactory.getLogger(Server.class);
+
+    /**
+     * 一条消息的最大长度
+     */
+    private static final int MAX_FRAME_LENGTH = FrameDecoder.DEFAULT_MAX_FRAME_LENGTH;
+
+    /**
+     * main方法
+     *
+     * @param args 参数
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        TransportConfig config = TransportConfig.fromSystemProperties();
+        NettyTransport transport = NettyTransport.select(config);
+        if (config.getTransportType() == TransportType.EPOLL && transport.getTransportType() != TransportType.EPOLL)
+        {
+            log.warn(transport.getReason());
+        }
+        log.info(transport.report());
+        int bindCount = transport.bindCount();
+        EventLoopGroup bossGroup = transport.newEventLoopGroup(bindCount);
+        EventLoopGroup workerGroup = transport.newEventLoopGroup(config.getWorkerCount());
+        //业务处理，和t6、t8共用同一个实现
+        MessageHandler messageHandler = new EchoMessageHandler();
+        try
+        {
+            ServerBootstrap serverBootstrap = new ServerBootstrap()
+                    .group(bossGroup, workerGroup)
+                    .channel(transport.serverChannelClass())
+                    .option(ChannelOption.SO_BACKLOG, 1024)
+                    .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                    .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                            new WriteBufferWaterMark(OutboundBuffer.DEFAULT_LOW_WATER_MARK,
+                                    OutboundBuffer.DEFAULT_HIGH_WATER_MARK))
+                    .childHandler(new ChannelInitializer<SocketChannel>()
+                    {
+                        @Override
+                        protected void initChannel(SocketChannel ch)
+                        {
+                            //TCP_QUICKACK每次读完都要重新设置，放在最前面
+                            if (transport.isQuickAckEnabled())
+                            {
+                                ch.pipeline().addLast(QuickAckHandler.INSTANCE);
+                            }
+                            //保留'\n'，和t6的LineFrameDecoder一致；超长立即失败
+                            ch.pipeline().addLast(new LineBasedFrameDecoder(MAX_FRAME_LENGTH, false, true),
+                                    new MessageHandlerAdapter(messageHandler));
+                        }
+                    });
+            transport.configure(serverBootstrap);
+            //SO_REUSEPORT模式下bind多次，每个ServerSocket注册到bossGroup中不同的线程上
+            Channel[] serverChannels = new Channel[bindCount];
+            for (int i = 0; i < bindCount; i++)
+            {
+                serverChannels[i] = serverBootstrap.bind(8080).sync().channel();
+            }
+            log.debug("服务启动，监听端口8080");
+            for (Channel serverChannel : serverChannels)
+            {
+                serverChannel.closeFuture().sync();
+            }
+        }
+        finally
+        {
+            bossGroup.shutdownGracefully();
+            workerGroup.shutdownGracefully();
+        }
+    }
+}
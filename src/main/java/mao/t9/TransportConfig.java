@@ -0,0 +1,171 @@
+package mao.t9;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t9
+ * Class(类名): TransportConfig
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:20
+ * Version(版本): 1.0
+ * Description(描述)： t9传输层的配置。除了workerCount和reusePort，其余选项只有epoll支持，
+ * 使用nio时会被忽略，启动报告中会列出来
+ */
+
+public class TransportConfig
+{
+    /**
+     * 传输层类型
+     */
+    private TransportType transportType = TransportType.AUTO;
+
+    /**
+     * 工作线程数
+     */
+    private int workerCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * epoll是否使用边缘触发，Netty默认就是边缘触发，水平触发时每次epoll_wait都会返回还没读完的fd
+     */
+    private boolean edgeTriggered = true;
+
+    /**
+     * TCP_FASTOPEN的队列长度，0表示不开启。需要内核net.ipv4.tcp_fastopen开启服务端（第2位）才生效
+     */
+    private int tcpFastOpen = 0;
+
+    /**
+     * 是否使用SO_REUSEPORT，开启后监听workerCount个ServerSocket，由内核分配连接，每个Accept线程一个
+     */
+    private boolean reusePort = false;
+
+    /**
+     * 是否开启TCP_CORK，开启后不满一个MSS的数据最多会被内核攒200ms，适合大块响应，不适合按行回显
+     */
+    private boolean tcpCork = false;
+
+    /**
+     * 是否开启TCP_QUICKACK，内核会在一段时间后自动退出quickack模式，所以epoll下每次读完都会重新设置
+     */
+    private boolean tcpQuickAck = false;
+
+    /**
+     * 从系统属性读取配置，没有设置的使用默认值：
+     * -Dmao.t9.transport=auto|epoll|nio
+     * -Dmao.t9.workers=工作线程数
+     * -Dmao.t9.edgeTriggered=true|false
+     * -Dmao.t9.tcpFastOpen=TFO队列长度
+     * -Dmao.t9.reusePort=true|false
+     * -Dmao.t9.tcpCork=true|false
+     * -Dmao.t9.tcpQuickAck=true|false
+     *
+     * @return {@link TransportConfig}
+     */
+    public static TransportConfig fromSystemProperties()
+    {
+        TransportConfig config = new TransportConfig();
+        config.setTransportType(TransportType.valueOf(
+                System.getProperty("mao.t9.transport", "auto").toUpperCase()));
+        config.setWorkerCount(Integer.getInteger("mao.t9.workers", config.getWorkerCount()));
+        config.setEdgeTriggered(Boolean.parseBoolean(System.getProperty("mao.t9.edgeTriggered", "true")));
+        config.setTcpFastOpen(Integer.getInteger("mao.t9.tcpFastOpen", config.getTcpFastOpen()));
+        config.setReusePort(Boolean.getBoolean("mao.t9.reusePort"));
+        config.setTcpCork(Boolean.getBoolean("mao.t9.tcpCork"));
+        config.setTcpQuickAck(Boolean.getBoolean("mao.t9.tcpQuickAck"));
+        return config;
+    }
+
+    public TransportType getTransportType()
+    {
+        return transportType;
+    }
+
+    public void setTransportType(TransportType transportType)
+    {
+        this.transportType = transportType;
+    }
+
+    public int getWorkerCount()
+    {
+        return workerCount;
+    }
+
+    public void setWorkerCount(int workerCount)
+    {
+        if (workerCount <= 0)
+        {
+            throw new IllegalArgumentException("workerCount必须大于0：" + workerCount);
+        }
+        this.workerCount = workerCount;
+    }
+
+    public boolean isEdgeTriggered()
+    {
+        return edgeTriggered;
+    }
+
+    public void setEdgeTriggered(boolean edgeTriggered)
+    {
+        this.edgeTriggered = edgeTriggered;
+    }
+
+    public int getTcpFastOpen()
+    {
+        return tcpFastOpen;
+    }
+
+    public void setTcpFastOpen(int tcpFastOpen)
+    {
+        if (tcpFastOpen < 0)
+        {
+            throw new IllegalArgumentException("tcpFastOpen不能小于0：" + tcpFastOpen);
+        }
+        this.tcpFastOpen = tcpFastOpen;
+    }
+
+    public boolean isReusePort()
+    {
+        return reusePort;
+    }
+
+    public void setReusePort(boolean reusePort)
+    {
+        this.reusePort = reusePort;
+    }
+
+    public boolean isTcpCork()
+    {
+        return tcpCork;
+    }
+
+    public void setTcpCork(boolean tcpCork)
+    {
+        this.tcpCork = tcpCork;
+    }
+
+    public boolean isTcpQuickAck()
+    {
+        return tcpQuickAck;
+    }
+
+    public void setTcpQuickAck(boolean tcpQuickAck)
+    {
+        this.tcpQuickAck = tcpQuickAck;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TransportConfig{" +
+                "transportType=" + transportType +
+                ", workerCount=" + workerCount +
+                ", edgeTriggered=" + edgeTriggered +
+                ", tcpFastOpen=" + tcpFastOpen +
+                ", reusePort=" + reusePort +
+                ", tcpCork=" + tcpCork +
+                ", tcpQuickAck=" + tcpQuickAck +
+                '}';
+    }
+}
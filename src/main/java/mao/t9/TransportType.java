@@ -0,0 +1,32 @@
+package mao.t9;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t9
+ * Enum(枚举名): TransportType
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:20
+ * Version(版本): 1.0
+ * Description(描述)： Netty传输层类型
+ */
+
+public enum TransportType
+{
+    /**
+     * 自动选择，Linux上native epoll可用时用epoll，否则用nio
+     */
+    AUTO,
+
+    /**
+     * native epoll，只支持Linux
+     */
+    EPOLL,
+
+    /**
+     * JDK的nio
+     */
+    NIO
+}
@@ -0,0 +1,218 @@
+package mao.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): AdaptiveBufferGrowth
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 13:10
+ * Version(版本): 1.0
+ * Description(描述)： 读缓冲的容量策略，每个连接一个。
+ * 参考netty的AdaptiveRecvByteBufAllocator，根据最近几次读到的字节数预测下一次需要的容量：
+ * 一次读满就放大，连续两次读到的比预测的小一档就缩小。
+ * 扩容不会超过最大容量，大消息处理完之后缓冲会缩回预测的容量
+ */
+
+public class AdaptiveBufferGrowth
+{
+    /**
+     * 容量表，512以下每档16字节，之后每档翻倍
+     */
+    private static final int[] SIZE_TABLE;
+
+    /**
+     * 放大时跳过的档数
+     */
+    private static final int INDEX_INCREMENT = 4;
+
+    /**
+     * 缩小时跳过的档数
+     */
+    private static final int INDEX_DECREMENT = 1;
+
+    /**
+     * 容量超过预测值的多少倍时缩小
+     */
+    private static final int SHRINK_RATIO = 4;
+
+    static
+    {
+        List<Integer> sizeTable = new ArrayList<>();
+        for (int i = 16; i < 512; i += 16)
+        {
+            sizeTable.add(i);
+        }
+        for (int i = 512; i > 0; i <<= 1)
+        {
+            sizeTable.add(i);
+        }
+        SIZE_TABLE = new int[sizeTable.size()];
+        for (int i = 0; i < SIZE_TABLE.length; i++)
+        {
+            SIZE_TABLE[i] = sizeTable.get(i);
+        }
+    }
+
+    /**
+     * 最小容量在容量表中的下标
+     */
+    private final int minIndex;
+
+    /**
+     * 最大容量在容量表中的下标
+     */
+    private final int maxIndex;
+
+    /**
+     * 最大容量，读缓冲不会超过这个容量
+     */
+    private final int maxCapacity;
+
+    /**
+     * 当前预测值在容量表中的下标
+     */
+    private int index;
+
+    /**
+     * 上一次是否已经读到了比预测小的数据
+     */
+    private boolean decreaseNow;
+
+    /**
+     * 构造方法
+     *
+     * @param minimum     预测的最小容量
+     * @param initial     初始容量
+     * @param maxCapacity 最大容量，通常等于最大消息长度
+     */
+    public AdaptiveBufferGrowth(int minimum, int initial, int maxCapacity)
+    {
+        if (minimum <= 0 || initial < minimum || maxCapacity < initial)
+        {
+            throw new IllegalArgumentException("需要满足 0 < minimum <= initial <= maxCapacity：" +
+                    minimum + ", " + initial + ", " + maxCapacity);
+        }
+        this.minIndex = sizeTableIndex(minimum);
+        this.maxIndex = Math.max(minIndex, sizeTableIndex(maxCapacity));
+        this.maxCapacity = maxCapacity;
+        this.index = sizeTableIndex(initial);
+    }
+
+    /**
+     * 预测的下一次读需要的容量
+     *
+     * @return int
+     */
+    public int guess()
+    {
+        return Math.min(SIZE_TABLE[index], maxCapacity);
+    }
+
+    /**
+     * 记录一次读到的字节数，调整预测值
+     *
+     * @param actualReadBytes 读到的字节数
+     */
+    public void record(int actualReadBytes)
+    {
+        if (actualReadBytes <= SIZE_TABLE[Math.max(0, index - INDEX_DECREMENT)])
+        {
+            if (decreaseNow)
+            {
+                index = Math.max(index - INDEX_DECREMENT, minIndex);
+                decreaseNow = false;
+            }
+            else
+            {
+                decreaseNow = true;
+            }
+        }
+        else if (actualReadBytes >= SIZE_TABLE[index])
+        {
+            index = Math.min(index + INDEX_INCREMENT, maxIndex);
+            decreaseNow = false;
+        }
+    }
+
+    /**
+     * 读缓冲满了，计算扩容之后的容量
+     *
+     * @param capacity 当前容量
+     * @return 新的容量
+     * @throws TooLongFrameException 已经达到最大容量，还是没有一条完整的消息
+     */
+    public int grow(int capacity)
+    {
+        if (capacity >= maxCapacity)
+        {
+            throw new TooLongFrameException("消息长度超过了最大容量：" + maxCapacity);
+        }
+        //至少翻倍，并且能容纳下一次预测的读
+        long newCapacity = Math.max((long) capacity << 1, (long) capacity + guess());
+        return (int) Math.min(newCapacity, maxCapacity);
+    }
+
+    /**
+     * 消息处理完之后，读缓冲是否应该缩小
+     *
+     * @param capacity 当前容量
+     * @param used     缓冲中还没有处理的字节数
+     * @return 缩小之后的容量，不需要缩小返回-1
+     */
+    public int shrink(int capacity, int used)
+    {
+        int guess = guess();
+        if (used <= guess && capacity >= guess * SHRINK_RATIO)
+        {
+            return guess;
+        }
+        return -1;
+    }
+
+    /**
+     * 得到最大容量
+     *
+     * @return int
+     */
+    public int getMaxCapacity()
+    {
+        return maxCapacity;
+    }
+
+    /**
+     * 在容量表中查找不小于size的最小一档
+     *
+     * @param size 容量
+     * @return 下标
+     */
+    private static int sizeTableIndex(int size)
+    {
+        for (int low = 0, high = SIZE_TABLE.length - 1; ; )
+        {
+            if (high < low)
+            {
+                return low >= SIZE_TABLE.length ? SIZE_TABLE.length - 1 : low;
+            }
+            int mid = (low + high) >>> 1;
+            int midValue = SIZE_TABLE[mid];
+            if (size > midValue)
+            {
+                low = mid + 1;
+            }
+            else if (size < midValue)
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                return mid;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package mao.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Interface(接口名): BufferAllocator
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 10:12
+ * Version(版本): 1.0
+ * Description(描述)： ByteBuffer分配器
+ */
+
+public interface BufferAllocator
+{
+    /**
+     * 每次都新分配堆内存的分配器，释放时什么也不做
+     */
+    BufferAllocator HEAP = new BufferAllocator()
+    {
+        @Override
+        public ByteBuffer allocate(int capacity)
+        {
+            return ByteBuffer.allocate(capacity);
+        }
+
+        @Override
+        public void release(ByteBuffer buffer)
+        {
+
+        }
+    };
+
+    /**
+     * 分配一个容量不小于capacity的ByteBuffer，处于写模式
+     *
+     * @param capacity 最小容量
+     * @return {@link ByteBuffer}
+     */
+    ByteBuffer allocate(int capacity);
+
+    /**
+     * 归还ByteBuffer，归还之后调用者不能再使用它
+     *
+     * @param buffer 缓冲
+     */
+    void release(ByteBuffer buffer);
+}
@@ -0,0 +1,277 @@
+package mao.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): ByteBufferPool
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 10:20
+ * Version(版本): 1.0
+ * Description(描述)： ByteBuffer池，按2的幂划分规格，每种规格一个空闲栈。
+ * 不是线程安全的，每个工作线程持有一个自己的池
+ */
+
+public class ByteBufferPool implements BufferAllocator
+{
+    /**
+     * 日志
+     */
+    private static final Logger log = LoggerFactory.getLogger(ByteBufferPool.class);
+
+    /**
+     * 是否默认开启泄漏检测，调试时使用 -Dmao.buffer.leakDetection=true 开启
+     */
+    public static final boolean DEFAULT_LEAK_DETECTION = Boolean.getBoolean("mao.buffer.leakDetection");
+
+    /**
+     * 是否是直接内存
+     */
+    private final boolean direct;
+
+    /**
+     * 最小规格的容量
+     */
+    private final int minSize;
+
+    /**
+     * 最大规格的容量，超过这个容量的不进行池化
+     */
+    private final int maxSize;
+
+    /**
+     * log2(minSize)
+     */
+    private final int minShift;
+
+    /**
+     * 每种规格的空闲栈
+     */
+    private final ByteBuffer[][] freeStacks;
+
+    /**
+     * 每种规格的空闲栈中的数量
+     */
+    private final int[] freeCounts;
+
+    /**
+     * 未归还的ByteBuffer和分配时的调用栈，只有开启泄漏检测时不为空
+     */
+    private final Map<ByteBuffer, Throwable> outstanding;
+
+    /**
+     * 分配次数
+     */
+    private long allocations;
+
+    /**
+     * 从空闲栈中复用的次数
+     */
+    private long hits;
+
+    /**
+     * 归还次数
+     */
+    private long releases;
+
+    /**
+     * 构造方法，使用默认参数：64B - 64KB，每种规格最多缓存256个
+     *
+     * @param direct 是否是直接内存
+     */
+    public ByteBufferPool(boolean direct)
+    {
+        this(direct, 64, 64 * 1024, 256, DEFAULT_LEAK_DETECTION);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param direct            是否是直接内存
+     * @param minSize           最小规格的容量，必须是2的幂
+     * @param maxSize           最大规格的容量，必须是2的幂
+     * @param maxCachedPerClass 每种规格最多缓存的数量
+     * @param leakDetection     是否开启泄漏检测
+     */
+    public ByteBufferPool(boolean direct, int minSize, int maxSize, int maxCachedPerClass, boolean leakDetection)
+    {
+        if (Integer.bitCount(minSize) != 1 || Integer.bitCount(maxSize) != 1 || minSize > maxSize)
+        {
+            throw new IllegalArgumentException("minSize和maxSize必须是2的幂，并且minSize <= maxSize：" +
+                    minSize + ", " + maxSize);
+        }
+        this.direct = direct;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.minShift = Integer.numberOfTrailingZeros(minSize);
+        int classes = Integer.numberOfTrailingZeros(maxSize) - minShift + 1;
+        this.freeStacks = new ByteBuffer[classes][maxCachedPerClass];
+        this.freeCounts = new int[classes];
+        this.outstanding = leakDetection ? new IdentityHashMap<>() : null;
+    }
+
+    @Override
+    public ByteBuffer allocate(int capacity)
+    {
+        allocations++;
+        ByteBuffer buffer;
+        if (capacity > maxSize)
+        {
+            //超过最大规格，不池化
+            buffer = newBuffer(capacity);
+        }
+        else
+        {
+            int sizeClass = sizeClass(capacity);
+            int count = freeCounts[sizeClass];
+            if (count > 0)
+            {
+                hits++;
+                buffer = freeStacks[sizeClass][--count];
+                freeStacks[sizeClass][count] = null;
+                freeCounts[sizeClass] = count;
+            }
+            else
+            {
+                buffer = newBuffer(minSize << sizeClass);
+            }
+        }
+        if (outstanding != null)
+        {
+            outstanding.put(buffer, new Throwable("ByteBuffer分配位置"));
+        }
+        return buffer;
+    }
+
+    @Override
+    public void release(ByteBuffer buffer)
+    {
+        if (outstanding != null && outstanding.remove(buffer) == null)
+        {
+            log.warn("归还了不属于这个池或者已经归还过的ByteBuffer：{}", buffer, new Throwable("ByteBuffer归还位置"));
+            return;
+        }
+        releases++;
+        int capacity = buffer.capacity();
+        if (capacity > maxSize || capacity < minSize || Integer.bitCount(capacity) != 1
+                || buffer.isDirect() != direct)
+        {
+            //不是池中的规格，交给GC
+            return;
+        }
+        int sizeClass = sizeClass(capacity);
+        int count = freeCounts[sizeClass];
+        if (count < freeStacks[sizeClass].length)
+        {
+            buffer.clear();
+            freeStacks[sizeClass][count] = buffer;
+            freeCounts[sizeClass] = count + 1;
+        }
+    }
+
+    /**
+     * 报告未归还的ByteBuffer，需要开启泄漏检测
+     *
+     * @return 未归还的数量，没有开启泄漏检测时返回-1
+     */
+    public int reportLeaks()
+    {
+        if (outstanding == null)
+        {
+            return -1;
+        }
+        for (Map.Entry<ByteBuffer, Throwable> entry : outstanding.entrySet())
+        {
+            log.warn("ByteBuffer没有归还：{}", entry.getKey(), entry.getValue());
+        }
+        return outstanding.size();
+    }
+
+    /**
+     * 得到规格的下标，容量向上取整到2的幂
+     *
+     * @param capacity 容量
+     * @return int
+     */
+    private int sizeClass(int capacity)
+    {
+        if (capacity <= minSize)
+        {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - minShift;
+    }
+
+    /**
+     * 新分配ByteBuffer
+     *
+     * @param capacity 容量
+     * @return {@link ByteBuffer}
+     */
+    private ByteBuffer newBuffer(int capacity)
+    {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * 是否是直接内存
+     *
+     * @return boolean
+     */
+    public boolean isDirect()
+    {
+        return direct;
+    }
+
+    /**
+     * 得到分配次数
+     *
+     * @return long
+     */
+    public long getAllocations()
+    {
+        return allocations;
+    }
+
+    /**
+     * 得到从空闲栈中复用的次数
+     *
+     * @return long
+     */
+    public long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * 得到归还次数
+     *
+     * @return long
+     */
+    public long getReleases()
+    {
+        return releases;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ByteBufferPool{" +
+                "direct=" + direct +
+                ", minSize=" + minSize +
+                ", maxSize=" + maxSize +
+                ", allocations=" + allocations +
+                ", hits=" + hits +
+                ", releases=" + releases +
+                '}';
+    }
+}
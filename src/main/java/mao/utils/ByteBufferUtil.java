@@ -1,7 +1,10 @@
 package mao.utils;
 
 
+import io.netty.buffer.ByteBuf;
+import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
+import org.slf4j.Logger;
 
 import java.nio.ByteBuffer;
 
@@ -18,7 +21,7 @@ import static io.netty.util.internal.StringUtil.NEWLINE;
  * Date(创建日期)： 2023/3/5
  * Time(创建时间)： 21:34
  * Version(版本): 1.0
- * Description(描述)： 工具类
+ * Description(描述)： 工具类，十六进制打印可以追加到调用者提供的{@link HexDumpSink}中重复使用，不分配内存
  */
 
 public class ByteBufferUtil
@@ -29,6 +32,12 @@ public class ByteBufferUtil
     private static final String[] HEXDUMP_ROWPREFIXES = new String[65536 >>> 4];
     private static final String[] BYTE2HEX = new String[256];
     private static final String[] BYTEPADDING = new String[16];
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * debug和trace打印用的缓冲，每个线程一个，重复使用
+     */
+    private static final ThreadLocal<HexDumpBuffer> DEBUG_BUFFER = ThreadLocal.withInitial(HexDumpBuffer::new);
 
     static
     {
@@ -103,14 +112,11 @@ public class ByteBufferUtil
      */
     public static void debugAll(ByteBuffer buffer)
     {
-        int oldlimit = buffer.limit();
-        buffer.limit(buffer.capacity());
-        StringBuilder origin = new StringBuilder(256);
-        appendPrettyHexDump(origin, buffer, 0, buffer.capacity());
-        System.out.println("+--------+-------------------- all ------------------------+----------------+");
-        System.out.printf("position: [%d], limit: [%d]\n", buffer.position(), oldlimit);
-        System.out.println(origin);
-        buffer.limit(oldlimit);
+        HexDumpBuffer dump = DEBUG_BUFFER.get();
+        dump.clear();
+        appendAll(dump, buffer);
+        dump.append(NEWLINE);
+        dump.writeTo(System.out);
     }
 
     /**
@@ -120,26 +126,188 @@ public class ByteBufferUtil
      */
     public static void debugRead(ByteBuffer buffer)
     {
-        StringBuilder builder = new StringBuilder(256);
-        appendPrettyHexDump(builder, buffer, buffer.position(), buffer.limit() - buffer.position());
-        System.out.println("+--------+-------------------- read -----------------------+----------------+");
-        System.out.printf("position: [%d], limit: [%d]\n", buffer.position(), buffer.limit());
-        System.out.println(builder);
+        HexDumpBuffer dump = DEBUG_BUFFER.get();
+        dump.clear();
+        appendRead(dump, buffer);
+        dump.append(NEWLINE);
+        dump.writeTo(System.out);
+    }
+
+    /**
+     * TRACE级别开启时用日志打印所有内容，没有开启时什么都不做
+     *
+     * @param log    日志
+     * @param buffer 缓冲
+     */
+    public static void traceAll(Logger log, ByteBuffer buffer)
+    {
+        if (log.isTraceEnabled())
+        {
+            HexDumpBuffer dump = DEBUG_BUFFER.get();
+            dump.clear();
+            appendAll(dump, buffer);
+            //log4j2在返回之前就会格式化参数，异步日志也一样，缓冲可以马上复用
+            log.trace("{}{}", NEWLINE, dump);
+        }
+    }
+
+    /**
+     * TRACE级别开启时用日志打印可读取内容，没有开启时什么都不做
+     *
+     * @param log    日志
+     * @param buffer 缓冲
+     */
+    public static void traceRead(Logger log, ByteBuffer buffer)
+    {
+        if (log.isTraceEnabled())
+        {
+            HexDumpBuffer dump = DEBUG_BUFFER.get();
+            dump.clear();
+            appendRead(dump, buffer);
+            log.trace("{}{}", NEWLINE, dump);
+        }
+    }
+
+    /**
+     * TRACE级别开启时用日志打印ByteBuf的可读取内容，没有开启时什么都不做
+     *
+     * @param log 日志
+     * @param buf 缓冲
+     */
+    public static void traceRead(Logger log, ByteBuf buf)
+    {
+        if (log.isTraceEnabled())
+        {
+            HexDumpBuffer dump = DEBUG_BUFFER.get();
+            dump.clear();
+            appendRead(dump, buf);
+            log.trace("{}{}", NEWLINE, dump);
+        }
+    }
+
+    /**
+     * 把整个缓冲（0到容量）的十六进制打印追加到sink，不修改position和limit
+     *
+     * @param sink   输出目标
+     * @param buffer 缓冲
+     */
+    public static void appendAll(HexDumpSink sink, ByteBuffer buffer)
+    {
+        sink.append("+--------+-------------------- all ------------------------+----------------+");
+        appendPositionAndLimit(sink, buffer.position(), buffer.limit());
+        appendHexDump(sink, buffer, 0, buffer.capacity());
+    }
+
+    /**
+     * 把position到limit之间的十六进制打印追加到sink，不修改position和limit
+     *
+     * @param sink   输出目标
+     * @param buffer 缓冲
+     */
+    public static void appendRead(HexDumpSink sink, ByteBuffer buffer)
+    {
+        sink.append("+--------+-------------------- read -----------------------+----------------+");
+        appendPositionAndLimit(sink, buffer.position(), buffer.limit());
+        appendHexDump(sink, buffer, buffer.position(), buffer.limit() - buffer.position());
+    }
+
+    /**
+     * 把ByteBuf的readerIndex到writerIndex之间的十六进制打印追加到sink，不修改读写索引
+     *
+     * @param sink 输出目标
+     * @param buf  缓冲
+     */
+    public static void appendRead(HexDumpSink sink, ByteBuf buf)
+    {
+        sink.append("+--------+-------------------- read -----------------------+----------------+");
+        sink.append(NEWLINE);
+        sink.append("readerIndex: [");
+        sink.append(buf.readerIndex());
+        sink.append("], writerIndex: [");
+        sink.append(buf.writerIndex());
+        sink.append(']');
+        sink.append(NEWLINE);
+        appendHexDump(sink, buf, buf.readerIndex(), buf.readableBytes());
+    }
+
+    /**
+     * 把任意一段的十六进制打印追加到sink，按绝对位置读取，不修改position和limit，范围可以超过limit
+     *
+     * @param sink   输出目标
+     * @param buffer 缓冲
+     * @param offset 开始位置
+     * @param length 长度
+     */
+    public static void appendHexDump(HexDumpSink sink, ByteBuffer buffer, int offset, int length)
+    {
+        if (offset + length > buffer.limit() && !buffer.hasArray() && !(buffer.isDirect() && PlatformDependent.hasUnsafe()))
+        {
+            //只读的堆缓冲超过limit的部分只能通过副本读，不修改调用者的limit
+            buffer = buffer.duplicate();
+            buffer.limit(buffer.capacity());
+        }
+        appendPrettyHexDump(sink, buffer, null, offset, length, buffer.capacity());
+    }
+
+    /**
+     * 把ByteBuf任意一段的十六进制打印追加到sink，按绝对位置读取，不修改读写索引
+     *
+     * @param sink   输出目标
+     * @param buf    缓冲
+     * @param offset 开始位置
+     * @param length 长度
+     */
+    public static void appendHexDump(HexDumpSink sink, ByteBuf buf, int offset, int length)
+    {
+        appendPrettyHexDump(sink, null, buf, offset, length, buf.capacity());
+    }
+
+    /**
+     * 追加position和limit那一行
+     *
+     * @param sink     输出目标
+     * @param position position
+     * @param limit    limit
+     */
+    private static void appendPositionAndLimit(HexDumpSink sink, int position, int limit)
+    {
+        sink.append(NEWLINE);
+        sink.append("position: [");
+        sink.append(position);
+        sink.append("], limit: [");
+        sink.append(limit);
+        sink.append(']');
+        sink.append(NEWLINE);
     }
 
-    private static void appendPrettyHexDump(StringBuilder dump, ByteBuffer buf, int offset, int length)
+    /**
+     * 十六进制打印，ByteBuffer和ByteBuf只有一个不为null，按绝对位置读取
+     *
+     * @param dump     输出目标
+     * @param buffer   ByteBuffer
+     * @param buf      ByteBuf
+     * @param offset   开始位置
+     * @param length   长度
+     * @param capacity 容量
+     */
+    private static void appendPrettyHexDump(HexDumpSink dump, ByteBuffer buffer, ByteBuf buf, int offset, int length,
+                                            int capacity)
     {
-        if (isOutOfBounds(offset, length, buf.capacity()))
+        if (isOutOfBounds(offset, length, capacity))
         {
             throw new IndexOutOfBoundsException(
                     "expected: " + "0 <= offset(" + offset + ") <= offset + length(" + length
-                            + ") <= " + "buf.capacity(" + buf.capacity() + ')');
+                            + ") <= " + "buf.capacity(" + capacity + ')');
         }
         if (length == 0)
         {
             return;
         }
-        dump.append("         +-------------------------------------------------+").append(NEWLINE).append("         |  0  1  2  3  4  5  6  7  8  9  a  b  c  d  e  f |").append(NEWLINE).append("+--------+-------------------------------------------------+----------------+");
+        dump.append("         +-------------------------------------------------+");
+        dump.append(NEWLINE);
+        dump.append("         |  0  1  2  3  4  5  6  7  8  9  a  b  c  d  e  f |");
+        dump.append(NEWLINE);
+        dump.append("+--------+-------------------------------------------------+----------------+");
 
         final int startIndex = offset;
         final int fullRows = length >>> 4;
@@ -157,14 +325,14 @@ public class ByteBufferUtil
             int rowEndIndex = rowStartIndex + 16;
             for (int j = rowStartIndex; j < rowEndIndex; j++)
             {
-                dump.append(BYTE2HEX[getUnsignedByte(buf, j)]);
+                dump.append(BYTE2HEX[getUnsignedByte(buffer, buf, j)]);
             }
             dump.append(" |");
 
             // ASCII dump
             for (int j = rowStartIndex; j < rowEndIndex; j++)
             {
-                dump.append(BYTE2CHAR[getUnsignedByte(buf, j)]);
+                dump.append(BYTE2CHAR[getUnsignedByte(buffer, buf, j)]);
             }
             dump.append('|');
         }
@@ -179,7 +347,7 @@ public class ByteBufferUtil
             int rowEndIndex = rowStartIndex + remainder;
             for (int j = rowStartIndex; j < rowEndIndex; j++)
             {
-                dump.append(BYTE2HEX[getUnsignedByte(buf, j)]);
+                dump.append(BYTE2HEX[getUnsignedByte(buffer, buf, j)]);
             }
             dump.append(HEXPADDING[remainder]);
             dump.append(" |");
@@ -187,14 +355,14 @@ public class ByteBufferUtil
             // Ascii dump
             for (int j = rowStartIndex; j < rowEndIndex; j++)
             {
-                dump.append(BYTE2CHAR[getUnsignedByte(buf, j)]);
+                dump.append(BYTE2CHAR[getUnsignedByte(buffer, buf, j)]);
             }
             dump.append(BYTEPADDING[remainder]);
             dump.append('|');
         }
 
-        dump.append(NEWLINE +
-                "+--------+-------------------------------------------------+----------------+");
+        dump.append(NEWLINE);
+        dump.append("+--------+-------------------------------------------------+----------------+");
     }
 
     /**
@@ -204,7 +372,7 @@ public class ByteBufferUtil
      * @param row           行
      * @param rowStartIndex 行开始指数
      */
-    private static void appendHexDumpRowPrefix(StringBuilder dump, int row, int rowStartIndex)
+    private static void appendHexDumpRowPrefix(HexDumpSink dump, int row, int rowStartIndex)
     {
         if (row < HEXDUMP_ROWPREFIXES.length)
         {
@@ -212,11 +380,41 @@ public class ByteBufferUtil
         }
         else
         {
+            //超过64KiB的行，逐位追加8位十六进制的偏移量
             dump.append(NEWLINE);
-            dump.append(Long.toHexString(rowStartIndex & 0xFFFFFFFFL | 0x100000000L));
-            dump.setCharAt(dump.length() - 9, '|');
             dump.append('|');
+            for (int shift = 28; shift >= 0; shift -= 4)
+            {
+                dump.append(HEX_DIGITS[rowStartIndex >>> shift & 0x0F]);
+            }
+            dump.append('|');
+        }
+    }
+
+    /**
+     * 得到无符号字节，ByteBuffer和ByteBuf只有一个不为null
+     *
+     * @param buffer ByteBuffer
+     * @param buf    ByteBuf
+     * @param index  位置
+     * @return int
+     */
+    private static int getUnsignedByte(ByteBuffer buffer, ByteBuf buf, int index)
+    {
+        if (buffer == null)
+        {
+            return buf.getUnsignedByte(index);
+        }
+        if (index < buffer.limit())
+        {
+            return buffer.get(index) & 0xFF;
+        }
+        //get(index)不能读limit之后的数据，直接读底层的数组或者内存
+        if (buffer.hasArray())
+        {
+            return buffer.array()[buffer.arrayOffset() + index] & 0xFF;
         }
+        return PlatformDependent.getByte(PlatformDependent.directBufferAddress(buffer) + index) & 0xFF;
     }
 
     /**
@@ -0,0 +1,377 @@
+package mao.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectionKey;
+import java.util.ArrayDeque;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): ChannelContext
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 10:45
+ * Version(版本): 1.0
+ * Description(描述)： 连接的上下文，作为附件关联到SelectionKey上，
+ * 持有这个连接的读缓冲、解码器和写队列，一次没有读完整的数据会留在缓冲中，下一次读事件继续累积。
+ * 写队列超过高水位时停止关注读事件，对端写得再快也不会让写队列无限增长
+ */
+
+public class ChannelContext implements MessageWriter
+{
+    /**
+     * 默认的预测最小容量
+     */
+    public static final int DEFAULT_MINIMUM_CAPACITY = 64;
+
+    /**
+     * 默认的初始读缓冲容量
+     */
+    public static final int DEFAULT_INITIAL_CAPACITY = 64;
+
+    /**
+     * 分配器
+     */
+    private final BufferAllocator allocator;
+
+    /**
+     * 读缓冲的容量策略
+     */
+    private final AdaptiveBufferGrowth bufferGrowth;
+
+    /**
+     * 解码器
+     */
+    private final FrameDecoder frameDecoder;
+
+    /**
+     * 读缓冲，处于写模式
+     */
+    private ByteBuffer readBuffer;
+
+    /**
+     * 写队列，第一次写的时候创建
+     */
+    private OutboundBuffer outboundBuffer;
+
+    /**
+     * 排在写队列之后的大块数据，第一次写的时候创建
+     */
+    private ArrayDeque<Payload> payloads;
+
+    /**
+     * 抓取这个连接收到的消息，默认不抓取
+     */
+    private WireTap.Tap tap = WireTap.disabledTap();
+
+    /**
+     * 构造方法，使用'\n'分隔消息，最大消息长度为{@link FrameDecoder#DEFAULT_MAX_FRAME_LENGTH}
+     *
+     * @param allocator 分配器
+     */
+    public ChannelContext(BufferAllocator allocator)
+    {
+        this(allocator, FrameDecoder.DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * 构造方法，使用'\n'分隔消息
+     *
+     * @param allocator      分配器
+     * @param maxFrameLength 最大消息长度
+     */
+    public ChannelContext(BufferAllocator allocator, int maxFrameLength)
+    {
+        this(allocator, maxFrameLength, new LineFrameDecoder(maxFrameLength));
+    }
+
+    /**
+     * 构造方法，读缓冲使用默认的容量策略，最大容量为maxFrameLength
+     *
+     * @param allocator      分配器
+     * @param maxFrameLength 最大消息长度，和解码器的一致
+     * @param frameDecoder   解码器
+     */
+    public ChannelContext(BufferAllocator allocator, int maxFrameLength, FrameDecoder frameDecoder)
+    {
+        this(allocator, new AdaptiveBufferGrowth(Math.min(DEFAULT_MINIMUM_CAPACITY, maxFrameLength),
+                        Math.min(DEFAULT_INITIAL_CAPACITY, maxFrameLength), maxFrameLength),
+                frameDecoder);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param allocator    分配器
+     * @param bufferGrowth 读缓冲的容量策略
+     * @param frameDecoder 解码器
+     */
+    public ChannelContext(BufferAllocator allocator, AdaptiveBufferGrowth bufferGrowth, FrameDecoder frameDecoder)
+    {
+        this.allocator = allocator;
+        this.bufferGrowth = bufferGrowth;
+        this.frameDecoder = frameDecoder;
+    }
+
+    /**
+     * 从通道读数据，追加到读缓冲中，读缓冲满了会按照容量策略扩容
+     *
+     * @param channel 通道
+     * @return 读到的字节数，-1表示连接已经关闭
+     * @throws IOException            ioexception
+     * @throws TooLongFrameException 读缓冲达到最大容量还没有一条完整的消息
+     */
+    public int read(ReadableByteChannel channel) throws IOException
+    {
+        if (readBuffer == null)
+        {
+            readBuffer = allocator.allocate(bufferGrowth.guess());
+        }
+        else if (frameDecoder.pendingFrameLength() > readBuffer.capacity())
+        {
+            //解码器知道半包消息的总长度（长度字段），一次扩到够用
+            resize(frameDecoder.pendingFrameLength());
+        }
+        else if (!readBuffer.hasRemaining())
+        {
+            //需要扩容
+            resize(bufferGrowth.grow(readBuffer.capacity()));
+        }
+        int read = channel.read(readBuffer);
+        if (read > 0)
+        {
+            bufferGrowth.record(read);
+        }
+        return read;
+    }
+
+    /**
+     * 解码读缓冲中所有完整的消息，之后如果读缓冲比预测的大很多就缩小
+     *
+     * @param listener 回调
+     * @throws TooLongFrameException 消息超过最大长度
+     */
+    public void decode(FrameListener listener)
+    {
+        if (readBuffer != null)
+        {
+            frameDecoder.decode(readBuffer, listener);
+            int newCapacity = bufferGrowth.shrink(readBuffer.capacity(), readBuffer.position());
+            //缩小后要放得下半包消息，否则下一次读又要扩容
+            if (newCapacity != -1 && newCapacity >= frameDecoder.pendingFrameLength())
+            {
+                resize(newCapacity);
+            }
+        }
+    }
+
+    /**
+     * 拷贝一份数据加入写队列，需要调用{@link #flush(SelectionKey)}才会真正写出去
+     *
+     * @param data 数据，处于读模式
+     */
+    @Override
+    public void write(ByteBuffer data)
+    {
+        if (payloads != null && !payloads.isEmpty())
+        {
+            //前面还有大块数据没写完，排到它后面，保证顺序
+            ByteBuffer copy = ByteBuffer.allocate(data.remaining());
+            copy.put(data);
+            copy.flip();
+            payloads.add(Payload.wrap(copy));
+            return;
+        }
+        getOutboundBuffer().addCopy(data);
+    }
+
+    /**
+     * 加入一份大块数据，排在之前写入的数据之后，边写边产生，不占用写队列的水位
+     *
+     * @param payload 大块数据
+     */
+    public void write(Payload payload)
+    {
+        if (payloads == null)
+        {
+            payloads = new ArrayDeque<>(2);
+        }
+        payloads.add(payload);
+    }
+
+    /**
+     * 写出写队列中的数据和大块数据，没写完就关注写事件，写完了就取消关注写事件，
+     * 写队列超过高水位时取消关注读事件，降到低水位以下时恢复
+     *
+     * @param selectionKey 选择键
+     * @return 写出去的字节数
+     * @throws IOException ioexception
+     */
+    public long flush(SelectionKey selectionKey) throws IOException
+    {
+        if (outboundBuffer == null && payloads == null)
+        {
+            return 0;
+        }
+        long written = flush((GatheringByteChannel) selectionKey.channel());
+        boolean pending = !outboundBuffer.isEmpty() || (payloads != null && !payloads.isEmpty());
+        int interestOps = selectionKey.interestOps();
+        int newInterestOps = pending ? interestOps | SelectionKey.OP_WRITE :
+                interestOps & ~SelectionKey.OP_WRITE;
+        newInterestOps = outboundBuffer.isWritable() ? newInterestOps | SelectionKey.OP_READ :
+                newInterestOps & ~SelectionKey.OP_READ;
+        if (newInterestOps != interestOps)
+        {
+            selectionKey.interestOps(newInterestOps);
+        }
+        return written;
+    }
+
+    /**
+     * 写出写队列中的数据和大块数据，不修改关注的事件。
+     * 一次调用最多做{@link OutboundBuffer}限定次数的聚集写，遇到只写出一部分时也会返回，所以不保证全部写完，
+     * 阻塞通道（例如虚拟线程中使用）需要循环调用直到{@link #isFlushed()}返回true
+     *
+     * @param channel 通道
+     * @return 写出去的字节数
+     * @throws IOException ioexception
+     */
+    public long flush(GatheringByteChannel channel) throws IOException
+    {
+        if (outboundBuffer == null && payloads == null)
+        {
+            return 0;
+        }
+        getOutboundBuffer();
+        long written = outboundBuffer.flush(channel);
+        //写队列写完了才轮到大块数据，保证顺序
+        while (outboundBuffer.isEmpty() && payloads != null && !payloads.isEmpty())
+        {
+            Payload payload = payloads.peek();
+            written += payload.writeTo(channel);
+            if (!payload.isComplete())
+            {
+                break;
+            }
+            payloads.poll().close();
+        }
+        return written;
+    }
+
+    /**
+     * 写队列和大块数据是否都已经写完
+     *
+     * @return boolean
+     */
+    public boolean isFlushed()
+    {
+        return (outboundBuffer == null || outboundBuffer.isEmpty()) && (payloads == null || payloads.isEmpty());
+    }
+
+    /**
+     * 得到写队列
+     *
+     * @return {@link OutboundBuffer}
+     */
+    public OutboundBuffer getOutboundBuffer()
+    {
+        if (outboundBuffer == null)
+        {
+            outboundBuffer = new OutboundBuffer(allocator);
+        }
+        return outboundBuffer;
+    }
+
+    /**
+     * 得到抓取这个连接收到的消息的Tap，可以直接作为解码回调
+     *
+     * @return {@link WireTap.Tap}
+     */
+    public WireTap.Tap getTap()
+    {
+        return tap;
+    }
+
+    /**
+     * 设置抓取这个连接收到的消息的Tap，一般在连接建立时设置
+     *
+     * @param tap {@link WireTap.Tap}
+     */
+    public void setTap(WireTap.Tap tap)
+    {
+        this.tap = tap;
+    }
+
+    /**
+     * 换一个容量不同的读缓冲，原来的数据拷贝过去
+     *
+     * @param capacity 新的容量
+     */
+    private void resize(int capacity)
+    {
+        ByteBuffer newByteBuffer = allocator.allocate(capacity);
+        readBuffer.flip();
+        newByteBuffer.put(readBuffer);
+        allocator.release(readBuffer);
+        readBuffer = newByteBuffer;
+    }
+
+    /**
+     * 得到读缓冲，处于写模式，可能为null
+     *
+     * @return {@link ByteBuffer}
+     */
+    public ByteBuffer getReadBuffer()
+    {
+        return readBuffer;
+    }
+
+    /**
+     * 读缓冲中没有剩余数据时把它还给分配器，空闲连接不占用缓冲，下一次读事件再从池中取
+     */
+    public void releaseIfEmpty()
+    {
+        if (readBuffer != null && readBuffer.position() == 0)
+        {
+            allocator.release(readBuffer);
+            readBuffer = null;
+        }
+    }
+
+    /**
+     * 释放连接持有的缓冲，连接关闭时调用
+     */
+    public void release()
+    {
+        if (readBuffer != null)
+        {
+            allocator.release(readBuffer);
+            readBuffer = null;
+        }
+        if (outboundBuffer != null)
+        {
+            outboundBuffer.release();
+        }
+        if (payloads != null)
+        {
+            Payload payload;
+            while ((payload = payloads.poll()) != null)
+            {
+                try
+                {
+                    payload.close();
+                }
+                catch (IOException e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        }
+        frameDecoder.reset();
+    }
+}
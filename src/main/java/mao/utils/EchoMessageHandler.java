@@ -0,0 +1,26 @@
+package mao.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): EchoMessageHandler
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 22:45
+ * Version(版本): 1.0
+ * Description(描述)： 回显，原样写回。没有状态，所有连接共用一个。
+ * 消息内容的打印由各个服务器的{@link WireTap}在后台线程完成，这里不再打印
+ */
+
+public class EchoMessageHandler implements MessageHandler
+{
+    @Override
+    public void onMessage(ByteBuffer message, MessageWriter writer)
+    {
+        writer.write(message);
+    }
+}
@@ -0,0 +1,297 @@
+package mao.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): FilePayloadSource
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 15:30
+ * Version(版本): 1.0
+ * Description(描述)： 文件中的一段数据，每个连接打开自己的FileChannel。
+ * 默认用 FileChannel.transferTo 发送（linux上是sendfile），数据不经过java堆；
+ * 也可以分段映射到内存再写，适合需要对同一个文件的不同区间反复发送的场景
+ */
+
+public class FilePayloadSource implements PayloadSource
+{
+    /**
+     * 映射模式下每段映射的大小
+     */
+    private static final long MAPPED_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * 文件
+     */
+    private final Path path;
+
+    /**
+     * 区间开始位置
+     */
+    private final long offset;
+
+    /**
+     * 区间长度，-1表示到文件末尾
+     */
+    private final long count;
+
+    /**
+     * 是否使用内存映射
+     */
+    private final boolean mapped;
+
+    /**
+     * 构造方法，用transferTo发送整个文件
+     *
+     * @param path 文件
+     */
+    public FilePayloadSource(Path path)
+    {
+        this(path, 0, -1, false);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param path   文件
+     * @param offset 区间开始位置
+     * @param count  区间长度，-1表示到文件末尾
+     * @param mapped 是否使用内存映射，false使用transferTo
+     */
+    public FilePayloadSource(Path path, long offset, long count, boolean mapped)
+    {
+        if (offset < 0 || count < -1)
+        {
+            throw new IllegalArgumentException("offset和count不合法：" + offset + ", " + count);
+        }
+        this.path = path;
+        this.offset = offset;
+        this.count = count;
+        this.mapped = mapped;
+    }
+
+    @Override
+    public Payload open() throws IOException
+    {
+        FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+        try
+        {
+            long end = count == -1 ? fileChannel.size() : offset + count;
+            if (end > fileChannel.size())
+            {
+                throw new IOException("区间超出了文件末尾：" + path + "，" + offset + " + " + count);
+            }
+            return mapped ? new MappedFilePayload(fileChannel, offset, end) :
+                    new TransferFilePayload(fileChannel, offset, end);
+        }
+        catch (IOException e)
+        {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long length()
+    {
+        if (count != -1)
+        {
+            return count;
+        }
+        try
+        {
+            return Files.size(path) - offset;
+        }
+        catch (IOException e)
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * 检查文件有没有被截短到position以内
+     *
+     * @param fileChannel 文件通道
+     * @param position    要读取的位置
+     * @param end         结束位置
+     * @throws IOException 文件被截短时抛出EOFException
+     */
+    private static void checkNotTruncated(FileChannel fileChannel, long position, long end) throws IOException
+    {
+        long size = fileChannel.size();
+        if (size <= position)
+        {
+            throw new EOFException("文件在发送过程中被截短，当前大小：" + size + "，发送位置：" + position
+                    + "，结束位置：" + end);
+        }
+    }
+
+    /**
+     * 用transferTo发送，socket发送缓冲区满了transferTo返回0，等OP_WRITE之后从position继续
+     */
+    private static final class TransferFilePayload implements Payload
+    {
+        /**
+         * 文件通道
+         */
+        private final FileChannel fileChannel;
+
+        /**
+         * 结束位置
+         */
+        private final long end;
+
+        /**
+         * 下一次从哪里发送
+         */
+        private long position;
+
+        /**
+         * 构造方法
+         *
+         * @param fileChannel 文件通道
+         * @param position    开始位置
+         * @param end         结束位置
+         */
+        private TransferFilePayload(FileChannel fileChannel, long position, long end)
+        {
+            this.fileChannel = fileChannel;
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public long writeTo(WritableByteChannel channel) throws IOException
+        {
+            long total = 0;
+            while (position < end)
+            {
+                long transferred = fileChannel.transferTo(position, end - position, channel);
+                if (transferred <= 0)
+                {
+                    //打开之后文件被截短了，transferTo会一直返回0，isComplete()永远不会为true
+                    checkNotTruncated(fileChannel, position, end);
+                    break;
+                }
+                position += transferred;
+                total += transferred;
+            }
+            return total;
+        }
+
+        @Override
+        public boolean isComplete()
+        {
+            return position >= end;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            fileChannel.close();
+        }
+    }
+
+    /**
+     * 分段映射到内存再写，一段写完再映射下一段，映射的内存由GC回收
+     */
+    private static final class MappedFilePayload implements Payload
+    {
+        /**
+         * 文件通道
+         */
+        private final FileChannel fileChannel;
+
+        /**
+         * 结束位置
+         */
+        private final long end;
+
+        /**
+         * 下一段从哪里映射
+         */
+        private long position;
+
+        /**
+         * 当前映射的一段
+         */
+        private MappedByteBuffer window;
+
+        /**
+         * 构造方法
+         *
+         * @param fileChannel 文件通道
+         * @param position    开始位置
+         * @param end         结束位置
+         */
+        private MappedFilePayload(FileChannel fileChannel, long position, long end)
+        {
+            this.fileChannel = fileChannel;
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public long writeTo(WritableByteChannel channel) throws IOException
+        {
+            long total = 0;
+            while (true)
+            {
+                if (window == null || !window.hasRemaining())
+                {
+                    if (position >= end)
+                    {
+                        break;
+                    }
+                    long size = Math.min(MAPPED_WINDOW_SIZE, end - position);
+                    //映射超出文件末尾的部分，访问时会产生SIGBUS
+                    checkNotTruncated(fileChannel, position + size - 1, end);
+                    window = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                    position += size;
+                }
+                int write;
+                try
+                {
+                    write = channel.write(window);
+                }
+                catch (InternalError e)
+                {
+                    //映射之后文件才被截短，JVM把SIGBUS转换成InternalError
+                    EOFException eofException = new EOFException("文件在发送过程中被截短");
+                    eofException.initCause(e);
+                    throw eofException;
+                }
+                if (write <= 0)
+                {
+                    break;
+                }
+                total += write;
+            }
+            return total;
+        }
+
+        @Override
+        public boolean isComplete()
+        {
+            return position >= end && (window == null || !window.hasRemaining());
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            window = null;
+            fileChannel.close();
+        }
+    }
+}
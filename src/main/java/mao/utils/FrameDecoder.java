@@ -0,0 +1,50 @@
+package mao.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Interface(接口名): FrameDecoder
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 11:32
+ * Version(版本): 1.0
+ * Description(描述)： 消息解码器，处理消息的边界。解码器是有状态的，每个连接一个
+ */
+
+public interface FrameDecoder
+{
+    /**
+     * 默认的最大消息长度，可以通过 -Dmao.maxFrameLength 修改
+     */
+    int DEFAULT_MAX_FRAME_LENGTH = Integer.getInteger("mao.maxFrameLength", 64 * 1024);
+
+    /**
+     * 解码读缓冲中所有完整的消息，每条消息回调一次listener，
+     * 完整的消息被移出缓冲，不完整的部分留在缓冲中等下一次读事件
+     *
+     * @param buffer   读缓冲，调用前后都处于写模式
+     * @param listener 回调
+     * @throws TooLongFrameException 消息超过最大长度
+     */
+    void decode(ByteBuffer buffer, FrameListener listener);
+
+    /**
+     * 读缓冲开头那条不完整的消息的总长度，读缓冲至少要有这么大才能放下它。
+     * 用分隔符的解码器在找到分隔符之前不知道长度
+     *
+     * @return int，不知道时返回-1
+     */
+    default int pendingFrameLength()
+    {
+        return -1;
+    }
+
+    /**
+     * 重置解码器状态，读缓冲被清空或者替换成别的数据时调用
+     */
+    void reset();
+}
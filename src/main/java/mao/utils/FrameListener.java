@@ -0,0 +1,29 @@
+package mao.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Interface(接口名): FrameListener
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 11:30
+ * Version(版本): 1.0
+ * Description(描述)： 解码出一条完整消息时的回调
+ */
+
+@FunctionalInterface
+public interface FrameListener
+{
+    /**
+     * 收到一条完整消息
+     * frame是读缓冲的视图，position到limit之间是这条消息，没有拷贝数据，
+     * 只在回调期间有效，需要保留的话必须自己拷贝出去
+     *
+     * @param frame 消息
+     */
+    void onFrame(ByteBuffer frame);
+}
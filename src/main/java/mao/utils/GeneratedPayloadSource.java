@@ -0,0 +1,168 @@
+package mao.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): GeneratedPayloadSource
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 15:18
+ * Version(版本): 1.0
+ * Description(描述)： 边写边生成的数据，每个连接只有一个块大小的缓冲，写完一块再生成下一块
+ */
+
+public class GeneratedPayloadSource implements PayloadSource
+{
+    /**
+     * 默认块大小
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024;
+
+    /**
+     * 总长度
+     */
+    private final long length;
+
+    /**
+     * 块大小
+     */
+    private final int chunkSize;
+
+    /**
+     * 生成器
+     */
+    private final ChunkGenerator generator;
+
+    /**
+     * 构造方法
+     *
+     * @param length    总长度
+     * @param chunkSize 块大小
+     * @param generator 生成器
+     */
+    public GeneratedPayloadSource(long length, int chunkSize, ChunkGenerator generator)
+    {
+        this.length = length;
+        this.chunkSize = chunkSize;
+        this.generator = generator;
+    }
+
+    /**
+     * 生成length个相同字节的数据
+     *
+     * @param value  字节
+     * @param length 长度
+     * @return {@link GeneratedPayloadSource}
+     */
+    public static GeneratedPayloadSource repeat(byte value, long length)
+    {
+        return new GeneratedPayloadSource(length, DEFAULT_CHUNK_SIZE, (chunk, offset) ->
+        {
+            while (chunk.hasRemaining())
+            {
+                chunk.put(value);
+            }
+        });
+    }
+
+    @Override
+    public Payload open()
+    {
+        return new GeneratedPayload();
+    }
+
+    @Override
+    public long length()
+    {
+        return length;
+    }
+
+    /**
+     * 块生成器
+     */
+    @FunctionalInterface
+    public interface ChunkGenerator
+    {
+        /**
+         * 填满chunk
+         *
+         * @param chunk  缓冲，处于写模式，position到limit之间需要填满
+         * @param offset 这一块在整个数据中的偏移量
+         */
+        void fill(ByteBuffer chunk, long offset);
+    }
+
+    /**
+     * 一个连接的生成进度
+     */
+    private final class GeneratedPayload implements Payload
+    {
+        /**
+         * 当前块，处于读模式，第一次写的时候分配
+         */
+        private ByteBuffer chunk;
+
+        /**
+         * 已经生成的字节数
+         */
+        private long generated;
+
+        @Override
+        public long writeTo(WritableByteChannel channel) throws IOException
+        {
+            long total = 0;
+            while (true)
+            {
+                if (chunk == null || !chunk.hasRemaining())
+                {
+                    if (generated == length)
+                    {
+                        break;
+                    }
+                    nextChunk();
+                }
+                int write = channel.write(chunk);
+                if (write <= 0)
+                {
+                    break;
+                }
+                total += write;
+            }
+            return total;
+        }
+
+        /**
+         * 生成下一块
+         */
+        private void nextChunk()
+        {
+            if (chunk == null)
+            {
+                chunk = ByteBuffer.allocate((int) Math.min(chunkSize, length));
+            }
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), length - generated));
+            generator.fill(chunk, generated);
+            chunk.flip();
+            generated += chunk.remaining();
+        }
+
+        @Override
+        public boolean isComplete()
+        {
+            return generated == length && (chunk == null || !chunk.hasRemaining());
+        }
+
+        @Override
+        public void close()
+        {
+            chunk = null;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package mao.utils;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): HashedTimingWheel
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 20:30
+ * Version(版本): 1.0
+ * Description(描述)： 哈希时间轮，和Netty的HashedWheelTimer思路一样，但是不自己开线程，
+ * 由事件循环驱动：select的超时时间取nanosUntilNextTick()，select返回后调用expireTimeouts()。
+ * 每个槽是一个双向链表，添加和取消都是O(1)，到期时只遍历当前槽。
+ * Timeout可以重复使用，重新调度不创建对象。不是线程安全的，只能在事件循环线程中使用
+ */
+
+public class HashedTimingWheel
+{
+    /**
+     * Timeout.bucket的值，表示已经到期、从轮子上摘下来了，但是任务还没有执行
+     */
+    private static final int EXPIRED = -2;
+
+    /**
+     * 槽
+     */
+    private final Timeout[] buckets;
+
+    /**
+     * 槽数量 - 1，槽数量是2的幂
+     */
+    private final int mask;
+
+    /**
+     * 每一格的时间，纳秒
+     */
+    private final long tickNanos;
+
+    /**
+     * 起始时间，所有时间都相对于它计算
+     */
+    private final long startNanos;
+
+    /**
+     * 下一个要处理的格
+     */
+    private long tick;
+
+    /**
+     * 已调度的Timeout数量
+     */
+    private int size;
+
+    /**
+     * 构造方法
+     *
+     * @param tickNanos  每一格的时间，纳秒，决定精度
+     * @param wheelSize  槽数量，会向上取整为2的幂
+     * @param startNanos 起始时间，System.nanoTime()
+     */
+    public HashedTimingWheel(long tickNanos, int wheelSize, long startNanos)
+    {
+        if (tickNanos <= 0)
+        {
+            throw new IllegalArgumentException("tickNanos必须大于0：" + tickNanos);
+        }
+        if (wheelSize <= 0 || wheelSize > 1 << 30)
+        {
+            throw new IllegalArgumentException("wheelSize必须在1到2^30之间：" + wheelSize);
+        }
+        int normalized = Integer.highestOneBit(wheelSize);
+        if (normalized < wheelSize)
+        {
+            normalized <<= 1;
+        }
+        this.buckets = new Timeout[normalized];
+        this.mask = normalized - 1;
+        this.tickNanos = tickNanos;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * 调度，已经调度过的Timeout会先取消
+     *
+     * @param timeout    超时
+     * @param delayNanos 延迟，纳秒
+     * @param nowNanos   当前时间
+     */
+    public void schedule(Timeout timeout, long delayNanos, long nowNanos)
+    {
+        cancel(timeout);
+        if (size == 0)
+        {
+            //轮子是空的时候select没有超时，tick可能落后很多，直接跳到当前格
+            tick = Math.max(tick, currentTick(nowNanos));
+        }
+        long deadlineTick = (nowNanos - startNanos + Math.max(delayNanos, 0) + tickNanos - 1) / tickNanos;
+        //已经过去的格不会再处理，放到下一个要处理的格
+        long targetTick = Math.max(deadlineTick, tick);
+        timeout.remainingRounds = (targetTick - tick) >>> Long.numberOfTrailingZeros(buckets.length);
+        int index = (int) (targetTick & mask);
+        Timeout head = buckets[index];
+        timeout.bucket = index;
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null)
+        {
+            head.prev = timeout;
+        }
+        buckets[index] = timeout;
+        size++;
+    }
+
+    /**
+     * 取消，没有调度时什么也不做。
+     * 同一格中到期、排在后面还没执行的Timeout也可以取消，它的任务不会再执行
+     *
+     * @param timeout 超时
+     */
+    public void cancel(Timeout timeout)
+    {
+        if (timeout.bucket == EXPIRED)
+        {
+            //已经摘下来了，不在槽中，也不计入size，只需要让它不执行
+            timeout.bucket = -1;
+            return;
+        }
+        if (timeout.bucket < 0)
+        {
+            return;
+        }
+        if (timeout.prev != null)
+        {
+            timeout.prev.next = timeout.next;
+        }
+        else
+        {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null)
+        {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        size--;
+    }
+
+    /**
+     * 处理到当前时间为止的所有格，执行到期的任务。
+     * 到期的Timeout先从轮子上摘下来再执行，任务中可以重新调度自己，
+     * 也可以取消或者重新调度同一格中还没执行的其它Timeout
+     *
+     * @param nowNanos 当前时间
+     * @return 执行的任务数量
+     */
+    public int expireTimeouts(long nowNanos)
+    {
+        long targetTick = currentTick(nowNanos);
+        if (size == 0)
+        {
+            tick = Math.max(tick, targetTick + 1);
+            return 0;
+        }
+        int expired = 0;
+        while (tick <= targetTick && size > 0)
+        {
+            //先把这一格到期的都摘下来，用nextExpired串成一个单链表，
+            //不能用next，前面的任务重新调度后面的Timeout时会改掉next
+            Timeout expiredHead = null;
+            Timeout timeout = buckets[(int) (tick & mask)];
+            while (timeout != null)
+            {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0)
+                {
+                    cancel(timeout);
+                    timeout.bucket = EXPIRED;
+                    timeout.nextExpired = expiredHead;
+                    expiredHead = timeout;
+                }
+                else
+                {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+            tick++;
+            //再执行，此时tick已经前进，重新调度不会落回正在处理的格
+            while (expiredHead != null)
+            {
+                Timeout next = expiredHead.nextExpired;
+                expiredHead.nextExpired = null;
+                //被前面的任务取消或者重新调度了的不执行
+                if (expiredHead.bucket == EXPIRED)
+                {
+                    expiredHead.bucket = -1;
+                    expiredHead.task.run(expiredHead, nowNanos);
+                    expired++;
+                }
+                expiredHead = next;
+            }
+        }
+        if (size == 0)
+        {
+            tick = Math.max(tick, targetTick + 1);
+        }
+        return expired;
+    }
+
+    /**
+     * 距离下一格还有多少纳秒，用作select的超时时间
+     *
+     * @param nowNanos 当前时间
+     * @return 纳秒，没有调度任何Timeout时返回-1，表示可以一直阻塞
+     */
+    public long nanosUntilNextTick(long nowNanos)
+    {
+        if (size == 0)
+        {
+            return -1;
+        }
+        return Math.max(0, startNanos + tick * tickNanos - nowNanos);
+    }
+
+    /**
+     * 已调度的Timeout数量
+     *
+     * @return int
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * 计算时间所在的格
+     *
+     * @param nowNanos 当前时间
+     * @return long
+     */
+    private long currentTick(long nowNanos)
+    {
+        return (nowNanos - startNanos) / tickNanos;
+    }
+
+    /**
+     * 到期时执行的任务
+     */
+    @FunctionalInterface
+    public interface TimeoutTask
+    {
+        /**
+         * 执行
+         *
+         * @param timeout  到期的Timeout，已经从轮子上摘下来，可以重新调度
+         * @param nowNanos 当前时间
+         */
+        void run(Timeout timeout, long nowNanos);
+    }
+
+    /**
+     * 一个定时任务，可以反复调度
+     */
+    public static final class Timeout
+    {
+        /**
+         * 任务
+         */
+        private final TimeoutTask task;
+
+        /**
+         * 附件
+         */
+        private final Object attachment;
+
+        /**
+         * 还要转几圈才到期
+         */
+        private long remainingRounds;
+
+        /**
+         * 所在的槽，没有调度时为-1，到期等待执行时为{@link #EXPIRED}
+         */
+        private int bucket = -1;
+
+        /**
+         * 槽中的前一个
+         */
+        private Timeout prev;
+
+        /**
+         * 槽中的后一个
+         */
+        private Timeout next;
+
+        /**
+         * 同一格中到期的下一个，只在expireTimeouts中使用
+         */
+        private Timeout nextExpired;
+
+        /**
+         * 构造方法
+         *
+         * @param task       任务
+         * @param attachment 附件，多个Timeout共用一个任务时用来区分
+         */
+        public Timeout(TimeoutTask task, Object attachment)
+        {
+            this.task = task;
+            this.attachment = attachment;
+        }
+
+        /**
+         * 得到附件
+         *
+         * @return {@link Object}
+         */
+        public Object getAttachment()
+        {
+            return attachment;
+        }
+
+        /**
+         * 是否已经调度
+         *
+         * @return boolean
+         */
+        public boolean isScheduled()
+        {
+            return bucket >= 0;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package mao.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): HexDumpBuffer
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 17:45
+ * Version(版本): 1.0
+ * Description(描述)： 可以重复使用的十六进制打印缓冲，内容都是ASCII，直接按字节保存。
+ * 扩容到够用之后再打印不会分配内存，可以直接写到输出流，也可以当作CharSequence使用。
+ * 不是线程安全的，每个线程一个
+ */
+
+public class HexDumpBuffer implements HexDumpSink, CharSequence
+{
+    /**
+     * 默认初始容量，够打印一个256字节的缓冲
+     */
+    private static final int DEFAULT_INITIAL_CAPACITY = 2048;
+
+    /**
+     * 内容
+     */
+    private byte[] bytes;
+
+    /**
+     * 内容长度
+     */
+    private int size;
+
+    /**
+     * 构造方法，使用默认的初始容量
+     */
+    public HexDumpBuffer()
+    {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param initialCapacity 初始容量
+     */
+    public HexDumpBuffer(int initialCapacity)
+    {
+        if (initialCapacity <= 0)
+        {
+            throw new IllegalArgumentException("initialCapacity必须大于0：" + initialCapacity);
+        }
+        this.bytes = new byte[initialCapacity];
+    }
+
+    @Override
+    public void append(char c)
+    {
+        if (size == bytes.length)
+        {
+            bytes = Arrays.copyOf(bytes, bytes.length << 1);
+        }
+        //打印的内容只有ASCII，其他字符不应该出现
+        bytes[size++] = c < 0x80 ? (byte) c : (byte) '?';
+    }
+
+    @Override
+    public void append(String s)
+    {
+        int length = s.length();
+        if (size + length > bytes.length)
+        {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, size + length));
+        }
+        for (int i = 0; i < length; i++)
+        {
+            char c = s.charAt(i);
+            bytes[size++] = c < 0x80 ? (byte) c : (byte) '?';
+        }
+    }
+
+    /**
+     * 清空内容，保留容量
+     */
+    public void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * 写到输出流
+     *
+     * @param out 输出流
+     * @throws IOException ioexception
+     */
+    public void writeTo(OutputStream out) throws IOException
+    {
+        out.write(bytes, 0, size);
+    }
+
+    /**
+     * 写到PrintStream，PrintStream不会抛出IOException
+     *
+     * @param out 输出流
+     */
+    public void writeTo(PrintStream out)
+    {
+        out.write(bytes, 0, size);
+    }
+
+    @Override
+    public int length()
+    {
+        return size;
+    }
+
+    @Override
+    public char charAt(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + size);
+        }
+        return (char) bytes[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end)
+    {
+        if (start < 0 || end > size || start > end)
+        {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + size);
+        }
+        return new String(bytes, start, end - start, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String toString()
+    {
+        return new String(bytes, 0, size, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,90 @@
+package mao.utils;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Interface(接口名): HexDumpSink
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 17:40
+ * Version(版本): 1.0
+ * Description(描述)： 十六进制打印的输出目标，由调用者提供并重复使用，
+ * 打印过程中只会追加ASCII字符，不会创建字符串
+ */
+
+public interface HexDumpSink
+{
+    /**
+     * 追加一个字符
+     *
+     * @param c 字符
+     */
+    void append(char c);
+
+    /**
+     * 追加一个字符串，一般是预先生成好的表格中的字符串
+     *
+     * @param s 字符串
+     */
+    default void append(String s)
+    {
+        for (int i = 0; i < s.length(); i++)
+        {
+            append(s.charAt(i));
+        }
+    }
+
+    /**
+     * 追加一个十进制整数，逐位追加，不创建字符串
+     *
+     * @param value 整数
+     */
+    default void append(int value)
+    {
+        if (value < 0)
+        {
+            append('-');
+            if (value == Integer.MIN_VALUE)
+            {
+                append("2147483648");
+                return;
+            }
+            value = -value;
+        }
+        int divisor = 1;
+        while (divisor <= value / 10)
+        {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10)
+        {
+            append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * 把StringBuilder包装成输出目标，StringBuilder可以setLength(0)后重复使用
+     *
+     * @param builder StringBuilder
+     * @return {@link HexDumpSink}
+     */
+    static HexDumpSink of(StringBuilder builder)
+    {
+        return new HexDumpSink()
+        {
+            @Override
+            public void append(char c)
+            {
+                builder.append(c);
+            }
+
+            @Override
+            public void append(String s)
+            {
+                builder.append(s);
+            }
+        };
+    }
+}
@@ -0,0 +1,233 @@
+package mao.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): LengthFieldFrameDecoder
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 14:15
+ * Version(版本): 1.0
+ * Description(描述)： 长度字段在前的消息解码器，格式见{@link LengthFieldType}。
+ * 只读消息开头的长度字段，然后等到读缓冲中有这么多字节，消息体一个字节也不扫描，可以是任意二进制数据。
+ * 半包时记下这条消息的总长度，{@link ChannelContext}据此把读缓冲一次扩到够用，不用一次次翻倍。
+ * 消息以视图的方式交给回调，默认包含长度字段（和LineFrameDecoder包含'\n'一样，原样回写就是合法的消息），
+ * 消息超过最大长度时抛出{@link TooLongFrameException}
+ */
+
+public class LengthFieldFrameDecoder implements FrameDecoder
+{
+    /**
+     * 长度字段的格式
+     */
+    private final LengthFieldType lengthFieldType;
+
+    /**
+     * 最大消息长度，包含长度字段
+     */
+    private final int maxFrameLength;
+
+    /**
+     * 交给回调的消息是否去掉长度字段
+     */
+    private final boolean stripHeader;
+
+    /**
+     * 当前读缓冲
+     */
+    private ByteBuffer source;
+
+    /**
+     * 读长度字段用的视图，duplicate出来的一定是大端，不受读缓冲字节序的影响
+     */
+    private ByteBuffer headerView;
+
+    /**
+     * 交给回调的消息视图，复用同一个对象
+     */
+    private ByteBuffer frameView;
+
+    /**
+     * 最近一次解析出的长度字段占的字节数
+     */
+    private int headerLength;
+
+    /**
+     * 读缓冲开头那条不完整的消息的总长度，长度字段还没读全或者没有半包时为-1
+     */
+    private int pendingFrameLength = -1;
+
+    /**
+     * 构造方法，最大消息长度为{@link FrameDecoder#DEFAULT_MAX_FRAME_LENGTH}，消息包含长度字段
+     *
+     * @param lengthFieldType 长度字段的格式
+     */
+    public LengthFieldFrameDecoder(LengthFieldType lengthFieldType)
+    {
+        this(lengthFieldType, DEFAULT_MAX_FRAME_LENGTH, false);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param lengthFieldType 长度字段的格式
+     * @param maxFrameLength  最大消息长度，包含长度字段
+     * @param stripHeader     交给回调的消息是否去掉长度字段
+     */
+    public LengthFieldFrameDecoder(LengthFieldType lengthFieldType, int maxFrameLength, boolean stripHeader)
+    {
+        if (maxFrameLength <= lengthFieldType.getMaxHeaderLength())
+        {
+            throw new IllegalArgumentException("maxFrameLength必须大于长度字段的长度：" + maxFrameLength);
+        }
+        this.lengthFieldType = lengthFieldType;
+        this.maxFrameLength = maxFrameLength;
+        this.stripHeader = stripHeader;
+    }
+
+    @Override
+    public void decode(ByteBuffer buffer, FrameListener listener)
+    {
+        if (buffer != source)
+        {
+            //读缓冲换了（扩容或者重新从池中取），视图跟着换
+            source = buffer;
+            headerView = buffer.duplicate();
+            frameView = buffer.duplicate();
+        }
+        //切换到读模式
+        buffer.flip();
+        int frameStart = buffer.position();
+        int limit = buffer.limit();
+        headerView.limit(limit);
+        pendingFrameLength = -1;
+        while (frameStart < limit)
+        {
+            int bodyLength = readLength(frameStart, limit);
+            if (bodyLength == -1)
+            {
+                //长度字段还没读全
+                break;
+            }
+            long frameLength = (long) headerLength + bodyLength;
+            if (frameLength > maxFrameLength)
+            {
+                //只看长度字段就知道太长了，不需要等消息体
+                throw tooLongFrame(frameLength);
+            }
+            int frameEnd = frameStart + (int) frameLength;
+            if (frameEnd > limit)
+            {
+                pendingFrameLength = (int) frameLength;
+                break;
+            }
+            //先设置limit再设置position，保证position <= limit
+            frameView.limit(frameEnd);
+            frameView.position(stripHeader ? frameStart + headerLength : frameStart);
+            listener.onFrame(frameView);
+            frameStart = frameEnd;
+        }
+        if (frameStart == 0)
+        {
+            //没有完整的消息，直接恢复写模式，不需要移动数据
+            buffer.position(limit);
+            buffer.limit(buffer.capacity());
+        }
+        else
+        {
+            //切换到写模式，没读完的部分移到开头，只移动一次
+            buffer.position(frameStart);
+            buffer.compact();
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+        pendingFrameLength = -1;
+    }
+
+    /**
+     * 读缓冲开头那条不完整的消息的总长度
+     *
+     * @return int，不知道时返回-1
+     */
+    @Override
+    public int pendingFrameLength()
+    {
+        return pendingFrameLength;
+    }
+
+    /**
+     * 读取index处的长度字段，长度字段占的字节数保存在headerLength中，不移动position
+     *
+     * @param index 长度字段的位置
+     * @param limit 可读数据的结束位置
+     * @return 消息体长度，长度字段还没读全时返回-1
+     * @throws TooLongFrameException 长度超过了int的范围
+     */
+    private int readLength(int index, int limit)
+    {
+        switch (lengthFieldType)
+        {
+            case INT16:
+                if (limit - index < 2)
+                {
+                    return -1;
+                }
+                headerLength = 2;
+                return headerView.getShort(index) & 0xFFFF;
+            case INT32:
+                if (limit - index < 4)
+                {
+                    return -1;
+                }
+                headerLength = 4;
+                int length = headerView.getInt(index);
+                if (length < 0)
+                {
+                    //无符号时超过2GB，当成太长处理
+                    throw tooLongFrame(length & 0xFFFFFFFFL);
+                }
+                return length;
+            default:
+                int value = 0;
+                int maxIndex = Math.min(limit, index + LengthFieldType.VARINT.getMaxHeaderLength());
+                for (int i = index; i < maxIndex; i++)
+                {
+                    byte b = headerView.get(i);
+                    value |= (b & 0x7F) << (7 * (i - index));
+                    if (b >= 0)
+                    {
+                        headerLength = i - index + 1;
+                        //第5个字节只有低4位能放进int，超过了或者第31位是1都说明超过了int的正数范围
+                        if (headerLength == LengthFieldType.VARINT.getMaxHeaderLength() && b > 0x07)
+                        {
+                            throw new TooLongFrameException("varint长度字段超过了int的范围");
+                        }
+                        return value;
+                    }
+                }
+                if (maxIndex - index == LengthFieldType.VARINT.getMaxHeaderLength())
+                {
+                    throw new TooLongFrameException("varint长度字段超过5个字节");
+                }
+                return -1;
+        }
+    }
+
+    /**
+     * 创建消息太长的异常
+     *
+     * @param length 消息长度
+     * @return {@link TooLongFrameException}
+     */
+    private TooLongFrameException tooLongFrame(long length)
+    {
+        return new TooLongFrameException("消息长度 " + length + " 超过了最大长度 " + maxFrameLength);
+    }
+}
@@ -0,0 +1,135 @@
+package mao.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): LengthFieldFrameEncoder
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 14:40
+ * Version(版本): 1.0
+ * Description(描述)： 长度字段在前的消息编码器，和{@link LengthFieldFrameDecoder}对应。
+ * 长度字段和消息体是两个ByteBuffer，用一次gathering write写出去，消息体不需要拷贝到一个新的缓冲后面。
+ * 有状态（复用长度字段的缓冲），每个连接或者每个线程一个
+ */
+
+public class LengthFieldFrameEncoder
+{
+    /**
+     * 长度字段的格式
+     */
+    private final LengthFieldType lengthFieldType;
+
+    /**
+     * 长度字段的缓冲，直接内存，写通道时不用再拷贝到临时直接内存
+     */
+    private final ByteBuffer header;
+
+    /**
+     * gathering write的数组，长度字段和消息体
+     */
+    private final ByteBuffer[] frame = new ByteBuffer[2];
+
+    /**
+     * 构造方法
+     *
+     * @param lengthFieldType 长度字段的格式
+     */
+    public LengthFieldFrameEncoder(LengthFieldType lengthFieldType)
+    {
+        this.lengthFieldType = lengthFieldType;
+        this.header = ByteBuffer.allocateDirect(lengthFieldType.getMaxHeaderLength());
+    }
+
+    /**
+     * 写入长度字段
+     *
+     * @param dst        目标缓冲，处于写模式
+     * @param bodyLength 消息体长度
+     * @throws IllegalArgumentException 消息体超过了长度字段能表示的范围
+     */
+    public void writeHeader(ByteBuffer dst, int bodyLength)
+    {
+        if (bodyLength < 0 || bodyLength > lengthFieldType.getMaxBodyLength())
+        {
+            throw new IllegalArgumentException("消息体长度" + bodyLength + "超过了" + lengthFieldType + "能表示的范围");
+        }
+        switch (lengthFieldType)
+        {
+            case INT16:
+                dst.putShort((short) bodyLength);
+                break;
+            case INT32:
+                dst.putInt(bodyLength);
+                break;
+            default:
+                int value = bodyLength;
+                while ((value & ~0x7F) != 0)
+                {
+                    dst.put((byte) ((value & 0x7F) | 0x80));
+                    value >>>= 7;
+                }
+                dst.put((byte) value);
+                break;
+        }
+    }
+
+    /**
+     * 把一条消息加入写队列：长度字段拷贝一份，消息体原样加入不拷贝，
+     * 写队列flush时两者在同一次gathering write中写出。
+     * 消息体写完之前调用者不能修改它
+     *
+     * @param body           消息体，处于读模式
+     * @param outboundBuffer 写队列
+     */
+    public void encode(ByteBuffer body, OutboundBuffer outboundBuffer)
+    {
+        header.clear();
+        writeHeader(header, body.remaining());
+        header.flip();
+        outboundBuffer.addCopy(header);
+        outboundBuffer.add(body);
+    }
+
+    /**
+     * 把一条消息直接写到通道，长度字段和消息体一次gathering write。
+     * 只用于阻塞通道（例如虚拟线程或者客户端），会一直写到全部写完，非阻塞通道请用写队列
+     *
+     * @param channel 阻塞通道
+     * @param body    消息体，处于读模式，返回后position等于limit
+     * @return 写出去的字节数
+     * @throws IOException IOException
+     */
+    public long write(GatheringByteChannel channel, ByteBuffer body) throws IOException
+    {
+        header.clear();
+        writeHeader(header, body.remaining());
+        header.flip();
+        frame[0] = header;
+        frame[1] = body;
+        long written = 0;
+        try
+        {
+            while (body.hasRemaining() || header.hasRemaining())
+            {
+                written += channel.write(frame);
+            }
+        }
+        finally
+        {
+            frame[1] = null;
+        }
+        return written;
+    }
+
+    public LengthFieldType getLengthFieldType()
+    {
+        return lengthFieldType;
+    }
+}
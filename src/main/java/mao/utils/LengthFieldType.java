@@ -0,0 +1,80 @@
+package mao.utils;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Enum(枚举名): LengthFieldType
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 14:10
+ * Version(版本): 1.0
+ * Description(描述)： 长度字段的格式，长度字段的值是消息体的长度，不包含长度字段本身
+ */
+
+public enum LengthFieldType
+{
+    /**
+     * 2个字节，大端，无符号，消息体最长65535
+     */
+    INT16(2, 0xFFFF),
+
+    /**
+     * 4个字节，大端，不能是负数
+     */
+    INT32(4, Integer.MAX_VALUE),
+
+    /**
+     * 和protobuf一样的varint，每个字节低7位是数据，最高位为1表示后面还有，低位在前，最多5个字节
+     */
+    VARINT(5, Integer.MAX_VALUE);
+
+    /**
+     * 长度字段最多占的字节数
+     */
+    private final int maxHeaderLength;
+
+    /**
+     * 消息体的最大长度
+     */
+    private final int maxBodyLength;
+
+    /**
+     * 构造方法
+     *
+     * @param maxHeaderLength 长度字段最多占的字节数
+     * @param maxBodyLength   消息体的最大长度
+     */
+    LengthFieldType(int maxHeaderLength, int maxBodyLength)
+    {
+        this.maxHeaderLength = maxHeaderLength;
+        this.maxBodyLength = maxBodyLength;
+    }
+
+    /**
+     * 消息体长度为bodyLength时长度字段占的字节数
+     *
+     * @param bodyLength 消息体长度
+     * @return int
+     */
+    public int headerLength(int bodyLength)
+    {
+        if (this != VARINT)
+        {
+            return maxHeaderLength;
+        }
+        //每7位一个字节，0时31 - 32 = -1，除以7得0，也占一个字节
+        return (31 - Integer.numberOfLeadingZeros(bodyLength)) / 7 + 1;
+    }
+
+    public int getMaxHeaderLength()
+    {
+        return maxHeaderLength;
+    }
+
+    public int getMaxBodyLength()
+    {
+        return maxBodyLength;
+    }
+}
@@ -0,0 +1,192 @@
+package mao.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): LineFrameDecoder
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 11:40
+ * Version(版本): 1.0
+ * Description(描述)： 以'\n'为分隔符的消息解码器，消息包含末尾的'\n'。
+ * 一次比较8个字节查找分隔符，消息以视图的方式交给回调，不拷贝数据，
+ * 记录已经扫描过的位置，半包的数据下一次读事件不会重新扫描。
+ * 消息超过最大长度时抛出{@link TooLongFrameException}
+ */
+
+public class LineFrameDecoder implements FrameDecoder
+{
+    /**
+     * 分隔符
+     */
+    private static final byte DELIMITER = '\n';
+
+    /**
+     * 每个字节都是分隔符的long
+     */
+    private static final long DELIMITER_PATTERN = 0x0A0A0A0A0A0A0A0AL;
+
+    /**
+     * 每个字节都是0x01的long
+     */
+    private static final long LOW_BITS = 0x0101010101010101L;
+
+    /**
+     * 每个字节都是0x80的long
+     */
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    /**
+     * 最大消息长度，包含'\n'
+     */
+    private final int maxFrameLength;
+
+    /**
+     * 下一次从哪里开始扫描，之前的数据已经确认不包含分隔符
+     */
+    private int scanIndex;
+
+    /**
+     * 当前读缓冲
+     */
+    private ByteBuffer source;
+
+    /**
+     * 扫描用的小端视图，第一个字节在long的最低位
+     */
+    private ByteBuffer scanView;
+
+    /**
+     * 交给回调的消息视图，复用同一个对象
+     */
+    private ByteBuffer frameView;
+
+    /**
+     * 构造方法，最大消息长度为{@link FrameDecoder#DEFAULT_MAX_FRAME_LENGTH}
+     */
+    public LineFrameDecoder()
+    {
+        this(DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param maxFrameLength 最大消息长度，包含'\n'
+     */
+    public LineFrameDecoder(int maxFrameLength)
+    {
+        if (maxFrameLength <= 0)
+        {
+            throw new IllegalArgumentException("maxFrameLength必须大于0：" + maxFrameLength);
+        }
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    @Override
+    public void decode(ByteBuffer buffer, FrameListener listener)
+    {
+        if (buffer != source)
+        {
+            //读缓冲换了（扩容或者重新从池中取），视图跟着换
+            source = buffer;
+            scanView = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            frameView = buffer.duplicate();
+        }
+        //切换到读模式
+        buffer.flip();
+        int frameStart = buffer.position();
+        int limit = buffer.limit();
+        scanView.limit(limit);
+        int index = Math.max(scanIndex, frameStart);
+        while ((index = indexOf(index, limit)) != -1)
+        {
+            int frameEnd = index + 1;
+            if (frameEnd - frameStart > maxFrameLength)
+            {
+                throw tooLongFrame(frameEnd - frameStart);
+            }
+            //先设置limit再设置position，保证position <= limit
+            frameView.limit(frameEnd);
+            frameView.position(frameStart);
+            listener.onFrame(frameView);
+            frameStart = frameEnd;
+            index = frameEnd;
+        }
+        if (limit - frameStart > maxFrameLength)
+        {
+            //还没有找到分隔符就已经超过最大长度了，不需要等剩下的部分
+            throw tooLongFrame(limit - frameStart);
+        }
+        //没有找到分隔符的部分已经扫描过了
+        scanIndex = limit - frameStart;
+        if (frameStart == 0)
+        {
+            //没有完整的消息，直接恢复写模式，不需要移动数据
+            buffer.position(limit);
+            buffer.limit(buffer.capacity());
+        }
+        else
+        {
+            //切换到写模式，没读完的部分移到开头，只移动一次
+            buffer.position(frameStart);
+            buffer.compact();
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+        //读缓冲换了会在decode时发现，这里只需要重新从头扫描
+        scanIndex = 0;
+    }
+
+    /**
+     * 创建消息太长的异常
+     *
+     * @param length 消息长度
+     * @return {@link TooLongFrameException}
+     */
+    private TooLongFrameException tooLongFrame(int length)
+    {
+        return new TooLongFrameException("消息长度 " + length + " 超过了最大长度 " + maxFrameLength);
+    }
+
+    /**
+     * 查找分隔符，8个字节一组比较，剩下不足8个的逐个比较
+     *
+     * @param from 开始位置
+     * @param to   结束位置（不包含）
+     * @return 分隔符的位置，没有找到返回-1
+     */
+    private int indexOf(int from, int to)
+    {
+        int index = from;
+        int wordEnd = to - Long.BYTES;
+        while (index <= wordEnd)
+        {
+            long word = scanView.getLong(index) ^ DELIMITER_PATTERN;
+            //等于分隔符的字节变成了0，找出第一个为0的字节
+            long found = (word - LOW_BITS) & ~word & HIGH_BITS;
+            if (found != 0)
+            {
+                return index + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+            index += Long.BYTES;
+        }
+        while (index < to)
+        {
+            if (scanView.get(index) == DELIMITER)
+            {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+}
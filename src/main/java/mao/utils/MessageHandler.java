@@ -0,0 +1,29 @@
+package mao.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Interface(接口名): MessageHandler
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 22:40
+ * Version(版本): 1.0
+ * Description(描述)： 业务处理，和服务器引擎无关，同一个实现可以跑在t6、t8和t9上。
+ * 一个实例被所有连接、所有线程共用，必须是线程安全的
+ */
+
+@FunctionalInterface
+public interface MessageHandler
+{
+    /**
+     * 处理一条完整的消息
+     *
+     * @param message 消息，包含结尾的'\n'，只在回调期间有效，需要保留时自己拷贝
+     * @param writer  回写数据
+     */
+    void onMessage(ByteBuffer message, MessageWriter writer);
+}
@@ -0,0 +1,27 @@
+package mao.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Interface(接口名): MessageWriter
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 22:40
+ * Version(版本): 1.0
+ * Description(描述)： 回写数据，由服务器引擎实现：手写的reactor(t6)、虚拟线程(t8)和Netty(t9)。
+ * 写入的数据先排队，一次读事件处理完后由引擎统一写出
+ */
+
+public interface MessageWriter
+{
+    /**
+     * 拷贝一份数据排队等待写出，data的position会移动到limit，调用之后data可以继续复用
+     *
+     * @param data 数据，处于读模式
+     */
+    void write(ByteBuffer data);
+}
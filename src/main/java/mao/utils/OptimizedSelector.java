@@ -0,0 +1,314 @@
+package mao.utils;
+
+import io.netty.util.internal.PlatformDependent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): OptimizedSelector
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 19:20
+ * Version(版本): 1.0
+ * Description(描述)： Selector的包装，和Netty一样把sun.nio.ch.SelectorImpl内部的selectedKeys
+ * 替换成数组实现的SelectedSelectionKeySet，每次事件不再创建迭代器、计算hash和iterator.remove()。
+ * 先通过Netty的PlatformDependent用Unsafe按字段偏移量写入，不行再用反射，都不行（或者-Dmao.selector.noKeySetOptimization=true）
+ * 就退回到普通的HashSet遍历，行为不变。
+ * 和Selector一样，选择、处理事件和重建只能在一个线程中进行，wakeup()可以在任何线程调用
+ */
+
+public final class OptimizedSelector implements Closeable
+{
+    /**
+     * 日志
+     */
+    private static final Logger log = LoggerFactory.getLogger(OptimizedSelector.class);
+
+    /**
+     * 是否关闭优化
+     */
+    private static final boolean NO_KEY_SET_OPTIMIZATION = Boolean.getBoolean("mao.selector.noKeySetOptimization");
+
+    /**
+     * 用来创建Selector，重建时使用
+     */
+    private final SelectorProvider selectorProvider;
+
+    /**
+     * 是否替换就绪事件集合，重建时使用
+     */
+    private final boolean keySetOptimization;
+
+    /**
+     * 被包装的Selector，重建后会换成新的，其他线程调用wakeup()时要能马上看到
+     */
+    private volatile Selector selector;
+
+    /**
+     * 数组实现的就绪事件集合，没有替换成功时为null
+     */
+    private SelectedSelectionKeySet selectedKeySet;
+
+    /**
+     * 构造方法
+     *
+     * @param selectorProvider   用来创建Selector
+     * @param keySetOptimization 是否替换就绪事件集合
+     * @param selector           被包装的Selector
+     */
+    private OptimizedSelector(SelectorProvider selectorProvider, boolean keySetOptimization, Selector selector)
+    {
+        this.selectorProvider = selectorProvider;
+        this.keySetOptimization = keySetOptimization;
+        this.selector = selector;
+        this.selectedKeySet = keySetOptimization ? replaceSelectedKeys(selector) : null;
+    }
+
+    /**
+     * 用默认的SelectorProvider创建
+     *
+     * @return {@link OptimizedSelector}
+     * @throws IOException ioexception
+     */
+    public static OptimizedSelector open() throws IOException
+    {
+        return open(SelectorProvider.provider());
+    }
+
+    /**
+     * 用指定的SelectorProvider创建
+     *
+     * @param selectorProvider 选择器提供者
+     * @return {@link OptimizedSelector}
+     * @throws IOException ioexception
+     */
+    public static OptimizedSelector open(SelectorProvider selectorProvider) throws IOException
+    {
+        return open(selectorProvider, !NO_KEY_SET_OPTIMIZATION);
+    }
+
+    /**
+     * 用指定的SelectorProvider创建
+     *
+     * @param selectorProvider   选择器提供者
+     * @param keySetOptimization 是否替换就绪事件集合，false时和直接使用Selector一样
+     * @return {@link OptimizedSelector}
+     * @throws IOException ioexception
+     */
+    public static OptimizedSelector open(SelectorProvider selectorProvider, boolean keySetOptimization)
+            throws IOException
+    {
+        return new OptimizedSelector(selectorProvider, keySetOptimization, selectorProvider.openSelector());
+    }
+
+    /**
+     * 重建Selector：创建一个新的Selector，把所有有效的通道连同关注的事件和附件注册过去，
+     * 然后关闭旧的。用于绕过JDK epoll空轮询的bug，只能在选择事件的线程中调用
+     *
+     * @param onMigrationFailure 通道迁移失败时的回调，参数是旧的SelectionKey，仍然有效，
+     *                           由调用方关闭连接并释放附件
+     * @return 迁移的通道数量
+     * @throws IOException 创建新的Selector失败
+     */
+    public int rebuild(Consumer<SelectionKey> onMigrationFailure) throws IOException
+    {
+        Selector oldSelector = selector;
+        Selector newSelector = selectorProvider.openSelector();
+        SelectedSelectionKeySet newSelectedKeySet = keySetOptimization ? replaceSelectedKeys(newSelector) : null;
+        int migrated = 0;
+        for (SelectionKey selectionKey : oldSelector.keys())
+        {
+            if (!selectionKey.isValid() || selectionKey.channel().keyFor(newSelector) != null)
+            {
+                continue;
+            }
+            try
+            {
+                //先注册到新的Selector，成功后再取消旧的，失败时旧的SelectionKey还能用来清理
+                selectionKey.channel().register(newSelector, selectionKey.interestOps(), selectionKey.attachment());
+                selectionKey.cancel();
+                migrated++;
+            }
+            catch (Exception e)
+            {
+                log.warn("通道迁移到新的Selector失败：{}", selectionKey.channel(), e);
+                onMigrationFailure.accept(selectionKey);
+            }
+        }
+        selectedKeySet = newSelectedKeySet;
+        selector = newSelector;
+        try
+        {
+            oldSelector.close();
+        }
+        catch (IOException e)
+        {
+            log.warn("关闭旧的Selector失败", e);
+        }
+        return migrated;
+    }
+
+    /**
+     * 替换Selector内部的selectedKeys和publicSelectedKeys
+     *
+     * @param selector 刚创建的Selector
+     * @return {@link SelectedSelectionKeySet}，失败时返回null
+     */
+    private static SelectedSelectionKeySet replaceSelectedKeys(Selector selector)
+    {
+        try
+        {
+            Class<?> selectorImplClass = Class.forName("sun.nio.ch.SelectorImpl", false,
+                    ClassLoader.getSystemClassLoader());
+            if (!selectorImplClass.isAssignableFrom(selector.getClass()))
+            {
+                log.debug("不是sun.nio.ch.SelectorImpl，不替换就绪事件集合：{}", selector.getClass().getName());
+                return null;
+            }
+            Field selectedKeysField = selectorImplClass.getDeclaredField("selectedKeys");
+            Field publicSelectedKeysField = selectorImplClass.getDeclaredField("publicSelectedKeys");
+            SelectedSelectionKeySet selectedKeySet = new SelectedSelectionKeySet();
+            if (PlatformDependent.hasUnsafe())
+            {
+                //JDK9以后sun.nio.ch没有开放给反射，Unsafe按偏移量写不需要setAccessible
+                PlatformDependent.putObject(selector, PlatformDependent.objectFieldOffset(selectedKeysField),
+                        selectedKeySet);
+                PlatformDependent.putObject(selector, PlatformDependent.objectFieldOffset(publicSelectedKeysField),
+                        selectedKeySet);
+            }
+            else
+            {
+                //需要--add-opens java.base/sun.nio.ch=ALL-UNNAMED
+                selectedKeysField.setAccessible(true);
+                publicSelectedKeysField.setAccessible(true);
+                selectedKeysField.set(selector, selectedKeySet);
+                publicSelectedKeysField.set(selector, selectedKeySet);
+            }
+            return selectedKeySet;
+        }
+        catch (Throwable e)
+        {
+            log.debug("不能替换就绪事件集合，使用HashSet：{}", e);
+            return null;
+        }
+    }
+
+    /**
+     * 处理所有就绪事件，处理完后就绪事件集合为空。
+     * handler抛出异常时剩下的事件被丢弃，和原来iterator.remove()之前抛出异常的效果一样，
+     * 没有处理的事件在下一次select时会再次就绪
+     *
+     * @param handler 处理程序
+     * @throws IOException ioexception
+     */
+    public void processSelectedKeys(SelectedKeyHandler handler) throws IOException
+    {
+        if (selectedKeySet != null)
+        {
+            SelectionKey[] keys = selectedKeySet.keys;
+            int size = selectedKeySet.size;
+            int i = 0;
+            try
+            {
+                for (; i < size; i++)
+                {
+                    SelectionKey selectionKey = keys[i];
+                    //置为null，连接关闭后SelectionKey和附件可以被回收
+                    keys[i] = null;
+                    handler.handle(selectionKey);
+                }
+            }
+            finally
+            {
+                selectedKeySet.reset(i);
+            }
+        }
+        else
+        {
+            Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            try
+            {
+                while (iterator.hasNext())
+                {
+                    SelectionKey selectionKey = iterator.next();
+                    iterator.remove();
+                    handler.handle(selectionKey);
+                }
+            }
+            finally
+            {
+                selector.selectedKeys().clear();
+            }
+        }
+    }
+
+    /**
+     * 是否替换了就绪事件集合
+     *
+     * @return boolean
+     */
+    public boolean isOptimized()
+    {
+        return selectedKeySet != null;
+    }
+
+    /**
+     * 得到被包装的Selector，注册通道时使用
+     *
+     * @return {@link Selector}
+     */
+    public Selector unwrap()
+    {
+        return selector;
+    }
+
+    public int select() throws IOException
+    {
+        return selector.select();
+    }
+
+    public int select(long timeout) throws IOException
+    {
+        return selector.select(timeout);
+    }
+
+    public int selectNow() throws IOException
+    {
+        return selector.selectNow();
+    }
+
+    public Selector wakeup()
+    {
+        return selector.wakeup();
+    }
+
+    public Set<SelectionKey> keys()
+    {
+        return selector.keys();
+    }
+
+    public boolean isOpen()
+    {
+        return selector.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        selector.close();
+    }
+}
@@ -0,0 +1,352 @@
+package mao.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): OutboundBuffer
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 14:02
+ * Version(版本): 1.0
+ * Description(描述)： 连接的写队列，多个待写的ByteBuffer合并成一次 write(ByteBuffer[]) 写出去。
+ * 待写字节数超过高水位时变成不可写，降到低水位以下时恢复可写，生产者根据它限流。
+ * 不是线程安全的，只能在连接所属的线程中使用
+ */
+
+public class OutboundBuffer
+{
+    /**
+     * 默认低水位
+     */
+    public static final int DEFAULT_LOW_WATER_MARK = 32 * 1024;
+
+    /**
+     * 默认高水位
+     */
+    public static final int DEFAULT_HIGH_WATER_MARK = 64 * 1024;
+
+    /**
+     * 一次 write(ByteBuffer[]) 最多写多少个ByteBuffer，linux的IOV_MAX是1024
+     */
+    private static final int MAX_GATHERING_BUFFERS = 1024;
+
+    /**
+     * 一次flush最多调用几次write，防止一个连接占用太久
+     */
+    private static final int WRITE_SPIN_COUNT = 16;
+
+    /**
+     * 分配器，拷贝进来的数据从这里分配，写完之后归还
+     */
+    private final BufferAllocator allocator;
+
+    /**
+     * 低水位
+     */
+    private final int lowWaterMark;
+
+    /**
+     * 高水位
+     */
+    private final int highWaterMark;
+
+    /**
+     * 环形队列
+     */
+    private ByteBuffer[] buffers = new ByteBuffer[16];
+
+    /**
+     * 队列中的ByteBuffer是否是从分配器分配的
+     */
+    private boolean[] pooled = new boolean[16];
+
+    /**
+     * 队头
+     */
+    private int head;
+
+    /**
+     * 队列中的数量
+     */
+    private int size;
+
+    /**
+     * 交给 write(ByteBuffer[]) 的数组，复用
+     */
+    private ByteBuffer[] nioBuffers = new ByteBuffer[16];
+
+    /**
+     * 待写字节数
+     */
+    private long pendingBytes;
+
+    /**
+     * 是否可写
+     */
+    private boolean writable = true;
+
+    /**
+     * 可写状态变化时的回调，可以为null
+     */
+    private WritabilityListener writabilityListener;
+
+    /**
+     * 构造方法，使用默认的高低水位
+     *
+     * @param allocator 分配器
+     */
+    public OutboundBuffer(BufferAllocator allocator)
+    {
+        this(allocator, DEFAULT_LOW_WATER_MARK, DEFAULT_HIGH_WATER_MARK);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param allocator     分配器
+     * @param lowWaterMark  低水位
+     * @param highWaterMark 高水位
+     */
+    public OutboundBuffer(BufferAllocator allocator, int lowWaterMark, int highWaterMark)
+    {
+        if (lowWaterMark < 0 || highWaterMark < lowWaterMark)
+        {
+            throw new IllegalArgumentException("需要满足 0 <= lowWaterMark <= highWaterMark：" +
+                    lowWaterMark + ", " + highWaterMark);
+        }
+        this.allocator = allocator;
+        this.lowWaterMark = lowWaterMark;
+        this.highWaterMark = highWaterMark;
+    }
+
+    /**
+     * 加入一个待写的ByteBuffer，处于读模式，写完之前调用者不能再修改它
+     *
+     * @param buffer 缓冲
+     */
+    public void add(ByteBuffer buffer)
+    {
+        addEntry(buffer, false);
+    }
+
+    /**
+     * 把数据拷贝到从分配器分配的ByteBuffer中再加入队列，data的position会移动到limit
+     *
+     * @param data 数据，处于读模式
+     */
+    public void addCopy(ByteBuffer data)
+    {
+        ByteBuffer copy = allocator.allocate(data.remaining());
+        copy.put(data);
+        copy.flip();
+        addEntry(copy, true);
+    }
+
+    /**
+     * 写队列中的数据，直到写完、socket发送缓冲区满了或者达到写次数上限
+     *
+     * @param channel 通道
+     * @return 写出去的字节数
+     * @throws IOException ioexception
+     */
+    public long flush(GatheringByteChannel channel) throws IOException
+    {
+        long total = 0;
+        for (int spin = 0; spin < WRITE_SPIN_COUNT && size > 0; spin++)
+        {
+            int count = Math.min(size, MAX_GATHERING_BUFFERS);
+            if (nioBuffers.length < count)
+            {
+                nioBuffers = new ByteBuffer[Math.min(Integer.highestOneBit(count - 1) << 1, MAX_GATHERING_BUFFERS)];
+            }
+            long attempted = 0;
+            int mask = buffers.length - 1;
+            for (int i = 0; i < count; i++)
+            {
+                ByteBuffer buffer = buffers[(head + i) & mask];
+                nioBuffers[i] = buffer;
+                attempted += buffer.remaining();
+            }
+            long written = count == 1 ? channel.write(nioBuffers[0]) : channel.write(nioBuffers, 0, count);
+            //清掉引用，防止写完的ByteBuffer被数组持有
+            for (int i = 0; i < count; i++)
+            {
+                nioBuffers[i] = null;
+            }
+            if (written <= 0)
+            {
+                //socket发送缓冲区满了，等OP_WRITE
+                break;
+            }
+            total += written;
+            removeWritten();
+            if (written < attempted)
+            {
+                //没有写完，socket发送缓冲区满了
+                break;
+            }
+        }
+        if (total > 0)
+        {
+            pendingBytes -= total;
+            if (!writable && pendingBytes <= lowWaterMark)
+            {
+                setWritable(true);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 释放队列中所有的ByteBuffer，连接关闭时调用
+     */
+    public void release()
+    {
+        int mask = buffers.length - 1;
+        for (int i = 0; i < size; i++)
+        {
+            int index = (head + i) & mask;
+            if (pooled[index])
+            {
+                allocator.release(buffers[index]);
+            }
+            buffers[index] = null;
+        }
+        head = 0;
+        size = 0;
+        pendingBytes = 0;
+    }
+
+    /**
+     * 队列是否为空
+     *
+     * @return boolean
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * 是否可写，不可写时生产者应该暂停
+     *
+     * @return boolean
+     */
+    public boolean isWritable()
+    {
+        return writable;
+    }
+
+    /**
+     * 得到待写字节数
+     *
+     * @return long
+     */
+    public long getPendingBytes()
+    {
+        return pendingBytes;
+    }
+
+    /**
+     * 设置可写状态变化时的回调
+     *
+     * @param writabilityListener 回调
+     */
+    public void setWritabilityListener(WritabilityListener writabilityListener)
+    {
+        this.writabilityListener = writabilityListener;
+    }
+
+    /**
+     * 加入队尾
+     *
+     * @param buffer 缓冲
+     * @param isPooled 是否是从分配器分配的
+     */
+    private void addEntry(ByteBuffer buffer, boolean isPooled)
+    {
+        if (!buffer.hasRemaining())
+        {
+            if (isPooled)
+            {
+                allocator.release(buffer);
+            }
+            return;
+        }
+        if (size == buffers.length)
+        {
+            doubleCapacity();
+        }
+        int index = (head + size) & (buffers.length - 1);
+        buffers[index] = buffer;
+        pooled[index] = isPooled;
+        size++;
+        pendingBytes += buffer.remaining();
+        if (writable && pendingBytes > highWaterMark)
+        {
+            setWritable(false);
+        }
+    }
+
+    /**
+     * 移除队头已经写完的ByteBuffer
+     */
+    private void removeWritten()
+    {
+        int mask = buffers.length - 1;
+        while (size > 0)
+        {
+            ByteBuffer buffer = buffers[head];
+            if (buffer.hasRemaining())
+            {
+                return;
+            }
+            if (pooled[head])
+            {
+                allocator.release(buffer);
+            }
+            buffers[head] = null;
+            head = (head + 1) & mask;
+            size--;
+        }
+    }
+
+    /**
+     * 队列扩容为两倍
+     */
+    private void doubleCapacity()
+    {
+        int capacity = buffers.length;
+        ByteBuffer[] newBuffers = new ByteBuffer[capacity << 1];
+        boolean[] newPooled = new boolean[capacity << 1];
+        for (int i = 0; i < size; i++)
+        {
+            int index = (head + i) & (capacity - 1);
+            newBuffers[i] = buffers[index];
+            newPooled[i] = pooled[index];
+        }
+        buffers = newBuffers;
+        pooled = newPooled;
+        head = 0;
+    }
+
+    /**
+     * 修改可写状态，通知回调
+     *
+     * @param writable 是否可写
+     */
+    private void setWritable(boolean writable)
+    {
+        this.writable = writable;
+        if (writabilityListener != null)
+        {
+            writabilityListener.writabilityChanged(writable);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package mao.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Interface(接口名): Payload
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 15:02
+ * Version(版本): 1.0
+ * Description(描述)： 一次要发送的大块数据，边写边产生，记录写到了哪里，
+ * socket发送缓冲区满了之后等OP_WRITE从这里继续
+ */
+
+public interface Payload extends Closeable
+{
+    /**
+     * 把一个ByteBuffer包装成Payload
+     *
+     * @param buffer 缓冲，处于读模式，写完之前调用者不能再修改它
+     * @return {@link Payload}
+     */
+    static Payload wrap(ByteBuffer buffer)
+    {
+        return new SharedBufferPayloadSource.BufferPayload(buffer);
+    }
+
+    /**
+     * 尽可能多地写到通道中，不会阻塞
+     *
+     * @param channel 通道，非阻塞模式
+     * @return 写出去的字节数，socket发送缓冲区满了返回0
+     * @throws IOException ioexception
+     */
+    long writeTo(WritableByteChannel channel) throws IOException;
+
+    /**
+     * 是否已经全部写完
+     *
+     * @return boolean
+     */
+    boolean isComplete();
+
+    /**
+     * 释放资源，写完或者连接关闭时调用
+     *
+     * @throws IOException ioexception
+     */
+    @Override
+    void close() throws IOException;
+}
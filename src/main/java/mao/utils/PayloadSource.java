@@ -0,0 +1,34 @@
+package mao.utils;
+
+import java.io.IOException;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Interface(接口名): PayloadSource
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 15:05
+ * Version(版本): 1.0
+ * Description(描述)： 大块数据的来源，所有连接共享一个，每个连接open一个自己的{@link Payload}
+ */
+
+public interface PayloadSource
+{
+    /**
+     * 为一个连接打开一份数据
+     *
+     * @return {@link Payload}
+     * @throws IOException ioexception
+     */
+    Payload open() throws IOException;
+
+    /**
+     * 数据的总长度
+     *
+     * @return long
+     */
+    long length();
+}
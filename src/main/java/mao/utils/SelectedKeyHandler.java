@@ -0,0 +1,29 @@
+package mao.utils;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Interface(接口名): SelectedKeyHandler
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 19:15
+ * Version(版本): 1.0
+ * Description(描述)： 处理一个就绪的SelectionKey，由OptimizedSelector.processSelectedKeys调用
+ */
+
+@FunctionalInterface
+public interface SelectedKeyHandler
+{
+    /**
+     * 处理就绪事件
+     *
+     * @param selectionKey 就绪的SelectionKey
+     * @throws IOException ioexception
+     */
+    void handle(SelectionKey selectionKey) throws IOException;
+}
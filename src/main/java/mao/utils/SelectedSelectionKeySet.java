@@ -0,0 +1,123 @@
+package mao.utils;
+
+import java.nio.channels.SelectionKey;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): SelectedSelectionKeySet
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 19:10
+ * Version(版本): 1.0
+ * Description(描述)： 用数组实现的就绪事件集合，替换Selector内部的HashSet，
+ * add只是写数组，遍历时按下标访问，不用计算hash，也不用创建迭代器。
+ * 只给Selector内部使用，contains和remove总是返回false，和Netty的做法一样
+ */
+
+final class SelectedSelectionKeySet extends AbstractSet<SelectionKey>
+{
+    /**
+     * 就绪的SelectionKey
+     */
+    SelectionKey[] keys;
+
+    /**
+     * 就绪的SelectionKey数量
+     */
+    int size;
+
+    /**
+     * 构造方法
+     */
+    SelectedSelectionKeySet()
+    {
+        keys = new SelectionKey[1024];
+    }
+
+    @Override
+    public boolean add(SelectionKey selectionKey)
+    {
+        if (selectionKey == null)
+        {
+            return false;
+        }
+        if (size == keys.length)
+        {
+            keys = Arrays.copyOf(keys, size << 1);
+        }
+        keys[size++] = selectionKey;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        return false;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public Iterator<SelectionKey> iterator()
+    {
+        return new Iterator<SelectionKey>()
+        {
+            /**
+             * 下一个元素的下标
+             */
+            private int index;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size;
+            }
+
+            @Override
+            public SelectionKey next()
+            {
+                if (!hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+                return keys[index++];
+            }
+        };
+    }
+
+    /**
+     * 清空，把用过的位置置为null，避免已经关闭的连接不能被回收
+     */
+    void reset()
+    {
+        reset(0);
+    }
+
+    /**
+     * 从指定位置开始清空，前面的位置已经在处理时置为null了
+     *
+     * @param start 开始位置
+     */
+    void reset(int start)
+    {
+        Arrays.fill(keys, start, size, null);
+        size = 0;
+    }
+}
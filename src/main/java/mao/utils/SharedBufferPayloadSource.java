@@ -0,0 +1,115 @@
+package mao.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): SharedBufferPayloadSource
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 15:10
+ * Version(版本): 1.0
+ * Description(描述)： 预先生成好的只读直接内存，每个连接duplicate一份，只复制position和limit，不复制数据
+ */
+
+public class SharedBufferPayloadSource implements PayloadSource
+{
+    /**
+     * 共享的只读数据
+     */
+    private final ByteBuffer content;
+
+    /**
+     * 构造方法
+     *
+     * @param content 数据，处于读模式，之后不能再修改
+     */
+    public SharedBufferPayloadSource(ByteBuffer content)
+    {
+        this.content = content.asReadOnlyBuffer();
+    }
+
+    /**
+     * 生成length个相同字节的数据
+     *
+     * @param value  字节
+     * @param length 长度
+     * @return {@link SharedBufferPayloadSource}
+     */
+    public static SharedBufferPayloadSource repeat(byte value, int length)
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+        while (buffer.hasRemaining())
+        {
+            buffer.put(value);
+        }
+        buffer.flip();
+        return new SharedBufferPayloadSource(buffer);
+    }
+
+    @Override
+    public Payload open()
+    {
+        return new BufferPayload(content.duplicate());
+    }
+
+    @Override
+    public long length()
+    {
+        return content.remaining();
+    }
+
+    /**
+     * 共享数据的一个视图
+     */
+    static final class BufferPayload implements Payload
+    {
+        /**
+         * 视图
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * 构造方法
+         *
+         * @param buffer 视图
+         */
+        BufferPayload(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public long writeTo(WritableByteChannel channel) throws IOException
+        {
+            long total = 0;
+            while (buffer.hasRemaining())
+            {
+                int write = channel.write(buffer);
+                if (write <= 0)
+                {
+                    break;
+                }
+                total += write;
+            }
+            return total;
+        }
+
+        @Override
+        public boolean isComplete()
+        {
+            return !buffer.hasRemaining();
+        }
+
+        @Override
+        public void close()
+        {
+
+        }
+    }
+}
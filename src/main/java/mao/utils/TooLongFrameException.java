@@ -0,0 +1,32 @@
+package mao.utils;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): TooLongFrameException
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 13:05
+ * Version(版本): 1.0
+ * Description(描述)： 消息超过最大长度，连接应该被关闭
+ */
+
+public class TooLongFrameException extends RuntimeException
+{
+    /**
+     * 序列化版本号
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 构造方法
+     *
+     * @param message 消息
+     */
+    public TooLongFrameException(String message)
+    {
+        super(message);
+    }
+}
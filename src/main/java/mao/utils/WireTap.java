@@ -0,0 +1,523 @@
+package mao.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static io.netty.util.internal.StringUtil.NEWLINE;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): WireTap
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 18:10
+ * Version(版本): 1.0
+ * Description(描述)： 异步的报文抓取。I/O线程只把收到的消息（最多maxCaptureBytes字节）拷贝到
+ * 有界无锁环形队列中预先分配好的槽里，后台线程取出来做十六进制打印，I/O线程不格式化也不打印。
+ * 每个连接一个{@link Tap}，按1/N采样；队列满了直接丢弃并计数，不会阻塞I/O线程。
+ * 多个I/O线程同时写、一个后台线程读，每个槽有一个序号，和Vyukov的有界队列一样。
+ * -Dmao.wiretap.enabled=true|false，默认跟随本类的DEBUG日志是否开启
+ * -Dmao.wiretap.sampleRate=每个连接每N条消息抓一条，默认1
+ * -Dmao.wiretap.capacity=队列槽数，默认1024
+ * -Dmao.wiretap.maxCaptureBytes=每条消息最多拷贝多少字节，默认256
+ */
+
+public class WireTap implements Closeable
+{
+    /**
+     * 日志
+     */
+    private static final Logger log = LoggerFactory.getLogger(WireTap.class);
+
+    /**
+     * 后台线程没有数据时每次park的时间
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * 没有开启时所有连接共用的Tap，什么都不做
+     */
+    private static final Tap DISABLED_TAP = new Tap(null, null, 0);
+
+    /**
+     * 是否开启
+     */
+    private final boolean enabled;
+
+    /**
+     * 默认采样率，每N条消息抓一条
+     */
+    private final int defaultSampleRate;
+
+    /**
+     * 每条消息最多拷贝多少字节
+     */
+    private final int maxCaptureBytes;
+
+    /**
+     * 格式化好的打印交给谁，在后台线程中调用，参数只在调用期间有效
+     */
+    private final Consumer<CharSequence> output;
+
+    /**
+     * 槽数减一，槽数是2的幂
+     */
+    private final int mask;
+
+    /**
+     * 每个槽的序号，等于写入位置时可以写，等于写入位置+1时可以读
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * 槽
+     */
+    private final Slot[] slots;
+
+    /**
+     * 下一个写入位置，生产者CAS竞争
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 下一个读取位置，只有后台线程使用
+     */
+    private long head;
+
+    /**
+     * 抓到的消息数
+     */
+    private final LongAdder captured = new LongAdder();
+
+    /**
+     * 队列满了丢弃的消息数
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * 后台线程已经打印的消息数
+     */
+    private volatile long printed;
+
+    /**
+     * 后台线程
+     */
+    private Thread thread;
+
+    /**
+     * 是否已经关闭
+     */
+    private volatile boolean closed;
+
+    /**
+     * 构造方法，没有开启时不分配队列
+     *
+     * @param enabled           是否开启
+     * @param capacity          队列槽数，会向上取到2的幂
+     * @param maxCaptureBytes   每条消息最多拷贝多少字节
+     * @param defaultSampleRate 默认采样率，每N条消息抓一条
+     * @param output            格式化好的打印交给谁，在后台线程中调用
+     */
+    public WireTap(boolean enabled, int capacity, int maxCaptureBytes, int defaultSampleRate,
+                   Consumer<CharSequence> output)
+    {
+        if (capacity <= 0 || maxCaptureBytes <= 0 || defaultSampleRate <= 0)
+        {
+            throw new IllegalArgumentException("capacity、maxCaptureBytes和sampleRate都必须大于0：" +
+                    capacity + ", " + maxCaptureBytes + ", " + defaultSampleRate);
+        }
+        this.enabled = enabled;
+        this.maxCaptureBytes = maxCaptureBytes;
+        this.defaultSampleRate = defaultSampleRate;
+        this.output = output;
+        int slotCount = enabled ? (capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1) : 1;
+        this.mask = slotCount - 1;
+        this.sequences = new AtomicLongArray(slotCount);
+        this.slots = new Slot[enabled ? slotCount : 0];
+        for (int i = 0; i < slots.length; i++)
+        {
+            sequences.set(i, i);
+            slots[i] = new Slot(maxCaptureBytes);
+        }
+    }
+
+    /**
+     * 得到按系统属性配置的默认实例，打印到本类的DEBUG日志
+     *
+     * @return {@link WireTap}
+     */
+    public static WireTap getDefault()
+    {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 得到什么都不做的Tap，所有连接共用
+     *
+     * @return {@link Tap}
+     */
+    public static Tap disabledTap()
+    {
+        return DISABLED_TAP;
+    }
+
+    /**
+     * 给一个连接创建Tap，使用默认采样率，没有开启时返回共用的空实现
+     *
+     * @param connection 连接，打印时调用toString
+     * @return {@link Tap}
+     */
+    public Tap newTap(Object connection)
+    {
+        return newTap(connection, defaultSampleRate);
+    }
+
+    /**
+     * 给一个连接创建Tap，没有开启时返回共用的空实现
+     *
+     * @param connection 连接，打印时调用toString
+     * @param sampleRate 这个连接的采样率，每N条消息抓一条
+     * @return {@link Tap}
+     */
+    public Tap newTap(Object connection, int sampleRate)
+    {
+        if (!enabled)
+        {
+            return DISABLED_TAP;
+        }
+        if (sampleRate <= 0)
+        {
+            throw new IllegalArgumentException("sampleRate必须大于0：" + sampleRate);
+        }
+        start();
+        return new Tap(this, connection, sampleRate);
+    }
+
+    /**
+     * 是否开启
+     *
+     * @return boolean
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * 得到抓到的消息数，包括被丢弃的
+     *
+     * @return long
+     */
+    public long getCaptured()
+    {
+        return captured.sum();
+    }
+
+    /**
+     * 得到队列满了丢弃的消息数
+     *
+     * @return long
+     */
+    public long getDropped()
+    {
+        return dropped.sum();
+    }
+
+    /**
+     * 得到后台线程已经打印的消息数
+     *
+     * @return long
+     */
+    public long getPrinted()
+    {
+        return printed;
+    }
+
+    /**
+     * 停止后台线程，队列里没打印的消息不再打印
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        Thread t;
+        synchronized (this)
+        {
+            t = thread;
+        }
+        if (t != null)
+        {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /**
+     * 第一次创建Tap时启动后台线程
+     */
+    private synchronized void start()
+    {
+        if (thread == null && !closed)
+        {
+            thread = new Thread(this::run, "WireTap");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * 拷贝一条消息到队列，在I/O线程中调用，队列满了就丢弃
+     *
+     * @param connection 连接
+     * @param frame      消息，position到limit之间，不会修改position
+     */
+    private void offer(Object connection, ByteBuffer frame)
+    {
+        captured.increment();
+        long position = tail.get();
+        while (true)
+        {
+            long difference = sequences.get((int) position & mask) - position;
+            if (difference == 0)
+            {
+                if (tail.compareAndSet(position, position + 1))
+                {
+                    break;
+                }
+                position = tail.get();
+            }
+            else if (difference < 0)
+            {
+                //后台线程还没读走这一圈之前的数据，队列满了
+                dropped.increment();
+                return;
+            }
+            else
+            {
+                //被别的线程抢先了
+                position = tail.get();
+            }
+        }
+        int index = (int) position & mask;
+        Slot slot = slots[index];
+        int length = frame.remaining();
+        int copyLength = Math.min(length, maxCaptureBytes);
+        //绝对位置的批量读，不修改调用者的position
+        frame.get(frame.position(), slot.data, 0, copyLength);
+        slot.connection = connection;
+        slot.length = length;
+        slot.capturedLength = copyLength;
+        sequences.lazySet(index, position + 1);
+    }
+
+    /**
+     * 后台线程，取出消息格式化后交给output
+     */
+    private void run()
+    {
+        HexDumpBuffer dump = new HexDumpBuffer();
+        long lastDropped = 0;
+        while (!closed)
+        {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1)
+            {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            Slot slot = slots[index];
+            dump.clear();
+            dump.append("wiretap: ");
+            dump.append(String.valueOf(slot.connection));
+            dump.append(", length: ");
+            dump.append(slot.length);
+            if (slot.capturedLength < slot.length)
+            {
+                dump.append(", captured: ");
+                dump.append(slot.capturedLength);
+            }
+            long totalDropped = dropped.sum();
+            if (totalDropped != lastDropped)
+            {
+                dump.append(", dropped: ");
+                dump.append(String.valueOf(totalDropped - lastDropped));
+                lastDropped = totalDropped;
+            }
+            dump.append(NEWLINE);
+            ByteBufferUtil.appendHexDump(dump, slot.view, 0, slot.capturedLength);
+            slot.connection = null;
+            //先格式化完再释放槽
+            sequences.lazySet(index, head + mask + 1);
+            head++;
+            try
+            {
+                output.accept(dump);
+            }
+            catch (Throwable t)
+            {
+                log.warn("打印抓到的消息失败", t);
+            }
+            printed++;
+        }
+    }
+
+    /**
+     * 一个连接的抓取入口，采样计数不是线程安全的，只在连接所在的I/O线程中使用。
+     * 可以直接作为解码回调：channelContext.decode(tap)
+     */
+    public static final class Tap implements FrameListener
+    {
+        /**
+         * 所属的WireTap，为null表示没有开启
+         */
+        private final WireTap wireTap;
+
+        /**
+         * 连接
+         */
+        private final Object connection;
+
+        /**
+         * 每N条消息抓一条
+         */
+        private int sampleRate;
+
+        /**
+         * 距离下一次抓取还有几条消息
+         */
+        private int countdown = 1;
+
+        /**
+         * 构造方法
+         *
+         * @param wireTap    所属的WireTap
+         * @param connection 连接
+         * @param sampleRate 采样率
+         */
+        private Tap(WireTap wireTap, Object connection, int sampleRate)
+        {
+            this.wireTap = wireTap;
+            this.connection = connection;
+            this.sampleRate = sampleRate;
+        }
+
+        /**
+         * 收到一条消息，按采样率决定是否抓取，不修改frame的position和limit
+         *
+         * @param frame 消息
+         */
+        @Override
+        public void onFrame(ByteBuffer frame)
+        {
+            capture(frame, connection);
+        }
+
+        /**
+         * 收到一条消息，打印时使用指定的来源，例如UDP的发送方地址
+         *
+         * @param frame  消息
+         * @param source 来源
+         */
+        public void capture(ByteBuffer frame, Object source)
+        {
+            if (wireTap == null || --countdown > 0)
+            {
+                return;
+            }
+            countdown = sampleRate;
+            wireTap.offer(source, frame);
+        }
+
+        /**
+         * 修改这个连接的采样率，从下一条消息开始生效
+         *
+         * @param sampleRate 每N条消息抓一条
+         */
+        public void setSampleRate(int sampleRate)
+        {
+            if (sampleRate <= 0)
+            {
+                throw new IllegalArgumentException("sampleRate必须大于0：" + sampleRate);
+            }
+            this.sampleRate = sampleRate;
+            this.countdown = Math.min(countdown, sampleRate);
+        }
+
+        /**
+         * 是否开启
+         *
+         * @return boolean
+         */
+        public boolean isEnabled()
+        {
+            return wireTap != null;
+        }
+    }
+
+    /**
+     * 队列中的一个槽，数据数组预先分配，I/O线程只做拷贝
+     */
+    private static final class Slot
+    {
+        /**
+         * 拷贝的数据
+         */
+        private final byte[] data;
+
+        /**
+         * data的视图，打印时使用
+         */
+        private final ByteBuffer view;
+
+        /**
+         * 连接或者来源
+         */
+        private Object connection;
+
+        /**
+         * 消息的原始长度
+         */
+        private int length;
+
+        /**
+         * 拷贝的长度
+         */
+        private int capturedLength;
+
+        /**
+         * 构造方法
+         *
+         * @param capacity 最多拷贝多少字节
+         */
+        private Slot(int capacity)
+        {
+            this.data = new byte[capacity];
+            this.view = ByteBuffer.wrap(data);
+        }
+    }
+
+    /**
+     * 默认实例，第一次使用时按系统属性创建
+     */
+    private static final class Holder
+    {
+        private static final WireTap INSTANCE = new WireTap(
+                Boolean.parseBoolean(System.getProperty("mao.wiretap.enabled",
+                        String.valueOf(log.isDebugEnabled()))),
+                Integer.getInteger("mao.wiretap.capacity", 1024),
+                Integer.getInteger("mao.wiretap.maxCaptureBytes", 256),
+                Integer.getInteger("mao.wiretap.sampleRate", 1),
+                dump -> log.debug("{}{}", NEWLINE, dump));
+    }
+}
@@ -0,0 +1,25 @@
+package mao.utils;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Interface(接口名): WritabilityListener
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 14:05
+ * Version(版本): 1.0
+ * Description(描述)： 写队列可写状态变化的回调
+ */
+
+@FunctionalInterface
+public interface WritabilityListener
+{
+    /**
+     * 可写状态变化，超过高水位时为false，降到低水位以下时为true
+     *
+     * @param writable 是否可写
+     */
+    void writabilityChanged(boolean writable);
+}
@@ -0,0 +1,156 @@
+package mao.t8;
+
+import mao.utils.AdaptiveBufferGrowth;
+import mao.utils.BufferAllocator;
+import mao.utils.ChannelContext;
+import mao.utils.EchoMessageHandler;
+import mao.utils.FrameDecoder;
+import mao.utils.FrameListener;
+import mao.utils.LineFrameDecoder;
+import mao.utils.MessageHandler;
+import mao.utils.TooLongFrameException;
+import mao.utils.WireTap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.t8
+ * Class(类名): Server
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 21:30
+ * Version(版本): 1.0
+ * Description(描述)： 阻塞模式 + 虚拟线程 - 服务器端。
+ * 和t1一样每个连接一个线程、阻塞读写，但是用的是虚拟线程，阻塞时只挂起虚拟线程，
+ * 载体线程去跑别的连接，几万个连接也不会有几万个平台线程的栈内存和上下文切换。
+ * 解码和回写用的是和t6一样的ChannelContext、LineFrameDecoder和MessageHandler。
+ * 需要JDK21，使用 mvn -P jdk21 package 编译
+ */
+
+public class Server
+{
+    /**
+     * 日志
+     */
+    private static final Logger log = LoggerFactory.getLogger(Server.class);
+
+    /**
+     * 一条消息的最大长度
+     */
+    private static final int MAX_FRAME_LENGTH = FrameDecoder.DEFAULT_MAX_FRAME_LENGTH;
+
+    /**
+     * 全连接队列长度，大量连接同时建立时默认的50太小
+     */
+    private static final int BACKLOG = Integer.getInteger("mao.t8.backlog", 1024);
+
+    /**
+     * 业务处理，和t6、t9共用同一个实现
+     */
+    private static final MessageHandler MESSAGE_HANDLER = new EchoMessageHandler();
+
+    /**
+     * 当前连接数
+     */
+    private static final AtomicInteger CONNECTIONS = new AtomicInteger();
+
+    /**
+     * main方法
+     *
+     * @param args 参数
+     */
+    public static void main(String[] args) throws IOException
+    {
+        //创建服务器，阻塞模式
+        ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+        //绑定
+        serverSocketChannel.bind(new InetSocketAddress(8080), BACKLOG);
+        //每个连接一个虚拟线程
+        ThreadFactory threadFactory = Thread.ofVirtual().name("Connection-", 0).factory();
+        log.debug("服务启动");
+
+        while (true)
+        {
+            SocketChannel socketChannel = serverSocketChannel.accept();
+            log.debug("客户端已连接：{}", socketChannel);
+            CONNECTIONS.incrementAndGet();
+            threadFactory.newThread(() -> serve(socketChannel)).start();
+        }
+    }
+
+    /**
+     * 在虚拟线程中处理一个连接，读到的每一行原样写回，直到对端关闭
+     *
+     * @param socketChannel 套接字通道，阻塞模式
+     */
+    private static void serve(SocketChannel socketChannel)
+    {
+        //读缓冲从16字节开始按需扩容，连接多的时候空闲连接只占很少的内存
+        ChannelContext channelContext = new ChannelContext(BufferAllocator.HEAP,
+                new AdaptiveBufferGrowth(16, 16, MAX_FRAME_LENGTH),
+                new LineFrameDecoder(MAX_FRAME_LENGTH));
+        //消息回调，每个连接只创建一次，回写的数据进入连接的写队列
+        //收到的消息先交给报文抓取，打印在后台线程中完成
+        WireTap.Tap tap = WireTap.getDefault().newTap(socketChannel);
+        FrameListener frameListener = frame ->
+        {
+            tap.onFrame(frame);
+            MESSAGE_HANDLER.onMessage(frame, channelContext);
+        };
+        try (socketChannel)
+        {
+            while (true)
+            {
+                //没有数据时阻塞，挂起的是虚拟线程
+                int read = channelContext.read(socketChannel);
+                if (read == -1)
+                {
+                    break;
+                }
+                channelContext.decode(frameListener);
+                //阻塞写，一次读到的所有回复一起写出去，一次flush有写次数上限，循环到全部写完
+                do
+                {
+                    channelContext.flush(socketChannel);
+                }
+                while (!channelContext.isFlushed());
+                channelContext.releaseIfEmpty();
+            }
+        }
+        catch (TooLongFrameException e)
+        {
+            //消息太长，拒绝这个连接，防止读缓冲无限增长
+            log.warn("关闭连接：{}，{}", socketChannel, e.getMessage());
+        }
+        catch (IOException e)
+        {
+            //对端重置连接之类的，属于正常情况，不打印异常栈
+            log.debug("连接异常，关闭连接：{}，{}", socketChannel, e);
+        }
+        finally
+        {
+            channelContext.release();
+            CONNECTIONS.decrementAndGet();
+        }
+    }
+
+    /**
+     * 得到当前连接数
+     *
+     * @return int
+     */
+    public static int getConnections()
+    {
+        return CONNECTIONS.get();
+    }
+}
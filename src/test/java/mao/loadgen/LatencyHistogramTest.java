@@ -0,0 +1,161 @@
+package mao.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.loadgen
+ * Class(类名): LatencyHistogramTest
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:58
+ * Version(版本): 1.0
+ * Description(描述)： LatencyHistogram的测试，格的边界、相对误差和百分位数
+ */
+
+class LatencyHistogramTest
+{
+    /**
+     * 小于128的值直接作为下标，没有误差
+     */
+    @Test
+    void exactBelow128()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 0; value < 128; value++)
+        {
+            histogram.record(value);
+        }
+        assertEquals(128, histogram.getTotalCount());
+        assertEquals(0, histogram.getValueAtPercentile(0));
+        assertEquals(63, histogram.getValueAtPercentile(50));
+        assertEquals(126, histogram.getValueAtPercentile(99));
+        assertEquals(127, histogram.getValueAtPercentile(100));
+        assertEquals(63.5, histogram.getMean());
+    }
+
+    /**
+     * 每个2的幂附近的值，误差不超过1/128，并且不超过最大值
+     */
+    @Test
+    void relativeErrorAtBucketBoundaries()
+    {
+        for (int bit = 7; bit < 63; bit++)
+        {
+            long power = 1L << bit;
+            for (long value : new long[]{power - 1, power, power + 1, power + power / 2})
+            {
+                assertWithinError(value);
+            }
+        }
+        assertWithinError(Long.MAX_VALUE);
+    }
+
+    /**
+     * 值越大百分位数不会变小，格之间没有重叠和空隙
+     */
+    @Test
+    void monotonic()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long previous = -1;
+        for (long value = 0; value < 1 << 16; value++)
+        {
+            histogram.reset();
+            histogram.record(value);
+            //再记一个更大的值，百分位数取到格的代表值而不是被最大值截断
+            histogram.record(Long.MAX_VALUE);
+            long recorded = histogram.getValueAtPercentile(50);
+            assertTrue(recorded >= previous, value + ": " + recorded + " < " + previous);
+            previous = recorded;
+        }
+    }
+
+    /**
+     * 均匀分布时的百分位数
+     */
+    @Test
+    void percentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10000; value++)
+        {
+            histogram.record(value * 1000);
+        }
+        assertClose(5_000_000, histogram.getValueAtPercentile(50));
+        assertClose(9_900_000, histogram.getValueAtPercentile(99));
+        assertClose(9_990_000, histogram.getValueAtPercentile(99.9));
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+        assertEquals(1000, histogram.getMinValue());
+        assertEquals(10_000_000, histogram.getMaxValue());
+        //超出范围的百分位截断到0和100
+        assertEquals(histogram.getValueAtPercentile(0), histogram.getValueAtPercentile(-1));
+        assertEquals(histogram.getValueAtPercentile(100), histogram.getValueAtPercentile(200));
+    }
+
+    /**
+     * 合并、清空、负数和没有记录时的返回值
+     */
+    @Test
+    void addResetAndEmpty()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMinValue());
+        assertEquals(0, histogram.getMaxValue());
+        assertEquals(0, histogram.getMean());
+
+        histogram.record(-5);
+        assertEquals(0, histogram.getMaxValue());
+        assertEquals(1, histogram.getTotalCount());
+
+        LatencyHistogram other = new LatencyHistogram();
+        other.recordCount(100, 3);
+        histogram.add(other);
+        assertEquals(4, histogram.getTotalCount());
+        assertEquals(0, histogram.getMinValue());
+        assertEquals(100, histogram.getMaxValue());
+        assertEquals(75, histogram.getMean());
+        assertEquals(100, histogram.getValueAtPercentile(50));
+
+        histogram.reset();
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getMinValue());
+    }
+
+    /**
+     * 单独记录一个值，取出的值误差不超过1/128
+     *
+     * @param value 值
+     */
+    private static void assertWithinError(long value)
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(value);
+        histogram.record(Long.MAX_VALUE);
+        assertClose(value, histogram.getValueAtPercentile(50));
+
+        LatencyHistogram single = new LatencyHistogram();
+        single.record(value);
+        assertTrue(single.getValueAtPercentile(100) <= value);
+        assertClose(value, single.getValueAtPercentile(100));
+    }
+
+    /**
+     * 误差不超过1/128
+     *
+     * @param expected 期望值
+     * @param actual   实际值
+     */
+    private static void assertClose(long expected, long actual)
+    {
+        long error = Math.abs(expected - actual);
+        assertTrue(error <= expected / 128, "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,245 @@
+package mao.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): HashedTimingWheelTest
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:59
+ * Version(版本): 1.0
+ * Description(描述)： HashedTimingWheel的测试，到期时间、多圈、取消，以及在任务中重新调度和取消
+ */
+
+class HashedTimingWheelTest
+{
+    /**
+     * 每一格1毫秒
+     */
+    private static final long TICK = 1_000_000L;
+
+    /**
+     * 时间轮，5个槽会向上取整为8个
+     */
+    private final HashedTimingWheel timingWheel = new HashedTimingWheel(TICK, 5, 0);
+
+    /**
+     * 执行过的Timeout的附件，按执行顺序
+     */
+    private final List<Object> fired = new ArrayList<>();
+
+    /**
+     * 记录执行顺序的任务
+     */
+    private final HashedTimingWheel.TimeoutTask recordTask = (timeout, nowNanos) -> fired.add(timeout.getAttachment());
+
+    /**
+     * 到期之前不执行，到期的那一格执行
+     */
+    @Test
+    void expiresAtDeadline()
+    {
+        HashedTimingWheel.Timeout timeout = new HashedTimingWheel.Timeout(recordTask, "a");
+        timingWheel.schedule(timeout, 3 * TICK, 0);
+        assertTrue(timeout.isScheduled());
+        assertEquals(1, timingWheel.size());
+        assertEquals(0, timingWheel.expireTimeouts(3 * TICK - 1));
+        assertEquals(1, timingWheel.expireTimeouts(3 * TICK));
+        assertEquals(List.of("a"), fired);
+        assertFalse(timeout.isScheduled());
+        assertEquals(0, timingWheel.size());
+        assertEquals(-1, timingWheel.nanosUntilNextTick(3 * TICK));
+    }
+
+    /**
+     * 延迟超过一圈时要多转几圈，经过同一个槽时不能提前执行
+     */
+    @Test
+    void multipleRounds()
+    {
+        HashedTimingWheel.Timeout timeout = new HashedTimingWheel.Timeout(recordTask, "a");
+        timingWheel.schedule(timeout, 20 * TICK, 0);
+        for (long now = 0; now < 20 * TICK; now += TICK)
+        {
+            assertEquals(0, timingWheel.expireTimeouts(now));
+        }
+        assertEquals(1, timingWheel.expireTimeouts(20 * TICK));
+        assertEquals(List.of("a"), fired);
+    }
+
+    /**
+     * 很久没有处理时一次处理完所有过去的格，按到期顺序执行
+     */
+    @Test
+    void catchUp()
+    {
+        for (int i = 1; i <= 30; i++)
+        {
+            timingWheel.schedule(new HashedTimingWheel.Timeout(recordTask, i), i * TICK, 0);
+        }
+        assertEquals(30, timingWheel.expireTimeouts(100 * TICK));
+        for (int i = 1; i <= 30; i++)
+        {
+            assertEquals(i, fired.get(i - 1));
+        }
+    }
+
+    /**
+     * 取消槽中间的一个，链表前后都要接上
+     */
+    @Test
+    void cancel()
+    {
+        HashedTimingWheel.Timeout a = new HashedTimingWheel.Timeout(recordTask, "a");
+        HashedTimingWheel.Timeout b = new HashedTimingWheel.Timeout(recordTask, "b");
+        HashedTimingWheel.Timeout c = new HashedTimingWheel.Timeout(recordTask, "c");
+        timingWheel.schedule(a, 2 * TICK, 0);
+        timingWheel.schedule(b, 2 * TICK, 0);
+        timingWheel.schedule(c, 2 * TICK, 0);
+        timingWheel.cancel(b);
+        timingWheel.cancel(b);
+        assertFalse(b.isScheduled());
+        assertEquals(2, timingWheel.size());
+        assertEquals(2, timingWheel.expireTimeouts(2 * TICK));
+        assertTrue(fired.containsAll(List.of("a", "c")));
+        assertFalse(fired.contains("b"));
+    }
+
+    /**
+     * 重复调度同一个Timeout只保留最后一次
+     */
+    @Test
+    void scheduleTwice()
+    {
+        HashedTimingWheel.Timeout timeout = new HashedTimingWheel.Timeout(recordTask, "a");
+        timingWheel.schedule(timeout, 2 * TICK, 0);
+        timingWheel.schedule(timeout, 10 * TICK, 0);
+        assertEquals(1, timingWheel.size());
+        assertEquals(0, timingWheel.expireTimeouts(9 * TICK));
+        assertEquals(1, timingWheel.expireTimeouts(10 * TICK));
+        assertEquals(List.of("a"), fired);
+    }
+
+    /**
+     * 任务中重新调度自己，延迟为0也不会在同一次expireTimeouts中再执行
+     */
+    @Test
+    void rescheduleSelf()
+    {
+        int[] runs = new int[1];
+        HashedTimingWheel.TimeoutTask task = (timeout, nowNanos) ->
+        {
+            runs[0]++;
+            timingWheel.schedule(timeout, 0, nowNanos);
+        };
+        HashedTimingWheel.Timeout timeout = new HashedTimingWheel.Timeout(task, null);
+        timingWheel.schedule(timeout, TICK, 0);
+        assertEquals(1, timingWheel.expireTimeouts(TICK));
+        assertEquals(1, runs[0]);
+        assertTrue(timeout.isScheduled());
+        assertEquals(1, timingWheel.size());
+        assertEquals(1, timingWheel.expireTimeouts(2 * TICK));
+        assertEquals(2, runs[0]);
+        //一次处理多格时，重新调度到当前时间的会在同一次中再执行，但是每一格最多执行一次
+        assertEquals(2, timingWheel.expireTimeouts(5 * TICK));
+        assertEquals(4, runs[0]);
+        assertEquals(1, timingWheel.size());
+    }
+
+    /**
+     * 任务中重新调度自己，周期执行
+     */
+    @Test
+    void reschedulePeriodically()
+    {
+        HashedTimingWheel.TimeoutTask task = (timeout, nowNanos) ->
+        {
+            fired.add(nowNanos);
+            timingWheel.schedule(timeout, 3 * TICK, nowNanos);
+        };
+        timingWheel.schedule(new HashedTimingWheel.Timeout(task, null), 3 * TICK, 0);
+        for (long now = 0; now <= 30 * TICK; now += TICK)
+        {
+            timingWheel.expireTimeouts(now);
+        }
+        List<Object> expected = new ArrayList<>();
+        for (long now = 3 * TICK; now <= 30 * TICK; now += 3 * TICK)
+        {
+            expected.add(now);
+        }
+        assertEquals(expected, fired);
+    }
+
+    /**
+     * 同一格中先执行的任务取消或者重新调度后面还没执行的，被取消的不执行，
+     * 被重新调度的到新的时间才执行，排在它们后面的照常执行
+     */
+    @Test
+    void cancelAndRescheduleOthersInSameTick()
+    {
+        HashedTimingWheel.Timeout[] timeouts = new HashedTimingWheel.Timeout[4];
+        HashedTimingWheel.TimeoutTask task = (timeout, nowNanos) ->
+        {
+            fired.add(timeout.getAttachment());
+            if (timeout == timeouts[0])
+            {
+                timingWheel.cancel(timeouts[1]);
+                timingWheel.schedule(timeouts[2], 5 * TICK, nowNanos);
+            }
+        };
+        for (int i = 0; i < timeouts.length; i++)
+        {
+            timeouts[i] = new HashedTimingWheel.Timeout(task, i);
+            timingWheel.schedule(timeouts[i], TICK, 0);
+        }
+        //同一个槽中后调度的在前面，摘下来时再反过来，按调度的顺序执行
+        assertEquals(2, timingWheel.expireTimeouts(TICK));
+        assertEquals(List.of(0, 3), fired);
+        assertFalse(timeouts[1].isScheduled());
+        assertTrue(timeouts[2].isScheduled());
+        assertEquals(1, timingWheel.size());
+
+        fired.clear();
+        assertEquals(0, timingWheel.expireTimeouts(5 * TICK));
+        assertEquals(1, timingWheel.expireTimeouts(6 * TICK));
+        assertEquals(List.of(2), fired);
+    }
+
+    /**
+     * 轮子空了很久之后再调度，从当前时间开始算
+     */
+    @Test
+    void scheduleAfterIdle()
+    {
+        HashedTimingWheel.Timeout timeout = new HashedTimingWheel.Timeout(recordTask, "a");
+        long now = 1000 * TICK;
+        timingWheel.schedule(timeout, 5 * TICK, now);
+        //tick直接跳到当前格，不会从0开始一格一格追
+        assertEquals(0, timingWheel.nanosUntilNextTick(now));
+        assertEquals(0, timingWheel.expireTimeouts(now + 5 * TICK - 1));
+        assertEquals(1, timingWheel.expireTimeouts(now + 5 * TICK));
+    }
+
+    /**
+     * 已经过去的时间放到下一个要处理的格
+     */
+    @Test
+    void negativeDelay()
+    {
+        HashedTimingWheel.Timeout timeout = new HashedTimingWheel.Timeout(recordTask, "a");
+        timingWheel.schedule(timeout, -10 * TICK, 10 * TICK);
+        assertEquals(1, timingWheel.expireTimeouts(10 * TICK));
+        assertEquals(List.of("a"), fired);
+    }
+}
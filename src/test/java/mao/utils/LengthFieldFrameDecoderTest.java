@@ -0,0 +1,409 @@
+package mao.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): LengthFieldFrameDecoderTest
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:50
+ * Version(版本): 1.0
+ * Description(描述)： LengthFieldFrameDecoder的测试，长度字段的边界值，以及长度字段和消息体被拆到多次读事件中
+ */
+
+class LengthFieldFrameDecoderTest
+{
+    /**
+     * 测试用的消息体长度，覆盖varint 1个字节和2个字节的边界
+     */
+    private static final int[] BODY_LENGTHS = {0, 1, 7, 127, 128, 300, 16383, 16384};
+
+    /**
+     * 不应该收到消息时用的回调
+     */
+    private static final FrameListener NO_FRAME = frame -> fail("不应该收到消息");
+
+    /**
+     * varint 127只占1个字节，128占2个字节，和protobuf一致
+     */
+    @Test
+    void varintHeaderBoundary()
+    {
+        assertArrayEquals(new byte[]{0x7F}, header(LengthFieldType.VARINT, 127));
+        assertArrayEquals(new byte[]{(byte) 0x80, 0x01}, header(LengthFieldType.VARINT, 128));
+        assertArrayEquals(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07},
+                header(LengthFieldType.VARINT, Integer.MAX_VALUE));
+        assertEquals(1, LengthFieldType.VARINT.headerLength(127));
+        assertEquals(2, LengthFieldType.VARINT.headerLength(128));
+        assertEquals(5, LengthFieldType.VARINT.headerLength(Integer.MAX_VALUE));
+
+        for (int bodyLength : new int[]{127, 128})
+        {
+            List<byte[]> frames = decodeAll(new LengthFieldFrameDecoder(LengthFieldType.VARINT),
+                    frame(LengthFieldType.VARINT, bodyLength), Integer.MAX_VALUE);
+            assertEquals(1, frames.size());
+            assertArrayEquals(frame(LengthFieldType.VARINT, bodyLength), frames.get(0));
+        }
+    }
+
+    /**
+     * 5个字节的varint能表示到2^31-1，半包时报告的总长度不能溢出
+     */
+    @Test
+    void varintMaxValue()
+    {
+        LengthFieldFrameDecoder decoder = new LengthFieldFrameDecoder(LengthFieldType.VARINT, Integer.MAX_VALUE, false);
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        //加上5个字节的长度字段正好是Integer.MAX_VALUE
+        new LengthFieldFrameEncoder(LengthFieldType.VARINT).writeHeader(buffer, Integer.MAX_VALUE - 5);
+        buffer.put((byte) 1);
+        decoder.decode(buffer, NO_FRAME);
+        assertEquals(Integer.MAX_VALUE, decoder.pendingFrameLength());
+        assertEquals(6, buffer.position());
+
+        //2^31-1本身能解析出来，加上长度字段后超过了最大长度
+        ByteBuffer max = ByteBuffer.allocate(16);
+        max.put(header(LengthFieldType.VARINT, Integer.MAX_VALUE));
+        TooLongFrameException e = assertThrows(TooLongFrameException.class,
+                () -> new LengthFieldFrameDecoder(LengthFieldType.VARINT, Integer.MAX_VALUE, false)
+                        .decode(max, NO_FRAME));
+        assertTrue(e.getMessage().contains(String.valueOf(Integer.MAX_VALUE + 5L)), e.getMessage());
+    }
+
+    /**
+     * 第5个字节只有低3位有效，大于0x07就超过了int的范围
+     */
+    @Test
+    void varintFifthByteOutOfRange()
+    {
+        for (int fifth = 0x08; fifth <= 0x7F; fifth++)
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            buffer.put(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) fifth});
+            assertThrows(TooLongFrameException.class,
+                    () -> new LengthFieldFrameDecoder(LengthFieldType.VARINT, Integer.MAX_VALUE, false)
+                            .decode(buffer, NO_FRAME));
+        }
+    }
+
+    /**
+     * 第5个字节最高位还是1，长度字段超过5个字节
+     */
+    @Test
+    void varintTooManyBytes()
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80});
+        assertThrows(TooLongFrameException.class,
+                () -> new LengthFieldFrameDecoder(LengthFieldType.VARINT, Integer.MAX_VALUE, false)
+                        .decode(buffer, NO_FRAME));
+    }
+
+    /**
+     * 4个字节还没读完第5个字节时是半包，不能提前报错
+     */
+    @Test
+    void varintIncompleteHeader()
+    {
+        LengthFieldFrameDecoder decoder = new LengthFieldFrameDecoder(LengthFieldType.VARINT, Integer.MAX_VALUE, false);
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF});
+        decoder.decode(buffer, NO_FRAME);
+        assertEquals(-1, decoder.pendingFrameLength());
+        assertEquals(4, buffer.position());
+    }
+
+    /**
+     * int32的长度字段是负数时当成太长处理
+     */
+    @Test
+    void int32NegativeLength()
+    {
+        for (int length : new int[]{-1, Integer.MIN_VALUE, 0x80000001})
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            buffer.putInt(length);
+            assertThrows(TooLongFrameException.class,
+                    () -> new LengthFieldFrameDecoder(LengthFieldType.INT32, Integer.MAX_VALUE, false)
+                            .decode(buffer, NO_FRAME));
+        }
+    }
+
+    /**
+     * int16是无符号的，65535是合法的长度
+     */
+    @Test
+    void int16Unsigned()
+    {
+        LengthFieldFrameDecoder decoder = new LengthFieldFrameDecoder(LengthFieldType.INT16, 2 + 0xFFFF, false);
+        List<byte[]> frames = decodeAll(decoder, frame(LengthFieldType.INT16, 0xFFFF), 4096);
+        assertEquals(1, frames.size());
+        assertEquals(2 + 0xFFFF, frames.get(0).length);
+    }
+
+    /**
+     * 只看长度字段就能判断太长，不用等消息体
+     */
+    @Test
+    void tooLongFrame()
+    {
+        for (LengthFieldType type : LengthFieldType.values())
+        {
+            int maxFrameLength = type.headerLength(100) + 100;
+            LengthFieldFrameDecoder decoder = new LengthFieldFrameDecoder(type, maxFrameLength, false);
+            assertEquals(1, decodeAll(decoder, frame(type, 100), Integer.MAX_VALUE).size());
+
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            buffer.put(header(type, 101));
+            assertThrows(TooLongFrameException.class,
+                    () -> new LengthFieldFrameDecoder(type, maxFrameLength, false).decode(buffer, NO_FRAME));
+        }
+    }
+
+    /**
+     * 一次一个字节，长度字段和消息体都被拆开
+     */
+    @Test
+    void splitByteByByte()
+    {
+        for (LengthFieldType type : LengthFieldType.values())
+        {
+            byte[] stream = stream(type);
+            List<byte[]> frames = decodeAll(new LengthFieldFrameDecoder(type), stream, 1);
+            assertFrames(type, frames);
+        }
+    }
+
+    /**
+     * 拆成两次读事件，前面的小消息每个位置都试，后面的大消息体中间隔着试
+     */
+    @Test
+    void splitAtEveryOffset()
+    {
+        for (LengthFieldType type : LengthFieldType.values())
+        {
+            byte[] stream = stream(type);
+            for (int split = 0; split <= stream.length; split += split < 1024 ? 1 : 97)
+            {
+                LengthFieldFrameDecoder decoder = new LengthFieldFrameDecoder(type);
+                ByteBuffer buffer = ByteBuffer.allocate(stream.length);
+                List<byte[]> frames = new ArrayList<>();
+                buffer.put(stream, 0, split);
+                decoder.decode(buffer, frame -> frames.add(toArray(frame)));
+                buffer.put(stream, split, stream.length - split);
+                decoder.decode(buffer, frame -> frames.add(toArray(frame)));
+                assertFrames(type, frames);
+                assertEquals(0, buffer.position());
+            }
+        }
+    }
+
+    /**
+     * 长度字段读全之后才知道半包的总长度，读缓冲据此一次扩到够用
+     */
+    @Test
+    void pendingFrameLength()
+    {
+        for (LengthFieldType type : LengthFieldType.values())
+        {
+            byte[] frame = frame(type, 300);
+            int headerLength = type.headerLength(300);
+            LengthFieldFrameDecoder decoder = new LengthFieldFrameDecoder(type);
+            ByteBuffer buffer = ByteBuffer.allocate(frame.length);
+            for (int i = 0; i < frame.length - 1; i++)
+            {
+                buffer.put(frame[i]);
+                decoder.decode(buffer, NO_FRAME);
+                assertEquals(i + 1 < headerLength ? -1 : frame.length, decoder.pendingFrameLength());
+            }
+            buffer.put(frame[frame.length - 1]);
+            List<byte[]> frames = new ArrayList<>();
+            decoder.decode(buffer, f -> frames.add(toArray(f)));
+            assertEquals(1, frames.size());
+            assertEquals(-1, decoder.pendingFrameLength());
+
+            decoder.decode(buffer.put(frame, 0, headerLength), NO_FRAME);
+            assertEquals(frame.length, decoder.pendingFrameLength());
+            decoder.reset();
+            assertEquals(-1, decoder.pendingFrameLength());
+        }
+    }
+
+    /**
+     * 半包时读缓冲换成更大的（ChannelContext扩容），解码器要跟着换视图
+     */
+    @Test
+    void bufferReplacedWhilePending()
+    {
+        for (LengthFieldType type : LengthFieldType.values())
+        {
+            byte[] stream = stream(type);
+            LengthFieldFrameDecoder decoder = new LengthFieldFrameDecoder(type);
+            List<byte[]> frames = new ArrayList<>();
+            ByteBuffer buffer = ByteBuffer.allocate(8);
+            int offset = 0;
+            while (offset < stream.length)
+            {
+                int length = Math.min(buffer.remaining(), stream.length - offset);
+                buffer.put(stream, offset, length);
+                offset += length;
+                decoder.decode(buffer, frame -> frames.add(toArray(frame)));
+                int pending = decoder.pendingFrameLength();
+                if (pending > buffer.capacity() || !buffer.hasRemaining())
+                {
+                    ByteBuffer larger = ByteBuffer.allocate(Math.max(pending, buffer.capacity() * 2));
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+            }
+            assertFrames(type, frames);
+        }
+    }
+
+    /**
+     * 去掉长度字段，以及读缓冲是小端时长度字段仍然按大端读
+     */
+    @Test
+    void stripHeaderAndByteOrder()
+    {
+        for (LengthFieldType type : LengthFieldType.values())
+        {
+            byte[] frame = frame(type, 300);
+            ByteBuffer buffer = ByteBuffer.allocate(frame.length).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(frame);
+            List<byte[]> frames = new ArrayList<>();
+            new LengthFieldFrameDecoder(type, FrameDecoder.DEFAULT_MAX_FRAME_LENGTH, true)
+                    .decode(buffer, f -> frames.add(toArray(f)));
+            assertEquals(1, frames.size());
+            assertArrayEquals(body(300), frames.get(0));
+        }
+    }
+
+    /**
+     * 解码全部数据，每次最多放入chunkSize个字节
+     *
+     * @param decoder   解码器
+     * @param data      数据
+     * @param chunkSize 每次读事件的字节数
+     * @return 收到的消息
+     */
+    private static List<byte[]> decodeAll(LengthFieldFrameDecoder decoder, byte[] data, int chunkSize)
+    {
+        List<byte[]> frames = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(data.length);
+        for (int offset = 0; offset < data.length; offset += chunkSize)
+        {
+            buffer.put(data, offset, Math.min(chunkSize, data.length - offset));
+            decoder.decode(buffer, frame -> frames.add(toArray(frame)));
+        }
+        assertEquals(0, buffer.position());
+        return frames;
+    }
+
+    /**
+     * 检查收到的消息和{@link #stream(LengthFieldType)}中的一致
+     *
+     * @param type   长度字段的格式
+     * @param frames 收到的消息
+     */
+    private static void assertFrames(LengthFieldType type, List<byte[]> frames)
+    {
+        assertEquals(BODY_LENGTHS.length, frames.size());
+        for (int i = 0; i < BODY_LENGTHS.length; i++)
+        {
+            assertArrayEquals(frame(type, BODY_LENGTHS[i]), frames.get(i));
+        }
+    }
+
+    /**
+     * 所有测试长度的消息连在一起
+     *
+     * @param type 长度字段的格式
+     * @return byte[]
+     */
+    private static byte[] stream(LengthFieldType type)
+    {
+        ByteBuffer stream = ByteBuffer.allocate(64 * 1024);
+        for (int bodyLength : BODY_LENGTHS)
+        {
+            stream.put(frame(type, bodyLength));
+        }
+        stream.flip();
+        return toArray(stream);
+    }
+
+    /**
+     * 一条完整的消息
+     *
+     * @param type       长度字段的格式
+     * @param bodyLength 消息体长度
+     * @return byte[]
+     */
+    private static byte[] frame(LengthFieldType type, int bodyLength)
+    {
+        byte[] header = header(type, bodyLength);
+        ByteBuffer frame = ByteBuffer.allocate(header.length + bodyLength);
+        frame.put(header).put(body(bodyLength));
+        return frame.array();
+    }
+
+    /**
+     * 长度字段
+     *
+     * @param type       长度字段的格式
+     * @param bodyLength 消息体长度
+     * @return byte[]
+     */
+    private static byte[] header(LengthFieldType type, int bodyLength)
+    {
+        ByteBuffer header = ByteBuffer.allocate(type.getMaxHeaderLength());
+        new LengthFieldFrameEncoder(type).writeHeader(header, bodyLength);
+        header.flip();
+        return toArray(header);
+    }
+
+    /**
+     * 消息体，内容和长度有关，错位时能发现
+     *
+     * @param bodyLength 消息体长度
+     * @return byte[]
+     */
+    private static byte[] body(int bodyLength)
+    {
+        byte[] body = new byte[bodyLength];
+        for (int i = 0; i < bodyLength; i++)
+        {
+            body[i] = (byte) (i * 31 + bodyLength);
+        }
+        return body;
+    }
+
+    /**
+     * 拷贝出剩余的字节，不移动position
+     *
+     * @param buffer 缓冲，处于读模式
+     * @return byte[]
+     */
+    private static byte[] toArray(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
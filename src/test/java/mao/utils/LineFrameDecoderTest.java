@@ -0,0 +1,252 @@
+package mao.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Project name(项目名称)：Netty_Net_Programming
+ * Package(包名): mao.utils
+ * Class(类名): LineFrameDecoderTest
+ * Author(作者）: mao
+ * Author QQ：1296193245
+ * GitHub：https://github.com/maomao124/
+ * Date(创建日期)： 2026/10/18
+ * Time(创建时间)： 23:55
+ * Version(版本): 1.0
+ * Description(描述)： LineFrameDecoder的测试，'\n'落在8字节字的每个位置，以及一行被拆到多次读事件中
+ */
+
+class LineFrameDecoderTest
+{
+    /**
+     * 和'\n'只差一位或者最高位不同的字节，按字节比较时容易误判
+     */
+    private static final byte[] NEAR_DELIMITER = {0x0B, 0x08, 0x0E, 0x02, (byte) 0x8A, (byte) 0xFF, 0x00, 0x09};
+
+    /**
+     * '\n'出现在每个位置，覆盖按8字节扫描的部分和剩下不足8字节逐个扫描的部分
+     */
+    @Test
+    void delimiterAtEveryOffset()
+    {
+        for (int length = 1; length <= 40; length++)
+        {
+            for (int offset = 0; offset < length; offset++)
+            {
+                byte[] data = filler(length);
+                data[offset] = '\n';
+                ByteBuffer buffer = ByteBuffer.allocate(length);
+                buffer.put(data);
+                List<byte[]> frames = new ArrayList<>();
+                new LineFrameDecoder().decode(buffer, frame -> frames.add(toArray(frame)));
+                assertEquals(1, frames.size());
+                assertEquals(offset + 1, frames.get(0).length);
+                //没有'\n'的部分留在缓冲开头
+                assertEquals(length - offset - 1, buffer.position());
+            }
+        }
+    }
+
+    /**
+     * 同一个8字节字中有多个'\n'，要按顺序一个一个找出来
+     */
+    @Test
+    void multipleDelimitersInOneWord()
+    {
+        byte[] data = bytes("a\nb\n\n\ncd\nefghijklmnop\nq\n");
+        List<byte[]> frames = decodeAll(new LineFrameDecoder(), data, data.length);
+        assertLines(frames, "a\n", "b\n", "\n", "\n", "cd\n", "efghijklmnop\n", "q\n");
+    }
+
+    /**
+     * 全是和'\n'相近的字节，不能误判
+     */
+    @Test
+    void noFalsePositive()
+    {
+        byte[] data = filler(64);
+        ByteBuffer buffer = ByteBuffer.allocate(data.length);
+        buffer.put(data);
+        new LineFrameDecoder().decode(buffer, frame -> fail("不应该收到消息"));
+        assertEquals(data.length, buffer.position());
+    }
+
+    /**
+     * 一次一个字节，已经扫描过的部分下一次不会重复扫描，也不能漏掉
+     */
+    @Test
+    void splitByteByByte()
+    {
+        String[] lines = {"\n", "short\n", "exactly8\n", "a line longer than eight bytes\n", "x\n",
+                new String(new char[100]).replace('\0', 'y') + "\n"};
+        byte[] data = bytes(String.join("", lines));
+        assertLines(decodeAll(new LineFrameDecoder(), data, 1), lines);
+        for (int chunkSize = 2; chunkSize <= 17; chunkSize++)
+        {
+            assertLines(decodeAll(new LineFrameDecoder(), data, chunkSize), lines);
+        }
+    }
+
+    /**
+     * 读缓冲是小端、大端都一样，视图的字节序和读缓冲无关
+     */
+    @Test
+    void bufferByteOrder()
+    {
+        byte[] data = bytes("0123456789\nabcdefgh\n");
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN})
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(data.length).order(order);
+            buffer.put(data);
+            List<byte[]> frames = new ArrayList<>();
+            new LineFrameDecoder().decode(buffer, frame -> frames.add(toArray(frame)));
+            assertLines(frames, "0123456789\n", "abcdefgh\n");
+        }
+    }
+
+    /**
+     * 半包时读缓冲换成更大的，从头重新扫描
+     */
+    @Test
+    void bufferReplaced()
+    {
+        LineFrameDecoder decoder = new LineFrameDecoder();
+        List<byte[]> frames = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.put(bytes("first\nsecond"));
+        decoder.decode(buffer, frame -> frames.add(toArray(frame)));
+        ByteBuffer larger = ByteBuffer.allocate(32);
+        buffer.flip();
+        larger.put(buffer);
+        larger.put(bytes(" line\n"));
+        decoder.decode(larger, frame -> frames.add(toArray(frame)));
+        assertLines(frames, "first\n", "second line\n");
+        assertEquals(0, larger.position());
+    }
+
+    /**
+     * 读缓冲被清空后调用reset，从头扫描
+     */
+    @Test
+    void reset()
+    {
+        LineFrameDecoder decoder = new LineFrameDecoder();
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        buffer.put(bytes("discarded"));
+        decoder.decode(buffer, frame -> fail("不应该收到消息"));
+        buffer.clear();
+        decoder.reset();
+        buffer.put(bytes("a\n"));
+        List<byte[]> frames = new ArrayList<>();
+        decoder.decode(buffer, frame -> frames.add(toArray(frame)));
+        assertLines(frames, "a\n");
+    }
+
+    /**
+     * 最大长度包含'\n'，找到'\n'之前超过最大长度也要报错
+     */
+    @Test
+    void tooLongFrame()
+    {
+        byte[] exact = bytes("0123456789abcde\n");
+        assertLines(decodeAll(new LineFrameDecoder(16), exact, 1), "0123456789abcde\n");
+
+        ByteBuffer complete = ByteBuffer.allocate(32);
+        complete.put(bytes("0123456789abcdef\n"));
+        assertThrows(TooLongFrameException.class,
+                () -> new LineFrameDecoder(16).decode(complete, frame -> fail("不应该收到消息")));
+
+        LineFrameDecoder decoder = new LineFrameDecoder(16);
+        ByteBuffer partial = ByteBuffer.allocate(32);
+        partial.put(bytes("0123456789abcdef"));
+        decoder.decode(partial, frame -> fail("不应该收到消息"));
+        partial.put((byte) 'g');
+        assertThrows(TooLongFrameException.class, () -> decoder.decode(partial, frame -> fail("不应该收到消息")));
+    }
+
+    /**
+     * 解码全部数据，每次最多放入chunkSize个字节
+     *
+     * @param decoder   解码器
+     * @param data      数据
+     * @param chunkSize 每次读事件的字节数
+     * @return 收到的消息
+     */
+    private static List<byte[]> decodeAll(LineFrameDecoder decoder, byte[] data, int chunkSize)
+    {
+        List<byte[]> frames = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(data.length);
+        for (int offset = 0; offset < data.length; offset += chunkSize)
+        {
+            buffer.put(data, offset, Math.min(chunkSize, data.length - offset));
+            decoder.decode(buffer, frame -> frames.add(toArray(frame)));
+        }
+        assertEquals(0, buffer.position());
+        return frames;
+    }
+
+    /**
+     * 检查收到的消息
+     *
+     * @param frames 收到的消息
+     * @param lines  期望的行，包含'\n'
+     */
+    private static void assertLines(List<byte[]> frames, String... lines)
+    {
+        assertEquals(lines.length, frames.size());
+        for (int i = 0; i < lines.length; i++)
+        {
+            assertArrayEquals(bytes(lines[i]), frames.get(i));
+        }
+    }
+
+    /**
+     * 不含'\n'的填充数据
+     *
+     * @param length 长度
+     * @return byte[]
+     */
+    private static byte[] filler(int length)
+    {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            data[i] = NEAR_DELIMITER[i % NEAR_DELIMITER.length];
+        }
+        return data;
+    }
+
+    /**
+     * 字符串转字节
+     *
+     * @param s 字符串
+     * @return byte[]
+     */
+    private static byte[] bytes(String s)
+    {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 拷贝出剩余的字节，不移动position
+     *
+     * @param buffer 缓冲，处于读模式
+     * @return byte[]
+     */
+    private static byte[] toArray(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}